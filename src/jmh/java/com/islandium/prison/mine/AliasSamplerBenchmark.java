@@ -0,0 +1,76 @@
+package com.islandium.prison.mine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tirage pondéré d'un type de bloc : table d'alias (AliasSampler) contre l'ancien
+ * parcours cumulatif de selectRandomBlock (somme des poids puis scan à chaque tirage).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AliasSamplerBenchmark {
+
+    // Nombre de types de blocs dans la composition
+    @Param({"4", "16", "64"})
+    public int types;
+
+    private List<Map.Entry<String, Double>> entries;
+    private AliasSampler sampler;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        Random weights = new Random(42);
+        entries = new ArrayList<>(types);
+        double[] values = new double[types];
+        for (int i = 0; i < types; i++) {
+            values[i] = 1 + weights.nextInt(100);
+            entries.add(new AbstractMap.SimpleEntry<>("block_" + i, values[i]));
+        }
+        sampler = new AliasSampler(values);
+        random = new Random(7);
+    }
+
+    @Benchmark
+    public int alias() {
+        return sampler.sample(random);
+    }
+
+    @Benchmark
+    public String linearScan() {
+        return selectRandomBlock(entries, random);
+    }
+
+    /**
+     * Copie de l'ancien MineManager.selectRandomBlock (référence).
+     */
+    private static String selectRandomBlock(List<Map.Entry<String, Double>> entries, Random random) {
+        double total = entries.stream().mapToDouble(Map.Entry::getValue).sum();
+        double roll = random.nextDouble() * total;
+
+        double cumulative = 0;
+        for (Map.Entry<String, Double> entry : entries) {
+            cumulative += entry.getValue();
+            if (roll <= cumulative) {
+                return entry.getKey();
+            }
+        }
+
+        return entries.isEmpty() ? "minecraft:stone" : entries.get(0).getKey();
+    }
+}
@@ -0,0 +1,98 @@
+package com.islandium.prison.mine;
+
+import com.islandium.core.api.location.ServerLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test d'appartenance d'un bloc cassé à une mine cylindrique : chemin primitif de MineGeometry
+ * contre l'ancien Mine.contains (ServerLocation allouée par événement, ellipse en flottants).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MineContainsBenchmark {
+
+    private static final int POINTS = 1024;
+    private static final String WORLD = "world";
+    private static final int CX = 100, CY = 64, CZ = -50, HEIGHT = 40;
+    private static final double RADIUS_ADJUST = 0.5;
+
+    @Param({"8", "32"})
+    public int radius;
+
+    private MineGeometry geometry;
+    private final int[] xs = new int[POINTS];
+    private final int[] ys = new int[POINTS];
+    private final int[] zs = new int[POINTS];
+
+    @Setup
+    public void setup() {
+        ServerLocation center = ServerLocation.of("server", WORLD, CX, CY, CZ, 0, 0);
+        geometry = MineGeometry.cylinder(center, CylinderFootprint.of(radius, RADIUS_ADJUST), HEIGHT, 0);
+
+        // Points dans et autour de la boîte englobante (environ moitié dedans)
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = CX - radius - 4 + random.nextInt(2 * radius + 9);
+            ys[i] = CY - 4 + random.nextInt(HEIGHT + 8);
+            zs[i] = CZ - radius - 4 + random.nextInt(2 * radius + 9);
+        }
+    }
+
+    @Benchmark
+    public void geometry(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(geometry.contains(WORLD, xs[i], ys[i], zs[i]));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            ServerLocation location = ServerLocation.of("server", WORLD, xs[i], ys[i], zs[i], 0, 0);
+            blackhole.consume(legacyContains(location));
+        }
+    }
+
+    /**
+     * Copie de l'ancien Mine.contains, branche cylindre (référence).
+     */
+    private boolean legacyContains(ServerLocation location) {
+        if (!WORLD.equals(location.world())) {
+            return false;
+        }
+
+        int lx = (int) Math.floor(location.x());
+        int ly = (int) Math.floor(location.y());
+        int lz = (int) Math.floor(location.z());
+
+        if (ly < CY || ly >= CY + HEIGHT) {
+            return false;
+        }
+
+        double rX = radius + RADIUS_ADJUST;
+        double rZ = radius + RADIUS_ADJUST;
+        double rXSq = rX * rX;
+        double rZSq = rZ * rZ;
+
+        int dx = lx - CX;
+        int dz = lz - CZ;
+        if (dx < -radius || dx > radius || dz < -radius || dz > radius) {
+            return false;
+        }
+
+        double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
+        return distSq < 1.0;
+    }
+}
@@ -9,6 +9,8 @@ import com.islandium.prison.mine.MineManager;
 import com.islandium.prison.rank.PrisonRankManager;
 // CellManager migre vers islandium-cells (com.islandium.cells.api.CellsAPI)
 import com.islandium.prison.service.PrisonServiceManager;
+import com.islandium.prison.service.PrisonTimerService;
+import com.islandium.prison.stats.MiningContextManager;
 import com.islandium.prison.stats.PlayerStatsManager;
 import com.islandium.prison.ui.PrisonUIManager;
 import com.islandium.prison.ui.pages.PrisonMenuPage;
@@ -38,8 +40,10 @@ public class PrisonPlugin extends JavaPlugin {
     private MineManager mineManager;
     private PrisonRankManager rankManager;
     private PlayerStatsManager statsManager;
+    private MiningContextManager miningContextManager;
     private SellService sellService;
     private PickaxeUpgradeManager upgradeManager;
+    private PrisonTimerService timerService;
     private PrisonServiceManager serviceManager;
     private PrisonCommandManager commandManager;
     private PrisonListenerManager listenerManager;
@@ -70,6 +74,7 @@ public class PrisonPlugin extends JavaPlugin {
 
             // 3. Initialize services
             log(Level.INFO, "Initializing services...");
+            this.timerService = new PrisonTimerService(this);
             this.serviceManager = new PrisonServiceManager(this);
             serviceManager.initialize();
 
@@ -78,6 +83,7 @@ public class PrisonPlugin extends JavaPlugin {
             this.mineManager = new MineManager(this);
             this.rankManager = new PrisonRankManager(this);
             this.statsManager = new PlayerStatsManager(this);
+            this.miningContextManager = new MiningContextManager(this);
             this.sellService = new SellService(this);
             this.upgradeManager = new PickaxeUpgradeManager(this);
             // CellManager est maintenant dans islandium-cells
@@ -142,6 +148,11 @@ public class PrisonPlugin extends JavaPlugin {
         log(Level.INFO, "Shutting down Prison...");
 
         try {
+            // Créditer les gains d'auto-sell en attente avant de sauvegarder les stats
+            if (sellService != null) {
+                sellService.getAutoSellAccumulator().flushAllAndWait(10);
+            }
+
             // Save all data
             if (mineManager != null) {
                 mineManager.saveAll();
@@ -166,6 +177,11 @@ public class PrisonPlugin extends JavaPlugin {
                 serviceManager.shutdown();
             }
 
+            // Arrêt du timer en dernier (plus aucune tâche programmée après)
+            if (timerService != null) {
+                timerService.shutdown();
+            }
+
             log(Level.INFO, "Prison shut down successfully!");
 
         } catch (Exception e) {
@@ -217,6 +233,11 @@ public class PrisonPlugin extends JavaPlugin {
         return statsManager;
     }
 
+    @NotNull
+    public MiningContextManager getMiningContextManager() {
+        return miningContextManager;
+    }
+
     @NotNull
     public SellService getSellService() {
         return sellService;
@@ -229,6 +250,11 @@ public class PrisonPlugin extends JavaPlugin {
 
     // getCellManager() supprime - utiliser CellsAPI.get() depuis islandium-cells
 
+    @NotNull
+    public PrisonTimerService getTimerService() {
+        return timerService;
+    }
+
     @NotNull
     public PrisonServiceManager getServiceManager() {
         return serviceManager;
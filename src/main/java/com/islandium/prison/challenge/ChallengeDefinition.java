@@ -20,6 +20,10 @@ public class ChallengeDefinition {
     private final String description;
     private final String targetBlockId;
     private final List<ChallengeTier> tiers;
+    // Ordinal dense attribue par le registre a la publication (-1 hors registre)
+    private int ordinal = -1;
+    // Position dans la liste de son rang, attribuee avec l'ordinal (-1 hors registre)
+    private int rankPosition = -1;
 
     private ChallengeDefinition(Builder builder) {
         this.id = builder.id;
@@ -43,6 +47,21 @@ public class ChallengeDefinition {
 
     public int getTierCount() { return tiers.size(); }
 
+    /**
+     * Ordinal du challenge dans l'instantane du registre qui l'a publie (-1 hors registre).
+     */
+    public int getOrdinal() { return ordinal; }
+
+    /**
+     * Position du challenge dans la liste de son rang (unique dans le rang, contrairement a getIndex).
+     */
+    public int getRankPosition() { return rankPosition; }
+
+    void assignOrdinal(int ordinal, int rankPosition) {
+        this.ordinal = ordinal;
+        this.rankPosition = rankPosition;
+    }
+
     /**
      * Retourne la cible du dernier palier (= objectif final pour completion).
      */
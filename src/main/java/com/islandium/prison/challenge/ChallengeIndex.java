@@ -0,0 +1,64 @@
+package com.islandium.prison.challenge;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index des challenges d'un rang par type d'evenement (immutable, construit au chargement).
+ *
+ * Le tracker ne parcourt ainsi que les challenges qu'un evenement peut faire progresser :
+ * par type (EnumMap) et, pour MINE_SPECIFIC, par bloc cible.
+ */
+final class ChallengeIndex {
+
+    static final ChallengeIndex EMPTY = new ChallengeIndex(List.of());
+
+    private static final ChallengeDefinition[] NONE = new ChallengeDefinition[0];
+
+    private final EnumMap<ChallengeType, ChallengeDefinition[]> byType = new EnumMap<>(ChallengeType.class);
+    private final Map<String, ChallengeDefinition[]> byBlock = new HashMap<>();
+
+    ChallengeIndex(@NotNull List<ChallengeDefinition> challenges) {
+        EnumMap<ChallengeType, List<ChallengeDefinition>> types = new EnumMap<>(ChallengeType.class);
+        Map<String, List<ChallengeDefinition>> blocks = new HashMap<>();
+        for (ChallengeDefinition def : challenges) {
+            types.computeIfAbsent(def.getType(), k -> new ArrayList<>()).add(def);
+            if (def.getType() == ChallengeType.MINE_SPECIFIC && def.getTargetBlockId() != null) {
+                blocks.computeIfAbsent(def.getTargetBlockId(), k -> new ArrayList<>()).add(def);
+            }
+        }
+        types.forEach((type, defs) -> byType.put(type, defs.toArray(NONE)));
+        blocks.forEach((blockId, defs) -> byBlock.put(blockId, defs.toArray(NONE)));
+    }
+
+    /**
+     * Challenges du rang d'un type donne (tableau partage, ne pas modifier).
+     */
+    @NotNull
+    ChallengeDefinition[] ofType(@NotNull ChallengeType type) {
+        return byType.getOrDefault(type, NONE);
+    }
+
+    /**
+     * Challenges MINE_SPECIFIC du rang ciblant ce bloc (tableau partage, ne pas modifier).
+     */
+    @NotNull
+    ChallengeDefinition[] ofBlock(@NotNull String blockId) {
+        return byBlock.getOrDefault(blockId, NONE);
+    }
+
+    /**
+     * Bit du challenge dans le masque de completion d'un joueur, d'apres sa position dans la liste
+     * du rang (challenge_index n'est pas unique). 0 au-dela de 64 challenges par rang :
+     * le challenge n'est alors jamais saute.
+     */
+    static long bit(@NotNull ChallengeDefinition def) {
+        int position = def.getRankPosition();
+        return position >= 0 && position < Long.SIZE ? 1L << position : 0L;
+    }
+}
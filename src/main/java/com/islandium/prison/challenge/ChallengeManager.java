@@ -22,7 +22,8 @@ import java.util.logging.Level;
 /**
  * Manager central pour le systeme de challenges.
  * Stockage SQL avec cache en memoire pour les performances.
- * Les donnees sont chargees au demarrage et persistees de maniere async.
+ * Les donnees sont chargees au demarrage ; la progression est ecrite en differe
+ * par ChallengeProgressStore (flush groupe periodique, immediat sur palier complete).
  */
 public class ChallengeManager {
 
@@ -35,8 +36,11 @@ public class ChallengeManager {
     private final Map<UUID, Set<String>> pinnedChallenges = new ConcurrentHashMap<>();
     private static final int MAX_PINS = 5;
 
+    private final ChallengeProgressStore progressStore;
+
     public ChallengeManager(@NotNull PrisonPlugin plugin) {
         this.plugin = plugin;
+        this.progressStore = new ChallengeProgressStore(plugin, this::peekProgressData);
     }
 
     private SQLExecutor getSql() {
@@ -103,15 +107,20 @@ public class ChallengeManager {
                 }
             ).join();
 
+            int unknown = 0;
             for (ProgressRow row : rows) {
                 UUID uuid = UUID.fromString(row.playerUuid);
                 PlayerChallengeProgress progress = playerProgress.computeIfAbsent(uuid, k -> new PlayerChallengeProgress());
-                PlayerChallengeProgress.ChallengeProgressData data = progress.getOrCreate(row.challengeId);
-                data.currentValue = row.currentValue;
-                data.completedTier = row.completedTier;
+                if (!progress.load(row.challengeId, row.currentValue, row.completedTier)) {
+                    unknown++;
+                }
             }
 
-            plugin.log(Level.INFO, "Loaded challenge progress for " + playerProgress.size() + " players from SQL.");
+            plugin.log(Level.INFO, "Loaded challenge progress for " + playerProgress.size() + " players from SQL."
+                    + (unknown > 0 ? " Kept " + unknown + " rows of unknown challenges aside." : ""));
+            if (ChallengeRegistry.getChallengeCount() == 0 && !rows.isEmpty()) {
+                plugin.log(Level.WARNING, "Challenge registry is empty: progress is kept aside until the challenges are loaded.");
+            }
         } catch (Exception e) {
             plugin.log(Level.SEVERE, "Failed to load challenge data from SQL: " + e.getMessage());
         }
@@ -148,69 +157,46 @@ public class ChallengeManager {
     }
 
     /**
-     * Sauvegarde toute la progression en memoire vers SQL (batch).
-     * Appele a l'arret du serveur.
+     * Ecrit toute la progression en attente vers SQL et attend la fin de l'ecriture.
+     * Appele a l'arret du serveur (le reste est deja en base).
      */
     public void saveAll() {
-        try {
-            String sql = """
-                INSERT INTO prison_challenge_progress (player_uuid, challenge_id, current_value, completed_tier, updated_at)
-                VALUES (?, ?, ?, ?, ?)
-                ON DUPLICATE KEY UPDATE
-                    current_value = VALUES(current_value),
-                    completed_tier = VALUES(completed_tier),
-                    updated_at = VALUES(updated_at)
-            """;
-
-            List<Object[]> batchParams = new ArrayList<>();
-            long now = System.currentTimeMillis();
-
-            for (Map.Entry<UUID, PlayerChallengeProgress> entry : playerProgress.entrySet()) {
-                String uuidStr = entry.getKey().toString();
-                for (Map.Entry<String, PlayerChallengeProgress.ChallengeProgressData> cEntry : entry.getValue().challenges.entrySet()) {
-                    PlayerChallengeProgress.ChallengeProgressData data = cEntry.getValue();
-                    batchParams.add(new Object[]{
-                        uuidStr,
-                        cEntry.getKey(),
-                        data.currentValue,
-                        data.completedTier,
-                        now
-                    });
-                }
-            }
-
-            if (!batchParams.isEmpty()) {
-                getSql().executeBatch(sql, batchParams).join();
-                plugin.log(Level.INFO, "Saved " + batchParams.size() + " challenge progress records to SQL.");
-            }
-        } catch (Exception e) {
-            plugin.log(Level.SEVERE, "Failed to save challenge data to SQL: " + e.getMessage());
+        int pending = progressStore.getQueueSize();
+        progressStore.flushAllAndWait(10);
+        if (pending > 0) {
+            plugin.log(Level.INFO, "Saved " + pending + " pending challenge progress records to SQL.");
         }
     }
 
     // ===========================
-    // Async SQL persistence (per-record)
+    // Write-behind persistence
     // ===========================
 
+    @NotNull
+    public ChallengeProgressStore getProgressStore() {
+        return progressStore;
+    }
+
     /**
-     * Persiste un seul record de progression de maniere async.
-     * Appele apres chaque changement de progression.
+     * Marque une progression a ecrire : immediatement si un palier vient d'etre complete,
+     * sinon au prochain flush periodique.
      */
-    private void persistAsync(@NotNull UUID uuid, @NotNull String challengeId, @NotNull PlayerChallengeProgress.ChallengeProgressData data) {
-        try {
-            getSql().execute("""
-                INSERT INTO prison_challenge_progress (player_uuid, challenge_id, current_value, completed_tier, updated_at)
-                VALUES (?, ?, ?, ?, ?)
-                ON DUPLICATE KEY UPDATE
-                    current_value = VALUES(current_value),
-                    completed_tier = VALUES(completed_tier),
-                    updated_at = VALUES(updated_at)
-            """, uuid.toString(), challengeId, data.currentValue, data.completedTier, System.currentTimeMillis());
-        } catch (Exception e) {
-            plugin.log(Level.WARNING, "Failed to persist challenge progress: " + e.getMessage());
+    private void persist(@NotNull UUID uuid, @NotNull String challengeId, boolean tierCompleted) {
+        if (tierCompleted) {
+            progressStore.flushNow(uuid, challengeId);
+        } else {
+            progressStore.markDirty(uuid, challengeId);
         }
     }
 
+    /**
+     * Valeur courante d'une progression pour le store, sans la creer (null si supprimee).
+     */
+    private PlayerChallengeProgress.ChallengeProgressData peekProgressData(@NotNull UUID uuid, @NotNull String challengeId) {
+        PlayerChallengeProgress progress = playerProgress.get(uuid);
+        return progress != null ? progress.get(challengeId) : null;
+    }
+
     // ===========================
     // Progress Management
     // ===========================
@@ -221,11 +207,12 @@ public class ChallengeManager {
     }
 
     /**
-     * Obtient la progression d'un joueur pour un challenge specifique.
+     * Obtient la progression d'un joueur pour un challenge specifique (copie, zero si aucune).
      */
     @NotNull
     public PlayerChallengeProgress.ChallengeProgressData getProgressData(@NotNull UUID uuid, @NotNull String challengeId) {
-        return getProgress(uuid).getOrCreate(challengeId);
+        PlayerChallengeProgress.ChallengeProgressData data = peekProgressData(uuid, challengeId);
+        return data != null ? data : PlayerChallengeProgress.EMPTY;
     }
 
     /**
@@ -236,18 +223,25 @@ public class ChallengeManager {
      */
     public boolean incrementProgress(@NotNull UUID uuid, @NotNull String challengeId, long amount) {
         ChallengeDefinition def = ChallengeRegistry.getChallenge(challengeId);
-        if (def == null) return false;
+        return def != null && incrementProgress(uuid, def, amount);
+    }
 
-        PlayerChallengeProgress.ChallengeProgressData data = getProgressData(uuid, challengeId);
+    /**
+     * Incremente la progression d'un challenge deja resolu (chemin du tracker, sans lookup par id).
+     *
+     * @return true si un nouveau palier a ete complete
+     */
+    public boolean incrementProgress(@NotNull UUID uuid, @NotNull ChallengeDefinition def, long amount) {
+        PlayerChallengeProgress progress = getProgress(uuid);
 
         // Deja tous les paliers completes ?
-        if (data.completedTier >= def.getTierCount()) {
+        if (progress.isFullyCompleted(def)) {
             return false;
         }
 
-        data.currentValue += amount;
-        boolean result = checkAndRewardTiers(uuid, def, data);
-        persistAsync(uuid, challengeId, data);
+        progress.addValue(def, amount);
+        boolean result = checkAndRewardTiers(uuid, def, progress);
+        persist(uuid, def.getId(), result);
         return result;
     }
 
@@ -258,38 +252,45 @@ public class ChallengeManager {
      */
     public boolean setProgress(@NotNull UUID uuid, @NotNull String challengeId, long value) {
         ChallengeDefinition def = ChallengeRegistry.getChallenge(challengeId);
-        if (def == null) return false;
+        return def != null && setProgress(uuid, def, value);
+    }
 
-        PlayerChallengeProgress.ChallengeProgressData data = getProgressData(uuid, challengeId);
+    /**
+     * Definit la valeur absolue de progression d'un challenge deja resolu.
+     *
+     * @return true si un nouveau palier a ete complete
+     */
+    public boolean setProgress(@NotNull UUID uuid, @NotNull ChallengeDefinition def, long value) {
+        PlayerChallengeProgress progress = getProgress(uuid);
 
-        if (data.completedTier >= def.getTierCount()) {
+        if (progress.isFullyCompleted(def)) {
             return false;
         }
 
-        long oldValue = data.currentValue;
-        data.currentValue = Math.max(data.currentValue, value);
-
-        if (data.currentValue != oldValue) {
-            boolean result = checkAndRewardTiers(uuid, def, data);
-            persistAsync(uuid, challengeId, data);
+        if (progress.raiseValue(def, value)) {
+            boolean result = checkAndRewardTiers(uuid, def, progress);
+            persist(uuid, def.getId(), result);
             return result;
         }
 
-        return checkAndRewardTiers(uuid, def, data);
+        return checkAndRewardTiers(uuid, def, progress);
     }
 
     /**
      * Verifie les paliers et donne les recompenses si atteints.
      */
     private boolean checkAndRewardTiers(@NotNull UUID uuid, @NotNull ChallengeDefinition def,
-                                         @NotNull PlayerChallengeProgress.ChallengeProgressData data) {
+                                         @NotNull PlayerChallengeProgress progress) {
         boolean tierCompleted = false;
         List<ChallengeDefinition.ChallengeTier> tiers = def.getTiers();
-
-        while (data.completedTier < tiers.size()) {
-            ChallengeDefinition.ChallengeTier nextTier = tiers.get(data.completedTier);
-            if (data.currentValue >= nextTier.target()) {
-                data.completedTier++;
+        long currentValue = progress.getValue(def);
+        int completedTier = progress.getCompletedTier(def);
+
+        while (completedTier < tiers.size()) {
+            ChallengeDefinition.ChallengeTier nextTier = tiers.get(completedTier);
+            if (currentValue >= nextTier.target()) {
+                completedTier++;
+                progress.setCompletedTier(def, completedTier);
                 tierCompleted = true;
 
                 // Donner la recompense
@@ -306,10 +307,10 @@ public class ChallengeManager {
                 }
 
                 // Notification au joueur
-                notifyTierComplete(uuid, def, data.completedTier, tiers.size(), reward);
+                notifyTierComplete(uuid, def, completedTier, tiers.size(), reward);
 
                 // Auto-unpin si le challenge est entierement complete
-                if (data.completedTier >= tiers.size() && isPinned(uuid, def.getId())) {
+                if (completedTier >= tiers.size() && isPinned(uuid, def.getId())) {
                     togglePin(uuid, def.getId());
                 }
             } else {
@@ -362,10 +363,11 @@ public class ChallengeManager {
         ChallengeDefinition def = ChallengeRegistry.getChallenge(challengeId);
         if (def == null || def.getType() != ChallengeType.SUBMIT_ITEMS) return 2;
 
-        PlayerChallengeProgress.ChallengeProgressData data = getProgressData(uuid, challengeId);
-        if (data.completedTier >= def.getTierCount()) return 3;
+        PlayerChallengeProgress progress = getProgress(uuid);
+        int completedTier = progress.getCompletedTier(def);
+        if (completedTier >= def.getTierCount()) return 3;
 
-        ChallengeDefinition.ChallengeTier tier = def.getTiers().get(data.completedTier);
+        ChallengeDefinition.ChallengeTier tier = def.getTiers().get(completedTier);
         List<ChallengeDefinition.RequiredItem> requiredItems = tier.requiredItems();
         if (requiredItems.isEmpty()) return 2;
 
@@ -395,7 +397,8 @@ public class ChallengeManager {
         }
 
         // Phase 4: Completer le palier
-        data.completedTier++;
+        completedTier++;
+        progress.setCompletedTier(def, completedTier);
         BigDecimal reward = tier.reward();
         if (reward.compareTo(BigDecimal.ZERO) > 0) {
             EconomyService eco = getEconomyService();
@@ -408,11 +411,11 @@ public class ChallengeManager {
             }
         }
 
-        notifyTierComplete(uuid, def, data.completedTier, def.getTierCount(), reward);
-        persistAsync(uuid, challengeId, data);
+        notifyTierComplete(uuid, def, completedTier, def.getTierCount(), reward);
+        persist(uuid, challengeId, true);
 
         // Auto-unpin si entierement complete
-        if (data.completedTier >= def.getTierCount() && isPinned(uuid, challengeId)) {
+        if (completedTier >= def.getTierCount() && isPinned(uuid, challengeId)) {
             togglePin(uuid, challengeId);
         }
         return 0;
@@ -496,28 +499,24 @@ public class ChallengeManager {
         List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
         if (challenges.isEmpty()) return true;
 
-        for (ChallengeDefinition def : challenges) {
-            PlayerChallengeProgress.ChallengeProgressData data = getProgressData(uuid, def.getId());
-            if (data.completedTier < def.getTierCount()) {
-                return false;
-            }
-        }
-        return true;
+        PlayerChallengeProgress progress = playerProgress.get(uuid);
+        return progress != null && progress.countCompleted(challenges) == challenges.size();
+    }
+
+    /**
+     * Verifie si un challenge est entierement complete par un joueur (sans creer d'entree).
+     */
+    public boolean isFullyCompleted(@NotNull UUID uuid, @NotNull ChallengeDefinition def) {
+        PlayerChallengeProgress progress = playerProgress.get(uuid);
+        return progress != null && progress.isFullyCompleted(def);
     }
 
     /**
      * Compte le nombre de challenges entierement completes pour un rang.
      */
     public int getCompletedCount(@NotNull UUID uuid, @NotNull String rankId) {
-        List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
-        int count = 0;
-        for (ChallengeDefinition def : challenges) {
-            PlayerChallengeProgress.ChallengeProgressData data = getProgressData(uuid, def.getId());
-            if (data.completedTier >= def.getTierCount()) {
-                count++;
-            }
-        }
-        return count;
+        PlayerChallengeProgress progress = playerProgress.get(uuid);
+        return progress != null ? progress.countCompleted(ChallengeRegistry.getChallengesForRank(rankId)) : 0;
     }
 
     /**
@@ -528,20 +527,18 @@ public class ChallengeManager {
         PlayerChallengeProgress progress = getProgress(uuid);
         List<String> challengeIds = new ArrayList<>();
         for (ChallengeDefinition def : challenges) {
-            progress.challenges.remove(def.getId());
+            progress.remove(def.getId());
+            progressStore.discard(uuid, def.getId());
             challengeIds.add(def.getId());
         }
+        invalidateTracker(uuid);
 
-        // Supprimer en SQL aussi
+        // Supprimer en SQL aussi (apres les ecritures deja programmees)
         for (String challengeId : challengeIds) {
-            try {
-                getSql().execute(
-                    "DELETE FROM prison_challenge_progress WHERE player_uuid = ? AND challenge_id = ?",
-                    uuid.toString(), challengeId
-                );
-            } catch (Exception e) {
-                plugin.log(Level.WARNING, "Failed to delete challenge progress from SQL: " + e.getMessage());
-            }
+            progressStore.afterPendingWrites(() -> getSql().execute(
+                "DELETE FROM prison_challenge_progress WHERE player_uuid = ? AND challenge_id = ?",
+                uuid.toString(), challengeId
+            ));
         }
     }
 
@@ -550,16 +547,14 @@ public class ChallengeManager {
      */
     public void resetSingleChallenge(@NotNull UUID uuid, @NotNull String challengeId) {
         PlayerChallengeProgress progress = getProgress(uuid);
-        progress.challenges.remove(challengeId);
-
-        try {
-            getSql().execute(
-                "DELETE FROM prison_challenge_progress WHERE player_uuid = ? AND challenge_id = ?",
-                uuid.toString(), challengeId
-            );
-        } catch (Exception e) {
-            plugin.log(Level.WARNING, "Failed to delete single challenge progress from SQL: " + e.getMessage());
-        }
+        progress.remove(challengeId);
+        progressStore.discard(uuid, challengeId);
+        invalidateTracker(uuid);
+
+        progressStore.afterPendingWrites(() -> getSql().execute(
+            "DELETE FROM prison_challenge_progress WHERE player_uuid = ? AND challenge_id = ?",
+            uuid.toString(), challengeId
+        ));
     }
 
     /**
@@ -567,17 +562,15 @@ public class ChallengeManager {
      */
     public void resetAllChallenges(@NotNull UUID uuid) {
         playerProgress.remove(uuid);
+        progressStore.discard(uuid);
+        invalidateTracker(uuid);
         clearPins(uuid);
 
-        // Supprimer en SQL aussi
-        try {
-            getSql().execute(
-                "DELETE FROM prison_challenge_progress WHERE player_uuid = ?",
-                uuid.toString()
-            );
-        } catch (Exception e) {
-            plugin.log(Level.WARNING, "Failed to delete all challenge progress from SQL: " + e.getMessage());
-        }
+        // Supprimer en SQL aussi (apres les ecritures deja programmees)
+        progressStore.afterPendingWrites(() -> getSql().execute(
+            "DELETE FROM prison_challenge_progress WHERE player_uuid = ?",
+            uuid.toString()
+        ));
     }
 
     // ===========================
@@ -652,6 +645,15 @@ public class ChallengeManager {
     // Utility
     // ===========================
 
+    /**
+     * Le tracker garde un masque des challenges completes : a reconstruire apres un reset.
+     */
+    private void invalidateTracker(@NotNull UUID uuid) {
+        if (plugin.getChallengeTracker() != null) {
+            plugin.getChallengeTracker().invalidateRankCache(uuid);
+        }
+    }
+
     private EconomyService getEconomyService() {
         IslandiumAPI api = IslandiumAPI.get();
         return api != null ? api.getEconomyService() : null;
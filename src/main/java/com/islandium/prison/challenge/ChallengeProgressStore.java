@@ -0,0 +1,236 @@
+package com.islandium.prison.challenge;
+
+import com.islandium.core.database.SQLExecutor;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Écriture différée (write-behind) de la progression des challenges.
+ *
+ * Une progression ne fait que marquer son entrée (joueur, challenge) : un flush périodique
+ * écrit toutes les entrées marquées en un seul executeBatch, avec leurs valeurs du moment.
+ * Les écritures (flushs, suppressions) sont enchaînées : une écriture plus ancienne ne peut
+ * jamais arriver en base après une plus récente.
+ */
+public class ChallengeProgressStore {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO prison_challenge_progress (player_uuid, challenge_id, current_value, completed_tier, updated_at)
+        VALUES (?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            current_value = VALUES(current_value),
+            completed_tier = VALUES(completed_tier),
+            updated_at = VALUES(updated_at)
+    """;
+
+    private final PrisonPlugin plugin;
+    // Valeur courante d'une entrée, null si elle a été supprimée entre-temps
+    private final BiFunction<UUID, String, PlayerChallengeProgress.ChallengeProgressData> lookup;
+
+    private final Set<ProgressKey> dirty = ConcurrentHashMap.newKeySet();
+    // Dernière écriture programmée (les suivantes s'y enchaînent)
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    // Métriques
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushMillisTotal = new LongAdder();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+
+    public ChallengeProgressStore(@NotNull PrisonPlugin plugin,
+                                  @NotNull BiFunction<UUID, String, PlayerChallengeProgress.ChallengeProgressData> lookup) {
+        this.plugin = plugin;
+        this.lookup = lookup;
+    }
+
+    private record ProgressKey(UUID uuid, String challengeId) {}
+
+    private SQLExecutor getSql() {
+        return plugin.getCore().getDatabaseManager().getExecutor();
+    }
+
+    // === Marquage ===
+
+    /**
+     * Marque une progression à écrire au prochain flush.
+     */
+    public void markDirty(@NotNull UUID uuid, @NotNull String challengeId) {
+        dirty.add(new ProgressKey(uuid, challengeId));
+    }
+
+    /**
+     * Oublie une progression en attente (challenge remis à zéro).
+     */
+    public void discard(@NotNull UUID uuid, @NotNull String challengeId) {
+        dirty.remove(new ProgressKey(uuid, challengeId));
+    }
+
+    /**
+     * Oublie toutes les progressions en attente d'un joueur.
+     */
+    public void discard(@NotNull UUID uuid) {
+        dirty.removeIf(key -> key.uuid.equals(uuid));
+    }
+
+    // === Flush ===
+
+    /**
+     * Écrit toutes les progressions marquées (flush périodique).
+     */
+    @NotNull
+    public CompletableFuture<Void> flushAll() {
+        return flush(null);
+    }
+
+    /**
+     * Écrit les progressions marquées d'un joueur (déconnexion).
+     */
+    @NotNull
+    public CompletableFuture<Void> flushPlayer(@NotNull UUID uuid) {
+        return flush(uuid);
+    }
+
+    /**
+     * Écrit immédiatement une progression (palier complété), sans attendre le flush.
+     */
+    @NotNull
+    public CompletableFuture<Void> flushNow(@NotNull UUID uuid, @NotNull String challengeId) {
+        ProgressKey key = new ProgressKey(uuid, challengeId);
+        dirty.add(key);
+        return enqueue(() -> write(drain(k -> k.equals(key))));
+    }
+
+    /**
+     * Exécute une écriture après toutes celles déjà programmées (suppression SQL, etc.).
+     */
+    @NotNull
+    public CompletableFuture<Void> afterPendingWrites(@NotNull Supplier<CompletableFuture<?>> write) {
+        return enqueue(write);
+    }
+
+    /**
+     * Flush synchrone de toutes les progressions (arrêt du plugin).
+     */
+    public void flushAllAndWait(long timeoutSeconds) {
+        try {
+            flushAll().get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            plugin.log(Level.SEVERE, "Challenge progress final flush incomplete: " + e.getMessage());
+        }
+        if (!dirty.isEmpty()) {
+            plugin.log(Level.SEVERE, "Challenge progress: " + dirty.size() + " records not saved at shutdown");
+        }
+    }
+
+    private CompletableFuture<Void> flush(@Nullable UUID uuid) {
+        if (dirty.isEmpty()) return CompletableFuture.completedFuture(null);
+        // Les entrées sont lues au moment de l'écriture : valeurs les plus récentes
+        return enqueue(() -> write(drain(key -> uuid == null || key.uuid.equals(uuid))));
+    }
+
+    private synchronized CompletableFuture<Void> enqueue(Supplier<CompletableFuture<?>> write) {
+        CompletableFuture<Void> next = tail
+                .thenCompose(ignored -> write.get().thenApply(result -> (Void) null))
+                .handle((result, error) -> {
+                    if (error != null) {
+                        plugin.log(Level.WARNING, "Challenge progress write failed: " + error.getMessage());
+                    }
+                    return null;
+                });
+        tail = next;
+        return next;
+    }
+
+    private List<ProgressKey> drain(Predicate<ProgressKey> filter) {
+        List<ProgressKey> keys = new ArrayList<>();
+        for (ProgressKey key : dirty) {
+            if (filter.test(key) && dirty.remove(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private CompletableFuture<?> write(List<ProgressKey> keys) {
+        List<Object[]> batchParams = new ArrayList<>(keys.size());
+        List<ProgressKey> written = new ArrayList<>(keys.size());
+        long now = System.currentTimeMillis();
+        for (ProgressKey key : keys) {
+            PlayerChallengeProgress.ChallengeProgressData data = lookup.apply(key.uuid, key.challengeId);
+            if (data == null) continue;
+            batchParams.add(new Object[]{key.uuid.toString(), key.challengeId, data.currentValue, data.completedTier, now});
+            written.add(key);
+        }
+        if (batchParams.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        long start = System.nanoTime();
+        CompletableFuture<?> batch;
+        try {
+            batch = getSql().executeBatch(UPSERT_SQL, batchParams);
+        } catch (Exception e) {
+            batch = CompletableFuture.failedFuture(e);
+        }
+        return batch.whenComplete((result, error) -> {
+            if (error != null) {
+                // Remettre en attente pour le prochain flush
+                dirty.addAll(written);
+                return;
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            flushes.increment();
+            rowsWritten.add(batchParams.size());
+            flushMillisTotal.add(millis);
+            lastFlushMillis.set(millis);
+            maxFlushMillis.accumulateAndGet(millis, Math::max);
+        });
+    }
+
+    // === Métriques ===
+
+    /**
+     * Nombre de progressions en attente d'écriture.
+     */
+    public int getQueueSize() {
+        return dirty.size();
+    }
+
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    /**
+     * Durée de la dernière écriture groupée (ms).
+     */
+    public long getLastFlushMillis() {
+        return lastFlushMillis.get();
+    }
+
+    public double getAverageFlushMillis() {
+        long count = flushes.sum();
+        return count == 0 ? 0 : (double) flushMillisTotal.sum() / count;
+    }
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis.get();
+    }
+}
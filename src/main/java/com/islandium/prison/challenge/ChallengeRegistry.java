@@ -12,11 +12,57 @@ import java.util.logging.Level;
  * Registre de tous les challenges par rang.
  * Charge depuis SQL au demarrage, avec seed des valeurs par defaut si la table est vide.
  * L'API statique est conservee pour compatibilite avec le reste du code.
+ *
+ * Les definitions sont publiees sous forme d'instantane immutable (Snapshot) : un rechargement
+ * construit un nouvel instantane complet puis remplace la reference volatile. Les lecteurs
+ * (threads monde, tracker) ne prennent aucun verrou et ne voient jamais un registre a moitie recharge.
  */
 public class ChallengeRegistry {
 
-    private static final Map<String, List<ChallengeDefinition>> CHALLENGES = new LinkedHashMap<>();
-    private static final Map<String, ChallengeDefinition> BY_ID = new HashMap<>();
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Etat complet du registre a un instant donne (immutable).
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), 0);
+
+        final Map<String, List<ChallengeDefinition>> challenges;
+        final Map<String, ChallengeDefinition> byId;
+        // Index par type d'evenement, par rang (voir ChallengeIndex)
+        final Map<String, ChallengeIndex> index;
+        // Ordinal dense de chaque challenge (ordre rang puis index), et l'inverse
+        final Map<String, Integer> ordinals;
+        final ChallengeDefinition[] byOrdinal;
+        // Incremente a chaque rechargement (invalide les caches derives, ex. masques de completion)
+        final int version;
+
+        Snapshot(Map<String, List<ChallengeDefinition>> challenges, int version) {
+            Map<String, List<ChallengeDefinition>> byRank = new LinkedHashMap<>();
+            Map<String, ChallengeDefinition> ids = new HashMap<>();
+            Map<String, ChallengeIndex> indexes = new HashMap<>();
+            Map<String, Integer> ords = new HashMap<>();
+            List<ChallengeDefinition> all = new ArrayList<>();
+            for (Map.Entry<String, List<ChallengeDefinition>> entry : challenges.entrySet()) {
+                List<ChallengeDefinition> defs = List.copyOf(entry.getValue());
+                byRank.put(entry.getKey(), defs);
+                indexes.put(entry.getKey(), new ChallengeIndex(defs));
+                for (int i = 0; i < defs.size(); i++) {
+                    ChallengeDefinition def = defs.get(i);
+                    ids.put(def.getId(), def);
+                    def.assignOrdinal(all.size(), i);
+                    ords.put(def.getId(), all.size());
+                    all.add(def);
+                }
+            }
+            this.challenges = Collections.unmodifiableMap(byRank);
+            this.byId = Map.copyOf(ids);
+            this.index = Map.copyOf(indexes);
+            this.ordinals = Map.copyOf(ords);
+            this.byOrdinal = all.toArray(new ChallengeDefinition[0]);
+            this.version = version;
+        }
+    }
 
     // =============================================
     // Public API (statique, utilisee partout)
@@ -24,16 +70,56 @@ public class ChallengeRegistry {
 
     @NotNull
     public static List<ChallengeDefinition> getChallengesForRank(@NotNull String rankId) {
-        return CHALLENGES.getOrDefault(rankId.toUpperCase(), List.of());
+        return snapshot.challenges.getOrDefault(rankId.toUpperCase(), List.of());
     }
 
     @Nullable
     public static ChallengeDefinition getChallenge(@NotNull String challengeId) {
-        return BY_ID.get(challengeId);
+        return snapshot.byId.get(challengeId);
+    }
+
+    /**
+     * Index par type d'evenement des challenges d'un rang.
+     */
+    @NotNull
+    static ChallengeIndex getIndex(@NotNull String rankId) {
+        return snapshot.index.getOrDefault(rankId.toUpperCase(), ChallengeIndex.EMPTY);
+    }
+
+    static int getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * Ordinal dense d'un challenge (0..getChallengeCount()-1), -1 s'il n'existe pas.
+     * Les ordinaux changent a chaque rechargement (voir getVersion).
+     */
+    public static int getOrdinal(@NotNull String challengeId) {
+        Integer ordinal = snapshot.ordinals.get(challengeId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    @Nullable
+    public static ChallengeDefinition getByOrdinal(int ordinal) {
+        ChallengeDefinition[] defs = snapshot.byOrdinal;
+        return ordinal >= 0 && ordinal < defs.length ? defs[ordinal] : null;
+    }
+
+    /**
+     * Definitions par ordinal de l'instantane courant (tableau partage, ne pas modifier).
+     * Change de reference a chaque rechargement.
+     */
+    @NotNull
+    static ChallengeDefinition[] ordinalLayout() {
+        return snapshot.byOrdinal;
+    }
+
+    public static int getChallengeCount() {
+        return snapshot.byOrdinal.length;
     }
 
     public static boolean hasRank(@NotNull String rankId) {
-        return CHALLENGES.containsKey(rankId.toUpperCase());
+        return snapshot.challenges.containsKey(rankId.toUpperCase());
     }
 
     /**
@@ -41,7 +127,7 @@ public class ChallengeRegistry {
      */
     @NotNull
     public static Set<String> getAllRanks() {
-        return Collections.unmodifiableSet(CHALLENGES.keySet());
+        return snapshot.challenges.keySet();
     }
 
     // =============================================
@@ -96,7 +182,7 @@ public class ChallengeRegistry {
     /**
      * Charge toutes les definitions depuis SQL. Si la table est vide, seed les valeurs par defaut.
      */
-    public static void loadFromSQL(@NotNull SQLExecutor sql) {
+    public static synchronized void loadFromSQL(@NotNull SQLExecutor sql) {
         try {
             // Verifier si la table a des donnees
             long count = sql.queryLong("SELECT COUNT(*) FROM prison_challenge_definitions").join();
@@ -179,10 +265,7 @@ public class ChallengeRegistry {
                     .add(new ChallengeDefinition.ChallengeTier(tr.target, tr.reward, items));
             }
 
-            // Reconstruire le registre
-            CHALLENGES.clear();
-            BY_ID.clear();
-
+            // Construire le nouvel instantane
             Map<String, List<ChallengeDefinition>> tempMap = new LinkedHashMap<>();
             for (DefRow dr : defRows) {
                 List<ChallengeDefinition.ChallengeTier> tiers = tiersByChallenge.getOrDefault(dr.challengeId, List.of());
@@ -193,15 +276,13 @@ public class ChallengeRegistry {
                     .build();
 
                 tempMap.computeIfAbsent(dr.rankId.toUpperCase(), k -> new ArrayList<>()).add(def);
-                BY_ID.put(def.getId(), def);
             }
 
-            // Convertir en listes immutables
-            for (Map.Entry<String, List<ChallengeDefinition>> entry : tempMap.entrySet()) {
-                CHALLENGES.put(entry.getKey(), List.copyOf(entry.getValue()));
-            }
+            // Publier d'un bloc (les lecteurs voient l'ancien ou le nouveau, jamais un melange)
+            Snapshot loaded = new Snapshot(tempMap, snapshot.version + 1);
+            snapshot = loaded;
 
-            System.out.println("[ChallengeRegistry] Loaded " + BY_ID.size() + " challenges for " + CHALLENGES.size() + " ranks from SQL.");
+            System.out.println("[ChallengeRegistry] Loaded " + loaded.byId.size() + " challenges for " + loaded.challenges.size() + " ranks from SQL.");
         } catch (Exception e) {
             System.err.println("[ChallengeRegistry] Failed to load from SQL: " + e.getMessage());
             e.printStackTrace();
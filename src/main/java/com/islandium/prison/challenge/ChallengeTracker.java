@@ -6,10 +6,10 @@ import com.islandium.prison.PrisonPlugin;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Traque les evenements du jeu et met a jour la progression des challenges.
@@ -20,8 +20,8 @@ public class ChallengeTracker {
     private final PrisonPlugin plugin;
     private final ChallengeManager challengeManager;
 
-    // Cache du rang par joueur pour eviter des lookups frequents
-    private final Map<UUID, String> rankCache = new ConcurrentHashMap<>();
+    // Rang et masque de completion par joueur, pour eviter des lookups frequents
+    private final Map<UUID, TrackedRank> rankCache = new ConcurrentHashMap<>();
 
     public ChallengeTracker(@NotNull PrisonPlugin plugin, @NotNull ChallengeManager challengeManager) {
         this.plugin = plugin;
@@ -29,14 +29,79 @@ public class ChallengeTracker {
     }
 
     /**
-     * Invalide le cache de rang pour un joueur (appeler apres un rankup).
+     * Rang d'un joueur, index de ses challenges et masque des challenges entierement completes
+     * (bit ChallengeIndex.bit). Reconstruit si le registre a ete recharge.
+     */
+    private static final class TrackedRank {
+        final ChallengeIndex index;
+        final int registryVersion;
+        final AtomicLong completed;
+
+        TrackedRank(ChallengeIndex index, int registryVersion, long completed) {
+            this.index = index;
+            this.registryVersion = registryVersion;
+            this.completed = new AtomicLong(completed);
+        }
+
+        boolean isCompleted(ChallengeDefinition def) {
+            long bit = ChallengeIndex.bit(def);
+            return bit != 0 && (completed.get() & bit) != 0;
+        }
+    }
+
+    /**
+     * Invalide le cache de rang pour un joueur (appeler apres un rankup ou un reset de challenges).
      */
     public void invalidateRankCache(@NotNull UUID uuid) {
         rankCache.remove(uuid);
     }
 
-    private String getCachedRank(@NotNull UUID uuid) {
-        return rankCache.computeIfAbsent(uuid, k -> plugin.getRankManager().getPlayerRank(k));
+    @NotNull
+    private TrackedRank getTrackedRank(@NotNull UUID uuid) {
+        TrackedRank tracked = rankCache.get(uuid);
+        int version = ChallengeRegistry.getVersion();
+        if (tracked == null || tracked.registryVersion != version) {
+            String rankId = plugin.getRankManager().getPlayerRank(uuid);
+            ChallengeIndex index = ChallengeRegistry.getIndex(rankId);
+            tracked = new TrackedRank(index, version, computeCompletedMask(uuid, rankId));
+            rankCache.put(uuid, tracked);
+        }
+        return tracked;
+    }
+
+    private long computeCompletedMask(@NotNull UUID uuid, @NotNull String rankId) {
+        long mask = 0;
+        for (ChallengeDefinition def : ChallengeRegistry.getChallengesForRank(rankId)) {
+            if (challengeManager.isFullyCompleted(uuid, def)) {
+                mask |= ChallengeIndex.bit(def);
+            }
+        }
+        return mask;
+    }
+
+    // ===========================
+    // Progress dispatch
+    // ===========================
+
+    private void increment(@NotNull UUID uuid, @NotNull TrackedRank tracked, @NotNull ChallengeDefinition def, long amount) {
+        if (tracked.isCompleted(def)) return;
+        if (challengeManager.incrementProgress(uuid, def, amount)) {
+            markIfCompleted(uuid, tracked, def);
+        }
+    }
+
+    private void set(@NotNull UUID uuid, @NotNull TrackedRank tracked, @NotNull ChallengeDefinition def, long value) {
+        if (tracked.isCompleted(def)) return;
+        if (challengeManager.setProgress(uuid, def, value)) {
+            markIfCompleted(uuid, tracked, def);
+        }
+    }
+
+    private void markIfCompleted(@NotNull UUID uuid, @NotNull TrackedRank tracked, @NotNull ChallengeDefinition def) {
+        if (challengeManager.isFullyCompleted(uuid, def)) {
+            long bit = ChallengeIndex.bit(def);
+            tracked.completed.getAndUpdate(mask -> mask | bit);
+        }
     }
 
     // ===========================
@@ -47,19 +112,13 @@ public class ChallengeTracker {
      * Appele quand un joueur mine un bloc.
      */
     public void onBlockMined(@NotNull UUID uuid, @NotNull String blockId) {
-        String rankId = getCachedRank(uuid);
-        List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
-
-        for (ChallengeDefinition def : challenges) {
-            switch (def.getType()) {
-                case MINE_BLOCKS -> challengeManager.incrementProgress(uuid, def.getId(), 1);
-                case MINE_SPECIFIC -> {
-                    if (blockId.equals(def.getTargetBlockId())) {
-                        challengeManager.incrementProgress(uuid, def.getId(), 1);
-                    }
-                }
-                default -> {}
-            }
+        TrackedRank tracked = getTrackedRank(uuid);
+
+        for (ChallengeDefinition def : tracked.index.ofType(ChallengeType.MINE_BLOCKS)) {
+            increment(uuid, tracked, def, 1);
+        }
+        for (ChallengeDefinition def : tracked.index.ofBlock(blockId)) {
+            increment(uuid, tracked, def, 1);
         }
     }
 
@@ -71,36 +130,31 @@ public class ChallengeTracker {
      * Appele quand un joueur vend des items (via /sell ou le menu).
      */
     public void onItemsSold(@NotNull UUID uuid, int count, @NotNull BigDecimal earned) {
-        String rankId = getCachedRank(uuid);
-        List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
-
-        for (ChallengeDefinition def : challenges) {
-            switch (def.getType()) {
-                case SELL_ITEMS -> challengeManager.incrementProgress(uuid, def.getId(), count);
-                case EARN_MONEY -> challengeManager.incrementProgress(uuid, def.getId(), earned.longValue());
-                default -> {}
-            }
+        TrackedRank tracked = getTrackedRank(uuid);
+
+        for (ChallengeDefinition def : tracked.index.ofType(ChallengeType.SELL_ITEMS)) {
+            increment(uuid, tracked, def, count);
+        }
+        for (ChallengeDefinition def : tracked.index.ofType(ChallengeType.EARN_MONEY)) {
+            increment(uuid, tracked, def, earned.longValue());
         }
 
         // Verifier aussi le challenge ACCUMULATE_BALANCE
-        checkBalanceChallenge(uuid, rankId, challenges);
+        checkBalanceChallenge(uuid, tracked);
     }
 
     /**
      * Appele quand un joueur gagne de l'argent (auto-sell).
      */
     public void onMoneyEarned(@NotNull UUID uuid, @NotNull BigDecimal amount) {
-        String rankId = getCachedRank(uuid);
-        List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
+        TrackedRank tracked = getTrackedRank(uuid);
 
-        for (ChallengeDefinition def : challenges) {
-            if (def.getType() == ChallengeType.EARN_MONEY) {
-                challengeManager.incrementProgress(uuid, def.getId(), amount.longValue());
-            }
+        for (ChallengeDefinition def : tracked.index.ofType(ChallengeType.EARN_MONEY)) {
+            increment(uuid, tracked, def, amount.longValue());
         }
 
         // Verifier ACCUMULATE_BALANCE
-        checkBalanceChallenge(uuid, rankId, challenges);
+        checkBalanceChallenge(uuid, tracked);
     }
 
     // ===========================
@@ -111,17 +165,14 @@ public class ChallengeTracker {
      * Appele quand un joueur achete un upgrade.
      */
     public void onUpgradePurchased(@NotNull UUID uuid, @NotNull ChallengeType upgradeType, int newLevel, @NotNull BigDecimal cost) {
-        String rankId = getCachedRank(uuid);
-        List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
+        TrackedRank tracked = getTrackedRank(uuid);
 
-        for (ChallengeDefinition def : challenges) {
-            if (def.getType() == upgradeType) {
-                // Pour les upgrades, la "valeur" est le niveau atteint
-                challengeManager.setProgress(uuid, def.getId(), newLevel);
-            }
-            if (def.getType() == ChallengeType.SPEND_MONEY) {
-                challengeManager.incrementProgress(uuid, def.getId(), cost.longValue());
-            }
+        // Pour les upgrades, la "valeur" est le niveau atteint
+        for (ChallengeDefinition def : tracked.index.ofType(upgradeType)) {
+            set(uuid, tracked, def, newLevel);
+        }
+        for (ChallengeDefinition def : tracked.index.ofType(ChallengeType.SPEND_MONEY)) {
+            increment(uuid, tracked, def, cost.longValue());
         }
     }
 
@@ -129,13 +180,10 @@ public class ChallengeTracker {
      * Appele quand un joueur depense de l'argent (rankup, upgrades).
      */
     public void onMoneySpent(@NotNull UUID uuid, @NotNull BigDecimal amount) {
-        String rankId = getCachedRank(uuid);
-        List<ChallengeDefinition> challenges = ChallengeRegistry.getChallengesForRank(rankId);
+        TrackedRank tracked = getTrackedRank(uuid);
 
-        for (ChallengeDefinition def : challenges) {
-            if (def.getType() == ChallengeType.SPEND_MONEY) {
-                challengeManager.incrementProgress(uuid, def.getId(), amount.longValue());
-            }
+        for (ChallengeDefinition def : tracked.index.ofType(ChallengeType.SPEND_MONEY)) {
+            increment(uuid, tracked, def, amount.longValue());
         }
     }
 
@@ -143,17 +191,17 @@ public class ChallengeTracker {
     // Balance Check
     // ===========================
 
-    private void checkBalanceChallenge(@NotNull UUID uuid, @NotNull String rankId,
-                                        @NotNull List<ChallengeDefinition> challenges) {
-        // Verifier si on a des challenges ACCUMULATE_BALANCE avant de faire l'appel eco
-        boolean hasBalanceChallenge = false;
-        for (ChallengeDefinition def : challenges) {
-            if (def.getType() == ChallengeType.ACCUMULATE_BALANCE) {
-                hasBalanceChallenge = true;
+    private void checkBalanceChallenge(@NotNull UUID uuid, @NotNull TrackedRank tracked) {
+        // Verifier si on a des challenges ACCUMULATE_BALANCE non completes avant de faire l'appel eco
+        ChallengeDefinition[] balanceChallenges = tracked.index.ofType(ChallengeType.ACCUMULATE_BALANCE);
+        boolean pending = false;
+        for (ChallengeDefinition def : balanceChallenges) {
+            if (!tracked.isCompleted(def)) {
+                pending = true;
                 break;
             }
         }
-        if (!hasBalanceChallenge) return;
+        if (!pending) return;
 
         EconomyService eco = getEconomyService();
         if (eco == null) return;
@@ -162,10 +210,8 @@ public class ChallengeTracker {
         try {
             eco.getBalance(uuid).thenAccept(balance -> {
                 try {
-                    for (ChallengeDefinition def : challenges) {
-                        if (def.getType() == ChallengeType.ACCUMULATE_BALANCE) {
-                            challengeManager.setProgress(uuid, def.getId(), balance.longValue());
-                        }
+                    for (ChallengeDefinition def : balanceChallenges) {
+                        set(uuid, tracked, def, balance.longValue());
                     }
                 } catch (Exception ignored) {}
             });
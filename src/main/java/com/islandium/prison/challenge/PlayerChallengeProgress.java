@@ -1,28 +1,213 @@
 package com.islandium.prison.challenge;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Progression des challenges d'un joueur.
+ *
+ * Tableaux paralleles indexes par l'ordinal des challenges (ChallengeRegistry.getOrdinal) :
+ * pas d'objet ni de hachage de chaine par challenge. Les ordinaux changeant a chaque rechargement
+ * du registre, les tableaux sont reindexes au premier acces qui suit.
+ *
+ * Les lignes SQL de challenges absents du registre (registre vide apres un echec de chargement,
+ * challenge supprime) sont gardees a part, jamais ecrites, et reprises si le challenge reapparait :
+ * une progression ne repart jamais de 0 par-dessus sa valeur en base.
  */
 public class PlayerChallengeProgress {
 
-    public Map<String, ChallengeProgressData> challenges = new HashMap<>();
+    // Disposition des ordinaux sous laquelle les tableaux ont ete construits
+    private ChallengeDefinition[] layout;
+    private long[] currentValue;
+    private byte[] completedTier;
+    // Entree existante (chargee ou progressee) : seules celles-ci sont ecrites en base
+    private boolean[] present;
+    // Lignes chargees de challenges inconnus du registre (null si aucune)
+    private Map<String, ChallengeProgressData> unknown;
+
+    public PlayerChallengeProgress() {
+        this.layout = ChallengeRegistry.ordinalLayout();
+        this.currentValue = new long[layout.length];
+        this.completedTier = new byte[layout.length];
+        this.present = new boolean[layout.length];
+    }
+
+    // === Lecture ===
+
+    /**
+     * Progression d'un challenge, null si le joueur n'en a aucune.
+     */
+    @Nullable
+    public synchronized ChallengeProgressData get(@NotNull String challengeId) {
+        int slot = slot(challengeId);
+        return slot >= 0 && present[slot] ? new ChallengeProgressData(currentValue[slot], completedTier[slot]) : null;
+    }
+
+    public synchronized long getValue(@NotNull ChallengeDefinition def) {
+        int slot = slot(def);
+        return slot >= 0 ? currentValue[slot] : 0;
+    }
+
+    public synchronized int getCompletedTier(@NotNull ChallengeDefinition def) {
+        int slot = slot(def);
+        return slot >= 0 ? completedTier[slot] : 0;
+    }
+
+    public synchronized boolean isFullyCompleted(@NotNull ChallengeDefinition def) {
+        int slot = slot(def);
+        return slot >= 0 && completedTier[slot] >= def.getTierCount();
+    }
 
     /**
-     * Obtient la progression pour un challenge specifique.
-     * Cree une entree vide si elle n'existe pas.
+     * Nombre de challenges de la liste entierement completes.
      */
-    public ChallengeProgressData getOrCreate(String challengeId) {
-        return challenges.computeIfAbsent(challengeId, k -> new ChallengeProgressData());
+    public synchronized int countCompleted(@NotNull List<ChallengeDefinition> challenges) {
+        int count = 0;
+        for (ChallengeDefinition def : challenges) {
+            int slot = slot(def);
+            if (slot >= 0 && completedTier[slot] >= def.getTierCount()) count++;
+        }
+        return count;
     }
 
+    // === Ecriture ===
+
     /**
-     * Donnees de progression pour un challenge individuel.
+     * Ajoute amount a la progression et retourne la nouvelle valeur.
+     */
+    public synchronized long addValue(@NotNull ChallengeDefinition def, long amount) {
+        int slot = slot(def);
+        if (slot < 0) return 0;
+        present[slot] = true;
+        return currentValue[slot] += amount;
+    }
+
+    /**
+     * Porte la progression a value si elle est superieure.
+     *
+     * @return true si la valeur a change
+     */
+    public synchronized boolean raiseValue(@NotNull ChallengeDefinition def, long value) {
+        int slot = slot(def);
+        if (slot < 0 || value <= currentValue[slot]) return false;
+        present[slot] = true;
+        currentValue[slot] = value;
+        return true;
+    }
+
+    public synchronized void setCompletedTier(@NotNull ChallengeDefinition def, int tier) {
+        int slot = slot(def);
+        if (slot < 0) return;
+        present[slot] = true;
+        completedTier[slot] = (byte) Math.min(tier, Byte.MAX_VALUE);
+    }
+
+    /**
+     * Charge une ligne SQL (mise de cote si le challenge est inconnu du registre).
+     *
+     * @return false si le challenge est inconnu
+     */
+    public synchronized boolean load(@NotNull String challengeId, long value, int tier) {
+        int slot = slot(challengeId);
+        if (slot < 0) {
+            if (unknown == null) unknown = new HashMap<>();
+            unknown.put(challengeId, new ChallengeProgressData(value, tier));
+            return false;
+        }
+        present[slot] = true;
+        currentValue[slot] = value;
+        completedTier[slot] = (byte) Math.min(tier, Byte.MAX_VALUE);
+        return true;
+    }
+
+    public synchronized void remove(@NotNull String challengeId) {
+        if (unknown != null) unknown.remove(challengeId);
+        int slot = slot(challengeId);
+        if (slot < 0) return;
+        present[slot] = false;
+        currentValue[slot] = 0;
+        completedTier[slot] = 0;
+    }
+
+    // === Ordinaux ===
+
+    private int slot(@NotNull ChallengeDefinition def) {
+        ensureLayout();
+        int ordinal = def.getOrdinal();
+        if (ordinal >= 0 && ordinal < layout.length && layout[ordinal] == def) {
+            return ordinal;
+        }
+        // Definition d'un instantane precedent (ou hors registre) : retrouver par id
+        return slot(def.getId());
+    }
+
+    private int slot(@NotNull String challengeId) {
+        ensureLayout();
+        int ordinal = ChallengeRegistry.getOrdinal(challengeId);
+        if (ordinal >= 0 && ordinal < layout.length && layout[ordinal].getId().equals(challengeId)) {
+            return ordinal;
+        }
+        // Registre recharge entre-temps : recherche dans la disposition courante
+        for (int i = 0; i < layout.length; i++) {
+            if (layout[i].getId().equals(challengeId)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Reindexe les tableaux si le registre a ete recharge depuis leur construction,
+     * en reprenant les lignes mises de cote dont le challenge existe maintenant.
+     */
+    private void ensureLayout() {
+        ChallengeDefinition[] current = ChallengeRegistry.ordinalLayout();
+        if (current == layout) return;
+
+        Map<String, Integer> previous = new HashMap<>();
+        for (int old = 0; old < layout.length; old++) {
+            if (present[old]) previous.put(layout[old].getId(), old);
+        }
+        long[] values = new long[current.length];
+        byte[] tiers = new byte[current.length];
+        boolean[] flags = new boolean[current.length];
+        for (int i = 0; i < current.length && !previous.isEmpty(); i++) {
+            Integer old = previous.get(current[i].getId());
+            if (old == null) continue;
+            values[i] = currentValue[old];
+            tiers[i] = completedTier[old];
+            flags[i] = true;
+        }
+        if (unknown != null) {
+            for (int i = 0; i < current.length; i++) {
+                ChallengeProgressData data = flags[i] ? null : unknown.remove(current[i].getId());
+                if (data == null) continue;
+                values[i] = data.currentValue;
+                tiers[i] = (byte) Math.min(data.completedTier, Byte.MAX_VALUE);
+                flags[i] = true;
+            }
+            if (unknown.isEmpty()) unknown = null;
+        }
+        layout = current;
+        currentValue = values;
+        completedTier = tiers;
+        present = flags;
+    }
+
+    static final ChallengeProgressData EMPTY = new ChallengeProgressData(0, 0);
+
+    /**
+     * Lecture d'une progression (copie, pour l'affichage et l'ecriture SQL).
      */
     public static class ChallengeProgressData {
-        public long currentValue = 0;
-        public int completedTier = 0;
+        public final long currentValue;
+        public final int completedTier;
+
+        public ChallengeProgressData(long currentValue, int completedTier) {
+            this.currentValue = currentValue;
+            this.completedTier = completedTier;
+        }
     }
 }
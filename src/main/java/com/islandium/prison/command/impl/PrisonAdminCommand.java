@@ -8,8 +8,12 @@ import com.islandium.core.api.location.ServerLocation;
 import com.islandium.core.api.player.IslandiumPlayer;
 import com.islandium.core.api.util.NotificationType;
 import com.islandium.prison.PrisonPlugin;
+import com.islandium.prison.challenge.ChallengeProgressStore;
 import com.islandium.prison.command.base.PrisonCommand;
+import com.islandium.prison.mine.CylinderFootprint;
 import com.islandium.prison.mine.Mine;
+import com.islandium.prison.mine.MineBlockWriter;
+import com.islandium.prison.service.PrisonTimerService;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.CompletableFuture;
@@ -33,6 +37,11 @@ public class PrisonAdminCommand extends PrisonCommand {
         addSubCommand(new SetMineCorner1Command(plugin));
         addSubCommand(new SetMineCorner2Command(plugin));
         addSubCommand(new ResetMineCommand(plugin));
+        addSubCommand(new DeltaResetCommand(plugin));
+        addSubCommand(new SnapshotCommand(plugin));
+        addSubCommand(new SnapshotResetCommand(plugin));
+        addSubCommand(new SnapshotCloneCommand(plugin));
+        addSubCommand(new RegenCommand(plugin));
         addSubCommand(new AddBlockCommand(plugin));
         addSubCommand(new ClearBlocksCommand(plugin));
         addSubCommand(new ScanBlocksCommand(plugin));
@@ -60,6 +69,7 @@ public class PrisonAdminCommand extends PrisonCommand {
         // General subcommands
         addSubCommand(new ReloadCommand(plugin));
         addSubCommand(new SaveCommand(plugin));
+        addSubCommand(new FillStatusCommand(plugin));
     }
 
     @Override
@@ -86,6 +96,11 @@ public class PrisonAdminCommand extends PrisonCommand {
         sendMessage(ctx, "&e/pa clearblocks <mine> &8- &7Vide la composition");
         sendMessage(ctx, "&e/pa scanblocks <mine> &8- &7Scan et copie la composition");
         sendMessage(ctx, "&e/pa resetmine <mine> &8- &7Reset une mine");
+        sendMessage(ctx, "&e/pa deltareset <mine> <true/false> &8- &7Reset des blocs casses uniquement");
+        sendMessage(ctx, "&e/pa snapshot <mine> &8- &7Capture la disposition exacte des blocs");
+        sendMessage(ctx, "&e/pa snapshotreset <mine> <true/false> &8- &7Reset depuis le snapshot");
+        sendMessage(ctx, "&e/pa snapshotclone <source> <cible> &8- &7Copie un snapshot vers une autre mine");
+        sendMessage(ctx, "&e/pa regen <mine> <secondes> &8- &7Regeneration bloc par bloc (0 = desactive)");
         sendMessage(ctx, "");
         sendMessage(ctx, "&e&lLayers (par couche):");
         sendMessage(ctx, "&e/pa scanlayers <mine> &8- &7Scan et copie par layer");
@@ -110,6 +125,7 @@ public class PrisonAdminCommand extends PrisonCommand {
         sendMessage(ctx, "&e/pa challenges <player> &8- &7Voir/modifier les defis d'un joueur");
         sendMessage(ctx, "&e/pa reload &8- &7Recharge la config");
         sendMessage(ctx, "&e/pa save &8- &7Sauvegarde les donnees");
+        sendMessage(ctx, "&e/pa fillstatus &8- &7File et debit des resets de mines");
     }
 
     // ============================================
@@ -196,6 +212,14 @@ public class PrisonAdminCommand extends PrisonCommand {
             sendMessage(ctx, "&7Configuree: " + (mine.isConfigured() ? "&aOui" : "&cNon"));
             sendMessage(ctx, "&7Spawn: " + (mine.hasSpawn() ? "&aOui" : "&cNon"));
             sendMessage(ctx, "&7Blocs restants: &e" + String.format("%.1f%%", mine.getRemainingPercentage()));
+            java.util.Map<String, Integer> live = mine.getLiveComposition();
+            if (live != null && !live.isEmpty()) {
+                // Composition vivante (mise a jour a chaque bloc casse, sans scan)
+                live.entrySet().stream()
+                        .sorted(java.util.Map.Entry.<String, Integer>comparingByValue().reversed())
+                        .limit(8)
+                        .forEach(entry -> sendMessage(ctx, "&8  - &f" + entry.getKey() + ": &e" + entry.getValue()));
+            }
             sendMessage(ctx, "&7Auto-reset: " + (mine.isAutoReset() ? "&aOui" : "&cNon"));
             sendMessage(ctx, "&7Village margin: &e" + mine.getVillageMargin());
 
@@ -243,11 +267,11 @@ public class PrisonAdminCommand extends PrisonCommand {
                         sendMessage(ctx, "&7Y dans mine: " + (yInMine ? "&aOUI" : "&cNON") + " &8(" + ly + " in [" + cy + "," + (cy + mine.getHeight()) + "[)");
                         sendMessage(ctx, "&7Y dans village: " + (yInVillage ? "&aOUI" : "&cNON"));
 
-                        // Check XZ ellipse
-                        double rX = mine.getRadius() + mine.getRadiusAdjust();
-                        double rZ = rX;
-                        double distSq = (dx * dx) / (rX * rX) + (dz * dz) / (rZ * rZ);
-                        sendMessage(ctx, "&7XZ dans ellipse: " + (distSq < 1.0 ? "&aOUI" : "&cNON") + " &8(dist=" + String.format("%.3f", distSq) + " < 1.0)");
+                        // Check XZ empreinte
+                        CylinderFootprint footprint = mine.getFootprint();
+                        boolean xzInMine = footprint != null && footprint.contains(dx, dz);
+                        int rowHalf = footprint != null ? footprint.getRowHalf(dz) : -1;
+                        sendMessage(ctx, "&7XZ dans empreinte: " + (xzInMine ? "&aOUI" : "&cNON") + " &8(rangee dz=" + dz + ": dx in [" + (-rowHalf) + "," + rowHalf + "])");
 
                         // World match
                         boolean worldMatch = center.world().equals(loc.world());
@@ -350,7 +374,7 @@ public class PrisonAdminCommand extends PrisonCommand {
             }
 
             mine.setCorner1(loc);
-            plugin.getMineManager().saveAll();
+            plugin.getMineManager().saveMine(mine);
 
             sendNotification(ctx, NotificationType.SUCCESS, "Corner 1 de la mine " + mine.getId() + " defini!");
             if (mine.isConfigured()) {
@@ -393,7 +417,7 @@ public class PrisonAdminCommand extends PrisonCommand {
             }
 
             mine.setCorner2(loc);
-            plugin.getMineManager().saveAll();
+            plugin.getMineManager().saveMine(mine);
 
             sendNotification(ctx, NotificationType.SUCCESS, "Corner 2 de la mine " + mine.getId() + " defini!");
             if (mine.isConfigured()) {
@@ -422,13 +446,184 @@ public class PrisonAdminCommand extends PrisonCommand {
                 return complete();
             }
 
-            plugin.getMineManager().resetMine(mine);
+            if (!plugin.getMineManager().resetMine(mine)) {
+                sendNotification(ctx, NotificationType.ERROR, "Mine " + mine.getId() + " deja en cours de reset!");
+                return complete();
+            }
             sendNotification(ctx, NotificationType.SUCCESS, "Mine " + mine.getId() + " reinitialisee!");
 
             return complete();
         }
     }
 
+    private static class DeltaResetCommand extends PrisonCommand {
+        private final RequiredArg<String> mineIdArg;
+        private final RequiredArg<Boolean> valueArg;
+
+        public DeltaResetCommand(@NotNull PrisonPlugin plugin) {
+            super(plugin, "deltareset", "Active/desactive le reset differentiel");
+            mineIdArg = withRequiredArg("mine", "ID de la mine", ArgTypes.STRING);
+            valueArg = withRequiredArg("value", "true/false", ArgTypes.BOOLEAN);
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandContext ctx) {
+            String mineId = ctx.get(mineIdArg);
+            boolean enable = ctx.get(valueArg);
+
+            Mine mine = plugin.getMineManager().getMine(mineId);
+            if (mine == null) {
+                sendNotification(ctx, NotificationType.ERROR, "Mine " + mineId + " introuvable!");
+                return complete();
+            }
+
+            mine.setDeltaReset(enable);
+            plugin.getMineManager().saveAll();
+
+            if (enable) {
+                sendNotification(ctx, NotificationType.SUCCESS, "Reset differentiel active pour la mine " + mine.getId() + "!");
+                sendMessage(ctx, "&7Seuls les blocs casses depuis le dernier reset seront regeneres.");
+                sendMessage(ctx, "&7Le premier reset apres un redemarrage ou un changement de forme reste complet.");
+            } else {
+                sendNotification(ctx, NotificationType.SUCCESS, "Reset differentiel desactive pour la mine " + mine.getId() + "!");
+            }
+
+            return complete();
+        }
+    }
+
+    private static class SnapshotCommand extends PrisonCommand {
+        private final RequiredArg<String> mineIdArg;
+
+        public SnapshotCommand(@NotNull PrisonPlugin plugin) {
+            super(plugin, "snapshot", "Capture le snapshot d'une mine");
+            mineIdArg = withRequiredArg("mine", "ID de la mine", ArgTypes.STRING);
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandContext ctx) {
+            String mineId = ctx.get(mineIdArg);
+            Mine mine = plugin.getMineManager().getMine(mineId);
+            if (mine == null) {
+                sendNotification(ctx, NotificationType.ERROR, "Mine " + mineId + " introuvable!");
+                return complete();
+            }
+
+            sendMessage(ctx, "&7Capture de la mine " + mine.getId() + " en cours...");
+            plugin.getMineManager().captureSnapshot(mine).whenComplete((count, error) -> {
+                if (error != null) {
+                    sendNotification(ctx, NotificationType.ERROR, "Echec du snapshot: " + error.getMessage());
+                } else {
+                    sendNotification(ctx, NotificationType.SUCCESS, "Snapshot de " + mine.getId() + " enregistre (" + count + " blocs)!");
+                }
+            });
+            return complete();
+        }
+    }
+
+    private static class SnapshotResetCommand extends PrisonCommand {
+        private final RequiredArg<String> mineIdArg;
+        private final RequiredArg<Boolean> valueArg;
+
+        public SnapshotResetCommand(@NotNull PrisonPlugin plugin) {
+            super(plugin, "snapshotreset", "Active/desactive le reset depuis le snapshot");
+            mineIdArg = withRequiredArg("mine", "ID de la mine", ArgTypes.STRING);
+            valueArg = withRequiredArg("value", "true/false", ArgTypes.BOOLEAN);
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandContext ctx) {
+            String mineId = ctx.get(mineIdArg);
+            boolean enable = ctx.get(valueArg);
+
+            Mine mine = plugin.getMineManager().getMine(mineId);
+            if (mine == null) {
+                sendNotification(ctx, NotificationType.ERROR, "Mine " + mineId + " introuvable!");
+                return complete();
+            }
+
+            mine.setSnapshotReset(enable);
+            plugin.getMineManager().saveAll();
+
+            if (enable) {
+                sendNotification(ctx, NotificationType.SUCCESS, "Reset depuis le snapshot active pour la mine " + mine.getId() + "!");
+                if (!plugin.getMineManager().hasSnapshot(mine)) {
+                    sendMessage(ctx, "&cAucun snapshot pour cette mine: &7/pa snapshot " + mine.getId());
+                }
+            } else {
+                sendNotification(ctx, NotificationType.SUCCESS, "Reset depuis le snapshot desactive pour la mine " + mine.getId() + "!");
+            }
+
+            return complete();
+        }
+    }
+
+    private static class SnapshotCloneCommand extends PrisonCommand {
+        private final RequiredArg<String> sourceArg;
+        private final RequiredArg<String> targetArg;
+
+        public SnapshotCloneCommand(@NotNull PrisonPlugin plugin) {
+            super(plugin, "snapshotclone", "Copie le snapshot d'une mine vers une autre");
+            sourceArg = withRequiredArg("source", "Mine source", ArgTypes.STRING);
+            targetArg = withRequiredArg("target", "Mine cible", ArgTypes.STRING);
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandContext ctx) {
+            Mine source = plugin.getMineManager().getMine(ctx.get(sourceArg));
+            Mine target = plugin.getMineManager().getMine(ctx.get(targetArg));
+            if (source == null || target == null) {
+                sendNotification(ctx, NotificationType.ERROR, "Mine introuvable!");
+                return complete();
+            }
+
+            if (plugin.getMineManager().cloneSnapshot(source, target)) {
+                sendNotification(ctx, NotificationType.SUCCESS, "Snapshot de " + source.getId() + " copie vers " + target.getId() + "!");
+            } else {
+                sendNotification(ctx, NotificationType.ERROR, "Copie impossible: pas de snapshot ou formes differentes.");
+            }
+            return complete();
+        }
+    }
+
+    private static class RegenCommand extends PrisonCommand {
+        private final RequiredArg<String> mineIdArg;
+        private final RequiredArg<Integer> secondsArg;
+
+        public RegenCommand(@NotNull PrisonPlugin plugin) {
+            super(plugin, "regen", "Regeneration bloc par bloc d'une mine");
+            mineIdArg = withRequiredArg("mine", "ID de la mine", ArgTypes.STRING);
+            secondsArg = withRequiredArg("seconds", "Delai en secondes (0 = desactive)", ArgTypes.INTEGER);
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandContext ctx) {
+            String mineId = ctx.get(mineIdArg);
+            int seconds = ctx.get(secondsArg);
+
+            Mine mine = plugin.getMineManager().getMine(mineId);
+            if (mine == null) {
+                sendNotification(ctx, NotificationType.ERROR, "Mine " + mineId + " introuvable!");
+                return complete();
+            }
+            if (seconds < 0) {
+                sendNotification(ctx, NotificationType.ERROR, "Le delai doit etre positif!");
+                return complete();
+            }
+
+            plugin.getMineManager().setRegenDelay(mine, seconds);
+
+            if (seconds > 0) {
+                sendNotification(ctx, NotificationType.SUCCESS, "Regeneration active pour la mine " + mine.getId() + " (" + seconds + "s)!");
+                sendMessage(ctx, "&7Chaque bloc casse reapparait apres " + seconds + "s; la mine n'est plus reset (ni au seuil, ni au timer).");
+            } else {
+                sendNotification(ctx, NotificationType.SUCCESS, "Regeneration desactivee pour la mine " + mine.getId() + "!");
+            }
+
+            return complete();
+        }
+    }
+
     private static class AddBlockCommand extends PrisonCommand {
         private final RequiredArg<String> mineIdArg;
         private final RequiredArg<String> blockArg;
@@ -493,7 +688,7 @@ public class PrisonAdminCommand extends PrisonCommand {
             }
 
             mine.getComposition().clear();
-            plugin.getMineManager().saveAll();
+            plugin.getMineManager().saveMine(mine);
 
             sendNotification(ctx, NotificationType.SUCCESS, "Composition de la mine " + mine.getId() + " videe!");
             return complete();
@@ -525,25 +720,30 @@ public class PrisonAdminCommand extends PrisonCommand {
 
             sendNotification(ctx, NotificationType.INFO, "Scan de la mine en cours...");
 
-            java.util.Map<String, Integer> blockCounts = plugin.getMineManager().scanMineBlocks(mine);
-
-            if (blockCounts.isEmpty()) {
-                sendNotification(ctx, NotificationType.ERROR, "Aucun bloc trouve dans la zone!");
-                return complete();
-            }
+            plugin.getMineManager().scanMineBlocks(mine, percent -> sendMessage(ctx, "&7Scan: &e" + percent + "%"))
+                    .whenComplete((blockCounts, error) -> {
+                        if (error != null) {
+                            sendNotification(ctx, NotificationType.ERROR, "Echec du scan: " + error.getMessage());
+                            return;
+                        }
+                        if (blockCounts.isEmpty()) {
+                            sendNotification(ctx, NotificationType.ERROR, "Aucun bloc trouve dans la zone!");
+                            return;
+                        }
 
-            int totalBlocks = blockCounts.values().stream().mapToInt(Integer::intValue).sum();
-            java.util.Map<String, Double> composition = new java.util.HashMap<>();
+                        int totalBlocks = blockCounts.values().stream().mapToInt(Integer::intValue).sum();
+                        java.util.Map<String, Double> composition = new java.util.HashMap<>();
 
-            for (var entry : blockCounts.entrySet()) {
-                double percentage = (entry.getValue() * 100.0) / totalBlocks;
-                composition.put(entry.getKey(), Math.round(percentage * 100.0) / 100.0);
-            }
+                        for (var entry : blockCounts.entrySet()) {
+                            double percentage = (entry.getValue() * 100.0) / totalBlocks;
+                            composition.put(entry.getKey(), Math.round(percentage * 100.0) / 100.0);
+                        }
 
-            mine.setComposition(composition);
-            plugin.getMineManager().saveAll();
+                        mine.setComposition(composition);
+                        plugin.getMineManager().saveAll();
 
-            sendNotification(ctx, NotificationType.SUCCESS, "Composition scannee et appliquee a la mine " + mine.getId() + "! Total: " + totalBlocks + " blocs");
+                        sendNotification(ctx, NotificationType.SUCCESS, "Composition scannee et appliquee a la mine " + mine.getId() + "! Total: " + totalBlocks + " blocs");
+                    });
 
             return complete();
         }
@@ -574,37 +774,42 @@ public class PrisonAdminCommand extends PrisonCommand {
 
             sendNotification(ctx, NotificationType.INFO, "Scan des layers en cours...");
 
-            java.util.Map<Integer, java.util.Map<String, Integer>> layerBlockCounts = plugin.getMineManager().scanMineLayers(mine);
-
-            if (layerBlockCounts.isEmpty()) {
-                sendNotification(ctx, NotificationType.ERROR, "Aucun bloc trouve dans la zone!");
-                return complete();
-            }
+            plugin.getMineManager().scanMineLayers(mine, percent -> sendMessage(ctx, "&7Scan: &e" + percent + "%"))
+                    .whenComplete((layerBlockCounts, error) -> {
+                        if (error != null) {
+                            sendNotification(ctx, NotificationType.ERROR, "Echec du scan: " + error.getMessage());
+                            return;
+                        }
+                        if (layerBlockCounts.isEmpty()) {
+                            sendNotification(ctx, NotificationType.ERROR, "Aucun bloc trouve dans la zone!");
+                            return;
+                        }
 
-            mine.clearLayerComposition();
-            int totalLayers = 0;
+                        mine.clearLayerComposition();
+                        int totalLayers = 0;
 
-            for (var layerEntry : layerBlockCounts.entrySet()) {
-                int layer = layerEntry.getKey();
-                java.util.Map<String, Integer> counts = layerEntry.getValue();
-                int layerTotal = counts.values().stream().mapToInt(Integer::intValue).sum();
+                        for (var layerEntry : layerBlockCounts.entrySet()) {
+                            int layer = layerEntry.getKey();
+                            java.util.Map<String, Integer> counts = layerEntry.getValue();
+                            int layerTotal = counts.values().stream().mapToInt(Integer::intValue).sum();
 
-                java.util.Map<String, Double> layerComp = new java.util.HashMap<>();
-                for (var blockEntry : counts.entrySet()) {
-                    double percentage = (blockEntry.getValue() * 100.0) / layerTotal;
-                    layerComp.put(blockEntry.getKey(), Math.round(percentage * 100.0) / 100.0);
-                }
+                            java.util.Map<String, Double> layerComp = new java.util.HashMap<>();
+                            for (var blockEntry : counts.entrySet()) {
+                                double percentage = (blockEntry.getValue() * 100.0) / layerTotal;
+                                layerComp.put(blockEntry.getKey(), Math.round(percentage * 100.0) / 100.0);
+                            }
 
-                for (var entry : layerComp.entrySet()) {
-                    mine.addBlockToLayer(layer, entry.getKey(), entry.getValue());
-                }
-                totalLayers++;
-            }
+                            for (var entry : layerComp.entrySet()) {
+                                mine.addBlockToLayer(layer, entry.getKey(), entry.getValue());
+                            }
+                            totalLayers++;
+                        }
 
-            mine.setUseLayerComposition(true);
-            plugin.getMineManager().saveAll();
+                        mine.setUseLayerComposition(true);
+                        plugin.getMineManager().saveAll();
 
-            sendNotification(ctx, NotificationType.SUCCESS, "Composition par layer scannee et appliquee a la mine " + mine.getId() + "! " + totalLayers + " couches, mode layer active");
+                        sendNotification(ctx, NotificationType.SUCCESS, "Composition par layer scannee et appliquee a la mine " + mine.getId() + "! " + totalLayers + " couches, mode layer active");
+                    });
 
             return complete();
         }
@@ -987,6 +1192,7 @@ public class PrisonAdminCommand extends PrisonCommand {
         public CompletableFuture<Void> execute(CommandContext ctx) {
             try {
                 plugin.getConfig().load();
+                plugin.getMiningContextManager().invalidateAll();
                 sendNotification(ctx, NotificationType.SUCCESS, "Configuration rechargee!");
             } catch (Exception e) {
                 sendNotification(ctx, NotificationType.ERROR, "Erreur lors du rechargement: " + e.getMessage());
@@ -1002,11 +1208,48 @@ public class PrisonAdminCommand extends PrisonCommand {
 
         @Override
         public CompletableFuture<Void> execute(CommandContext ctx) {
-            plugin.getMineManager().saveAll();
+            boolean minesSaved = plugin.getMineManager().saveNow();
             plugin.getRankManager().saveAll();
+            plugin.getChallengeManager().getProgressStore().flushAll();
             // cellManager.saveAll() -> islandium-cells
+            if (!minesSaved) {
+                sendNotification(ctx, NotificationType.ERROR, "Echec de la sauvegarde de certaines mines (voir la console)!");
+                return complete();
+            }
             sendNotification(ctx, NotificationType.SUCCESS, "Donnees sauvegardees!");
             return complete();
         }
     }
+
+    private static class FillStatusCommand extends PrisonCommand {
+        public FillStatusCommand(@NotNull PrisonPlugin plugin) {
+            super(plugin, "fillstatus", "Etat de l'ecriture des blocs de mines");
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandContext ctx) {
+            MineBlockWriter writer = plugin.getMineManager().getBlockWriter();
+            sendMessage(ctx, "&6&l=== Fill Status ===");
+            sendMessage(ctx, "&7File: &e" + writer.getQueueDepth() + " &7travaux, &e" + writer.getPendingBlocks() + " &7blocs en attente");
+            sendMessage(ctx, "&7Debit: &e" + String.format("%.1f", writer.getBlocksPerMs()) + " &7blocs/ms &8(derniere tranche: "
+                    + writer.getLastSliceMicros() + " us, budget: " + plugin.getConfig().getFillTickBudgetMicros() + " us)");
+            sendMessage(ctx, "&7Total ecrit: &e" + writer.getTotalWritten() + " &7blocs");
+            sendMessage(ctx, "&7Chunks: &e" + writer.getChunksWritten() + " &7ecrits, &e"
+                    + String.format("%.0f", writer.getAvgChunkMicros()) + " &7us/chunk en moyenne &8(max "
+                    + writer.getMaxChunkMicros() + " us, " + String.format("%.0f", writer.getAvgBlocksPerChunk()) + " blocs/chunk)");
+            sendMessage(ctx, "&7Resets auto: &e" + plugin.getMineManager().getActiveResetCount() + " &7en cours, &e"
+                    + plugin.getMineManager().getQueuedResetCount() + " &7en file &8(max " + plugin.getConfig().getMaxConcurrentResets() + ")");
+            sendMessage(ctx, "&7Regeneration: &e" + plugin.getMineManager().getPendingRegenCount() + " &7blocs en attente");
+            sendMessage(ctx, "&7Chunks precharges: &e" + plugin.getMineManager().getWarmChunkCount());
+            PrisonTimerService timer = plugin.getTimerService();
+            sendMessage(ctx, "&7Timer: &e" + timer.getPendingCount() + " &7taches programmees, retard moyen &e"
+                    + String.format("%.0f", timer.getAverageLatenessMicros()) + " &7us &8(max " + timer.getMaxLatenessMicros()
+                    + " us, workers " + timer.getActiveWorkerCount() + "/" + timer.getWorkerCount() + ")");
+            ChallengeProgressStore progress = plugin.getChallengeManager().getProgressStore();
+            sendMessage(ctx, "&7Challenges: &e" + progress.getQueueSize() + " &7progressions en attente, flush &e"
+                    + progress.getLastFlushMillis() + " &7ms &8(moy " + String.format("%.1f", progress.getAverageFlushMillis())
+                    + " ms, max " + progress.getMaxFlushMillis() + " ms, " + progress.getRowsWritten() + " lignes ecrites)");
+            return complete();
+        }
+    }
 }
@@ -54,6 +54,10 @@ public class PrisonConfig {
         config.mines.broadcastResetWarning = true;
         config.mines.warningSecondsBeforeReset = 30;
         config.mines.autoResetPercentage = 20; // Reset quand < 20% de blocs restants
+        config.mines.fillTickBudgetMicros = 5000; // 5 ms par tick de 50 ms
+        config.mines.maxConcurrentResets = 2;
+        config.mines.maxFillBlocksPerSecond = 0; // 0 = pas de plafond (seul le budget par tick limite)
+        config.mines.resetStaggerSeconds = 10;
 
         // Ranks config (A -> Z, puis Free)
         config.ranks = new RanksConfig();
@@ -94,6 +98,12 @@ public class PrisonConfig {
         config.economy = new EconomyConfig();
         config.economy.blockSellMultiplier = 1.0;
         config.economy.pickaxeEfficiencyBonus = 0.1;
+        config.economy.autoSellFlushMillis = 1000;
+        config.economy.autoSellNotifyWindowMillis = 1500;
+
+        // Challenges
+        config.challenges = new ChallengesConfig();
+        config.challenges.progressFlushMillis = 5000;
 
         // Block values (prix de vente par bloc)
         config.blockValues = new HashMap<>();
@@ -150,6 +160,38 @@ public class PrisonConfig {
         return data.mines.autoResetPercentage;
     }
 
+    /**
+     * Temps d'écriture de blocs accordé aux fills par tick du thread monde (µs). 5000 par défaut.
+     */
+    public int getFillTickBudgetMicros() {
+        int micros = data.mines.fillTickBudgetMicros;
+        return micros > 0 ? micros : 5000;
+    }
+
+    /**
+     * Nombre maximum de resets automatiques simultanés. 2 par défaut.
+     */
+    public int getMaxConcurrentResets() {
+        int max = data.mines.maxConcurrentResets;
+        return max > 0 ? max : 2;
+    }
+
+    /**
+     * Plafond global de blocs écrits par seconde par les fills, tous mondes confondus. 0 = illimité.
+     */
+    public int getMaxFillBlocksPerSecond() {
+        return Math.max(0, data.mines.maxFillBlocksPerSecond);
+    }
+
+    /**
+     * Écart minimum entre deux démarrages de reset automatique (s). 0 = pas d'écart,
+     * 10 si absent ou négatif.
+     */
+    public int getResetStaggerSeconds() {
+        Integer seconds = data.mines.resetStaggerSeconds;
+        return seconds != null && seconds >= 0 ? seconds : 10;
+    }
+
     @NotNull
     public List<RankInfo> getRanks() {
         return data.ranks.ranks;
@@ -189,6 +231,30 @@ public class PrisonConfig {
         return data.economy.blockSellMultiplier;
     }
 
+    /**
+     * Intervalle de crédit des gains d'auto-sell (ms). 1000 par défaut.
+     */
+    public int getAutoSellFlushMillis() {
+        int millis = data.economy.autoSellFlushMillis;
+        return millis > 0 ? millis : 1000;
+    }
+
+    /**
+     * Fenêtre de regroupement des notifications d'auto-sell (ms). 1500 par défaut.
+     */
+    public int getAutoSellNotifyWindowMillis() {
+        int millis = data.economy.autoSellNotifyWindowMillis;
+        return millis > 0 ? millis : 1500;
+    }
+
+    /**
+     * Intervalle d'écriture groupée de la progression des challenges (ms). 5000 par défaut.
+     */
+    public int getChallengeProgressFlushMillis() {
+        int millis = data.challenges != null ? data.challenges.progressFlushMillis : 0;
+        return millis > 0 ? millis : 5000;
+    }
+
     @NotNull
     public BigDecimal getBlockValue(String blockType) {
         return data.blockValues.getOrDefault(blockType, BigDecimal.ZERO);
@@ -248,6 +314,7 @@ public class PrisonConfig {
         RanksConfig ranks;
         CellsConfig cells;
         EconomyConfig economy;
+        ChallengesConfig challenges;
         Map<String, BigDecimal> blockValues;
         Map<String, String> messages;
     }
@@ -257,6 +324,11 @@ public class PrisonConfig {
         boolean broadcastResetWarning;
         int warningSecondsBeforeReset;
         int autoResetPercentage;
+        int fillTickBudgetMicros;
+        int maxConcurrentResets;
+        int maxFillBlocksPerSecond;
+        // null si absent du fichier (0 est une valeur valide)
+        Integer resetStaggerSeconds;
     }
 
     private static class RanksConfig {
@@ -272,6 +344,12 @@ public class PrisonConfig {
     private static class EconomyConfig {
         double blockSellMultiplier;
         double pickaxeEfficiencyBonus;
+        int autoSellFlushMillis;
+        int autoSellNotifyWindowMillis;
+    }
+
+    private static class ChallengesConfig {
+        int progressFlushMillis;
     }
 
     public static class RankInfo {
@@ -0,0 +1,146 @@
+package com.islandium.prison.economy;
+
+import com.islandium.core.api.IslandiumAPI;
+import com.islandium.core.api.economy.EconomyService;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Accumulateur des gains d'auto-sell.
+ * Le cassage de bloc ne fait qu'additionner des centimes (sans verrou, sans I/O) ;
+ * un flush périodique crédite un seul addBalance par joueur, puis met à jour
+ * les stats et les challenges avec le montant réellement crédité.
+ */
+public class AutoSellAccumulator {
+
+    private static final String REASON = "Prison auto-sell";
+
+    private final PrisonPlugin plugin;
+
+    // UUID -> gains en attente (centimes)
+    private final Map<UUID, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    public AutoSellAccumulator(@NotNull PrisonPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Ajoute un gain en attente (montant à 2 décimales).
+     */
+    public void add(@NotNull UUID uuid, @NotNull BigDecimal amount) {
+        addCents(uuid, amount.movePointRight(2).longValue());
+    }
+
+    private void addCents(@NotNull UUID uuid, long cents) {
+        if (cents <= 0) return;
+        pending.computeIfAbsent(uuid, k -> new AtomicLong()).addAndGet(cents);
+    }
+
+    /**
+     * Montant en attente pour un joueur (non encore crédité).
+     */
+    @NotNull
+    public BigDecimal getPending(@NotNull UUID uuid) {
+        AtomicLong cents = pending.get(uuid);
+        return cents != null ? BigDecimal.valueOf(cents.get(), 2) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Crédite les gains en attente de tous les joueurs (flush périodique).
+     */
+    public void flushAll() {
+        for (Map.Entry<UUID, AtomicLong> entry : pending.entrySet()) {
+            credit(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Crédite les gains en attente d'un joueur et oublie son entrée (déconnexion).
+     */
+    @NotNull
+    public CompletableFuture<Void> flushAndRemove(@NotNull UUID uuid) {
+        AtomicLong counter = pending.remove(uuid);
+        return counter != null ? credit(uuid, counter) : CompletableFuture.completedFuture(null);
+    }
+
+    @NotNull
+    private CompletableFuture<Void> credit(@NotNull UUID uuid, @NotNull AtomicLong counter) {
+        long cents = counter.getAndSet(0);
+        if (cents <= 0) return CompletableFuture.completedFuture(null);
+
+        BigDecimal amount = BigDecimal.valueOf(cents, 2);
+        EconomyService eco = getEconomyService();
+        if (eco == null) {
+            // Economie indisponible : remettre en attente
+            addCents(uuid, cents);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<?> credit;
+        try {
+            credit = eco.addBalance(uuid, amount, REASON);
+        } catch (Exception e) {
+            // Échec synchrone : même traitement qu'un future en échec
+            credit = CompletableFuture.failedFuture(e);
+        }
+
+        return credit.handle((result, error) -> {
+            if (error != null) {
+                // Crédit refusé : remettre en attente pour le prochain flush
+                addCents(uuid, cents);
+                plugin.log(Level.WARNING, "Auto-sell credit failed for " + uuid + " (" + amount + "), requeued: " + error.getMessage());
+            } else {
+                onCredited(uuid, amount);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Flush synchrone de tous les gains (arrêt du plugin).
+     */
+    public void flushAllAndWait(long timeoutSeconds) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<UUID, AtomicLong> entry : pending.entrySet()) {
+            futures.add(credit(entry.getKey(), entry.getValue()));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            plugin.log(Level.SEVERE, "Auto-sell final flush incomplete: " + e.getMessage());
+        }
+
+        long lost = 0;
+        for (AtomicLong counter : pending.values()) {
+            lost += counter.get();
+        }
+        if (lost > 0) {
+            plugin.log(Level.SEVERE, "Auto-sell: " + BigDecimal.valueOf(lost, 2) + " not credited at shutdown");
+        }
+    }
+
+    private void onCredited(@NotNull UUID uuid, @NotNull BigDecimal amount) {
+        plugin.getStatsManager().addMoneyEarned(uuid, amount);
+
+        // Challenge tracking
+        try {
+            plugin.getChallengeTracker().onMoneyEarned(uuid, amount);
+        } catch (Exception ignored) {}
+    }
+
+    private EconomyService getEconomyService() {
+        IslandiumAPI api = IslandiumAPI.get();
+        return api != null ? api.getEconomyService() : null;
+    }
+}
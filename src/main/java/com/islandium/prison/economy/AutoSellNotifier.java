@@ -0,0 +1,65 @@
+package com.islandium.prison.economy;
+
+import com.islandium.core.api.util.NotificationType;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regroupe les notifications d'auto-sell par joueur.
+ * Au lieu d'une notification par bloc, les gains et le nombre de blocs sont cumulés
+ * sur une fenêtre (voir PrisonConfig.getAutoSellNotifyWindowMillis) puis résumés en une seule.
+ */
+public class AutoSellNotifier {
+
+    private final PrisonPlugin plugin;
+    private final Map<UUID, Window> windows = new ConcurrentHashMap<>();
+
+    public AutoSellNotifier(@NotNull PrisonPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Enregistre un gain d'auto-sell à notifier.
+     */
+    public void record(@NotNull UUID uuid, @NotNull BigDecimal earned, int blocks) {
+        Window window = windows.computeIfAbsent(uuid, k -> new Window());
+        window.cents.addAndGet(earned.movePointRight(2).longValue());
+        window.blocks.addAndGet(blocks);
+    }
+
+    /**
+     * Envoie une notification résumée à chaque joueur ayant des gains sur la fenêtre écoulée.
+     */
+    public void flushAll() {
+        for (Map.Entry<UUID, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            long cents = window.cents.getAndSet(0);
+            int blocks = window.blocks.getAndSet(0);
+            if (cents <= 0) continue;
+
+            BigDecimal total = BigDecimal.valueOf(cents, 2);
+            plugin.getCore().getPlayerManager().getOnlinePlayer(entry.getKey()).ifPresent(player ->
+                    player.sendNotification(NotificationType.SUCCESS,
+                            "+" + SellService.formatMoney(total) + " (auto-sell, " + blocks + (blocks > 1 ? " blocs)" : " bloc)")));
+        }
+    }
+
+    /**
+     * Oublie la fenêtre d'un joueur (déconnexion).
+     */
+    public void remove(@NotNull UUID uuid) {
+        windows.remove(uuid);
+    }
+
+    private static final class Window {
+        final AtomicLong cents = new AtomicLong();
+        final AtomicInteger blocks = new AtomicInteger();
+    }
+}
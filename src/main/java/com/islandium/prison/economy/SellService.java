@@ -23,9 +23,13 @@ import java.util.logging.Level;
 public class SellService {
 
     private final PrisonPlugin plugin;
+    private final AutoSellAccumulator autoSellAccumulator;
+    private final AutoSellNotifier autoSellNotifier;
 
     public SellService(@NotNull PrisonPlugin plugin) {
         this.plugin = plugin;
+        this.autoSellAccumulator = new AutoSellAccumulator(plugin);
+        this.autoSellNotifier = new AutoSellNotifier(plugin);
     }
 
     /**
@@ -161,6 +165,19 @@ public class SellService {
         double multiplier = plugin.getRankManager().getPlayerMultiplier(uuid);
         multiplier *= plugin.getConfig().getBlockSellMultiplier();
 
+        return calculateBlockValue(blockId, count, multiplier);
+    }
+
+    /**
+     * Calcule la valeur d'un bloc avec un multiplicateur déjà résolu (voir MiningContext).
+     */
+    @NotNull
+    public BigDecimal calculateBlockValue(@NotNull String blockId, int count, double multiplier) {
+        BigDecimal baseValue = plugin.getConfig().getBlockValue(blockId);
+        if (baseValue.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+
         return baseValue.multiply(BigDecimal.valueOf(count))
                 .multiply(BigDecimal.valueOf(multiplier))
                 .setScale(2, RoundingMode.HALF_UP);
@@ -168,7 +185,8 @@ public class SellService {
 
     /**
      * Vend automatiquement un bloc spécifique (pour auto-sell au minage).
-     * N'accède PAS à l'inventaire - directement ajoute l'argent.
+     * N'accède PAS à l'inventaire. Le gain est mis en attente dans l'AutoSellAccumulator
+     * et crédité au prochain flush (stats et challenges mis à jour au crédit).
      *
      * @param uuid    UUID du joueur
      * @param blockId ID du bloc miné
@@ -177,24 +195,34 @@ public class SellService {
      */
     @NotNull
     public BigDecimal autoSell(@NotNull UUID uuid, @NotNull String blockId, int count) {
-        BigDecimal earned = calculateBlockValue(uuid, blockId, count);
+        double multiplier = plugin.getRankManager().getPlayerMultiplier(uuid) * plugin.getConfig().getBlockSellMultiplier();
+        return autoSell(uuid, blockId, count, multiplier);
+    }
 
-        if (earned.compareTo(BigDecimal.ZERO) > 0) {
-            EconomyService eco = getEconomyService();
-            if (eco != null) {
-                eco.addBalance(uuid, earned, "Prison auto-sell").join();
-            }
-            plugin.getStatsManager().addMoneyEarned(uuid, earned);
+    /**
+     * Auto-sell avec un multiplicateur déjà résolu (depuis le MiningContext du joueur).
+     */
+    @NotNull
+    public BigDecimal autoSell(@NotNull UUID uuid, @NotNull String blockId, int count, double multiplier) {
+        BigDecimal earned = calculateBlockValue(blockId, count, multiplier);
 
-            // Challenge tracking
-            try {
-                plugin.getChallengeTracker().onMoneyEarned(uuid, earned);
-            } catch (Exception ignored) {}
+        if (earned.compareTo(BigDecimal.ZERO) > 0) {
+            autoSellAccumulator.add(uuid, earned);
         }
 
         return earned;
     }
 
+    @NotNull
+    public AutoSellAccumulator getAutoSellAccumulator() {
+        return autoSellAccumulator;
+    }
+
+    @NotNull
+    public AutoSellNotifier getAutoSellNotifier() {
+        return autoSellNotifier;
+    }
+
     @Nullable
     private EconomyService getEconomyService() {
         IslandiumAPI api = IslandiumAPI.get();
@@ -13,11 +13,9 @@ import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.event.events.ecs.BreakBlockEvent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import com.islandium.core.api.location.ServerLocation;
-import com.islandium.core.api.util.NotificationType;
 import com.islandium.prison.PrisonPlugin;
-import com.islandium.prison.economy.SellService;
 import com.islandium.prison.mine.Mine;
+import com.islandium.prison.stats.MiningContext;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -108,18 +106,8 @@ public class BreakBlockEventSystem extends EntityEventSystem<EntityStore, BreakB
             LOGGER.info("[PRISON] Bloc valide: " + blockId + " world=" + worldName + " pos=(" + blockPos.getX() + "," + blockPos.getY() + "," + blockPos.getZ() + ")");
         }
 
-        // Créer la location du bloc
-        ServerLocation blockLoc = ServerLocation.of(
-                plugin.getCore().getServerName(),
-                worldName,
-                blockPos.getX(),
-                blockPos.getY(),
-                blockPos.getZ(),
-                0, 0
-        );
-
-        // Trouver la mine contenant ce bloc
-        Mine mine = findMineAtLocation(plugin, blockLoc);
+        // Trouver la mine contenant ce bloc (coordonnées primitives, sans allocation)
+        Mine mine = plugin.getMineManager().findMineAt(worldName, blockPos.getX(), blockPos.getY(), blockPos.getZ());
 
         if (mine == null) {
             noMineCount++;
@@ -153,8 +141,18 @@ public class BreakBlockEventSystem extends EntityEventSystem<EntityStore, BreakB
             }
         }
 
-        // Bloc autorisé - décrémenter le compteur
-        mine.decrementRemainingBlocks();
+        // Bloc autorisé - mémoriser la position pour le reset différentiel
+        mine.markBroken(blockPos.getX(), blockPos.getY(), blockPos.getZ());
+        mine.countBroken(blockId, blockPos.getY());
+
+        // Décrémenter le compteur (peut déclencher un reset au seuil)
+        int remaining = mine.decrementRemainingBlocks();
+        plugin.getMineManager().onBlockBroken(mine, remaining);
+
+        // Mode régénération : le bloc revient seul après le délai de la mine
+        if (mine.isRegenMode()) {
+            plugin.getMineManager().scheduleRegen(mine, blockPos.getX(), blockPos.getY(), blockPos.getZ());
+        }
 
         // === Récompenses et stats ===
         // Récupérer le joueur directement via ECS (plus de recherche par proximité!)
@@ -168,15 +166,15 @@ public class BreakBlockEventSystem extends EntityEventSystem<EntityStore, BreakB
         }
 
         UUID uuid = player.getUuid();
+        MiningContext context = plugin.getMiningContextManager().get(uuid);
 
         // Vérifier que le joueur a accès à cette mine
-        String playerRank = plugin.getRankManager().getPlayerRank(uuid);
         String mineRank = mine.getRequiredRank();
-        if (!plugin.getRankManager().isRankHigherOrEqual(playerRank, mineRank)) {
+        if (context.rankIndex() < plugin.getRankManager().getRankIndex(mineRank)) {
             rankBlockedCount++;
             if (rankBlockedCount <= 3) {
                 LOGGER.warning("[DEBUG] Rang insuffisant: joueur=" + player.getDisplayName()
-                    + " rang=" + playerRank + " mine=" + mine.getId() + " rang_requis=" + mineRank);
+                    + " rang=" + context.rankId() + " mine=" + mine.getId() + " rang_requis=" + mineRank);
             }
             return;
         }
@@ -202,17 +200,15 @@ public class BreakBlockEventSystem extends EntityEventSystem<EntityStore, BreakB
         }
 
         // 2. Calculer le fortune bonus
-        int fortuneLevel = plugin.getStatsManager().getFortuneLevel(uuid);
-        int dropCount = calculateFortuneDrops(fortuneLevel);
+        int dropCount = calculateFortuneDrops(context.fortuneLevel());
 
         // 3. Auto-sell ou laisser dans l'inventaire
-        if (plugin.getStatsManager().isAutoSellEnabled(uuid)) {
-            BigDecimal earned = plugin.getSellService().autoSell(uuid, blockId, dropCount);
+        if (context.autoSell()) {
+            BigDecimal earned = plugin.getSellService().autoSell(uuid, blockId, dropCount, context.sellMultiplier());
 
             if (earned.compareTo(BigDecimal.ZERO) > 0) {
-                plugin.getCore().getPlayerManager().getOnlinePlayer(uuid).ifPresent(islandiumPlayer -> {
-                    islandiumPlayer.sendNotification(NotificationType.SUCCESS, "+" + SellService.formatMoney(earned) + " (auto-sell)");
-                });
+                // Notification regroupée par fenêtre (voir AutoSellNotifier)
+                plugin.getSellService().getAutoSellNotifier().record(uuid, earned, dropCount);
             }
         }
 
@@ -244,19 +240,6 @@ public class BreakBlockEventSystem extends EntityEventSystem<EntityStore, BreakB
         return 1;
     }
 
-    /**
-     * Trouve la mine contenant une position donnée.
-     */
-    @Nullable
-    private Mine findMineAtLocation(PrisonPlugin plugin, ServerLocation location) {
-        for (Mine mine : plugin.getMineManager().getAllMines()) {
-            if (mine.isConfigured() && mine.contains(location)) {
-                return mine;
-            }
-        }
-        return null;
-    }
-
     @Nullable
     @Override
     public Query<EntityStore> getQuery() {
@@ -31,11 +31,19 @@ public class PrisonQuitListener extends PrisonListener {
 
         UUID uuid = playerRef.getUuid();
 
+        // Créditer les gains d'auto-sell en attente
+        plugin.getSellService().getAutoSellAccumulator().flushAndRemove(uuid);
+        plugin.getSellService().getAutoSellNotifier().remove(uuid);
+
+        // Écrire la progression des challenges en attente
+        plugin.getChallengeManager().getProgressStore().flushPlayer(uuid);
+
         // Update time played before cleanup
         plugin.getStatsManager().updateTimePlayed(uuid);
 
-        // Nettoyer le HUD
+        // Nettoyer le HUD et le contexte de minage
         plugin.getUIManager().cleanupPlayer(uuid);
+        plugin.getMiningContextManager().invalidate(uuid);
 
         plugin.log(Level.FINE, "Cleaned up Prison data for " + playerRef.getUsername());
     }
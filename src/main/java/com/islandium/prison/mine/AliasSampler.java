@@ -0,0 +1,89 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Tirage pondéré en O(1) par la méthode d'alias de Vose.
+ *
+ * La table est construite une fois par composition (O(n)) ; chaque tirage choisit une colonne
+ * uniformément puis garde son indice ou prend son alias selon la probabilité de la colonne.
+ * Remplace le parcours cumulatif (somme des poids à chaque tirage) de l'ancien selectRandomBlock.
+ *
+ * Immuable : partageable entre threads, chacun avec son propre générateur.
+ */
+final class AliasSampler {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights poids positifs ou nuls (au moins un strictement positif)
+     */
+    AliasSampler(@NotNull double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Empty weights");
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights sum to zero");
+        }
+
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        // Poids mis à l'échelle : moyenne = 1, puis répartition petits / grands
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Restes (erreurs d'arrondi) : colonnes pleines
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    /**
+     * Tire un indice dans [0, weights.length) selon les poids.
+     */
+    int sample(@NotNull Random random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+}
@@ -0,0 +1,183 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Comptes des blocs restants d'une mine, par type et par couche, tenus à jour sans scan.
+ *
+ * Initialisé au fill depuis le gabarit (ou le snapshot) puis décrémenté à chaque bloc cassé.
+ * La palette est figée à la construction ; seuls les comptes changent (atomiques, sans verrou).
+ * L'air n'est jamais compté.
+ */
+final class BlockHistogram {
+
+    private final String[] palette;
+    // id de bloc -> indice de palette
+    private final Map<String, Integer> indices;
+    private final int minY;
+    private final int layers;
+    // [layer * palette.length + type]
+    private final AtomicIntegerArray layerCounts;
+    private final AtomicIntegerArray totals;
+
+    private BlockHistogram(String[] palette, int minY, int layers) {
+        this.palette = palette;
+        this.minY = minY;
+        this.layers = layers;
+        this.indices = new HashMap<>();
+        for (int i = 0; i < palette.length; i++) {
+            indices.put(palette[i], i);
+        }
+        this.layerCounts = new AtomicIntegerArray(layers * palette.length);
+        this.totals = new AtomicIntegerArray(palette.length);
+    }
+
+    /**
+     * Construit l'histogramme d'un gabarit complet (indice de palette par ordinal de la géométrie).
+     */
+    @NotNull
+    static BlockHistogram of(@NotNull MineGeometry geometry, @NotNull String[] palette, @NotNull IndexSource indices) {
+        BlockHistogram histogram = new BlockHistogram(palette, geometry.minY, geometry.layers);
+        int types = palette.length;
+        int[] counts = new int[geometry.layers * types];
+        int columns = geometry.columnsPerLayer;
+        for (int layer = 0; layer < geometry.layers; layer++) {
+            int offset = layer * columns;
+            int base = layer * types;
+            for (int i = offset; i < offset + columns; i++) {
+                counts[base + indices.get(i)]++;
+            }
+        }
+        for (int layer = 0; layer < geometry.layers; layer++) {
+            for (int type = 0; type < types; type++) {
+                if ("air".equalsIgnoreCase(palette[type])) continue;
+                int n = counts[layer * types + type];
+                histogram.layerCounts.set(layer * types + type, n);
+                histogram.totals.addAndGet(type, n);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Histogramme vide (mine vidée) : tous les comptes à zéro.
+     */
+    @NotNull
+    static BlockHistogram empty(@NotNull MineGeometry geometry) {
+        return new BlockHistogram(new String[0], geometry.minY, geometry.layers);
+    }
+
+    /**
+     * Accès en lecture à un gabarit (short[] ou snapshot).
+     */
+    @FunctionalInterface
+    interface IndexSource {
+        short get(int ordinal);
+    }
+
+    /**
+     * Copie de cet histogramme étendue aux types manquants (reset différentiel après un
+     * changement de composition).
+     */
+    @NotNull
+    BlockHistogram withTypes(@NotNull Iterable<String> blockTypes) {
+        if (containsAll(blockTypes)) return this;
+
+        Map<String, Integer> merged = new HashMap<>(indices);
+        List<String> newPalette = new ArrayList<>(Arrays.asList(palette));
+        for (String blockType : blockTypes) {
+            if (!merged.containsKey(blockType)) {
+                merged.put(blockType, newPalette.size());
+                newPalette.add(blockType);
+            }
+        }
+        if (newPalette.size() == palette.length) return this;
+
+        BlockHistogram copy = new BlockHistogram(newPalette.toArray(new String[0]), minY, layers);
+        int oldTypes = palette.length;
+        int newTypes = newPalette.size();
+        for (int layer = 0; layer < layers; layer++) {
+            for (int type = 0; type < oldTypes; type++) {
+                copy.layerCounts.set(layer * newTypes + type, layerCounts.get(layer * oldTypes + type));
+            }
+        }
+        for (int type = 0; type < oldTypes; type++) {
+            copy.totals.set(type, totals.get(type));
+        }
+        return copy;
+    }
+
+    private boolean containsAll(Iterable<String> blockTypes) {
+        for (String blockType : blockTypes) {
+            if (!indices.containsKey(blockType)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ajoute un bloc posé (reset différentiel). Le type doit être dans la palette (voir withTypes).
+     */
+    void increment(@NotNull String blockType, int y) {
+        Integer type = indices.get(blockType);
+        int layer = y - minY;
+        if (type == null || layer < 0 || layer >= layers || "air".equalsIgnoreCase(blockType)) return;
+        layerCounts.incrementAndGet(layer * palette.length + type);
+        totals.incrementAndGet(type);
+    }
+
+    /**
+     * Retire un bloc cassé (ignoré si le type n'a pas été posé par le fill ou si le compte est nul).
+     */
+    void decrement(@NotNull String blockType, int y) {
+        Integer type = indices.get(blockType);
+        int layer = y - minY;
+        if (type == null || layer < 0 || layer >= layers) return;
+        if (layerCounts.getAndUpdate(layer * palette.length + type, n -> n > 0 ? n - 1 : 0) > 0) {
+            totals.decrementAndGet(type);
+        }
+    }
+
+    /**
+     * Nombre restant d'un type de bloc sur toute la mine.
+     */
+    int remaining(@NotNull String blockType) {
+        Integer type = indices.get(blockType);
+        return type != null ? totals.get(type) : 0;
+    }
+
+    /**
+     * Comptes restants par type (types épuisés exclus).
+     */
+    @NotNull
+    Map<String, Integer> totals() {
+        Map<String, Integer> map = new HashMap<>();
+        for (int type = 0; type < palette.length; type++) {
+            int n = totals.get(type);
+            if (n > 0) map.put(palette[type], n);
+        }
+        return map;
+    }
+
+    /**
+     * Comptes restants par type pour une couche (0 = bas), ou null hors de la mine.
+     */
+    @Nullable
+    Map<String, Integer> layer(int layer) {
+        if (layer < 0 || layer >= layers) return null;
+        Map<String, Integer> map = new HashMap<>();
+        int base = layer * palette.length;
+        for (int type = 0; type < palette.length; type++) {
+            int n = layerCounts.get(base + type);
+            if (n > 0) map.put(palette[type], n);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,147 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Roue temporelle hachée des blocs à régénérer d'une mine.
+ *
+ * Une case par tick (50 ms), SLOTS cases : un bloc dû au tick T est rangé dans la case T % SLOTS
+ * avec son tick d'échéance (les délais plus longs qu'un tour de roue restent dans leur case
+ * jusqu'au bon tour). Les positions sont des long compactés (voir pack), sans objet par bloc.
+ *
+ * Thread-safe (synchronized) : alimentée par les événements de casse, vidée par le scheduler.
+ */
+final class BlockRegenWheel {
+
+    static final long TICK_MILLIS = 50;
+    private static final int SLOT_BITS = 12;
+    private static final int SLOTS = 1 << SLOT_BITS; // 4096 ticks = 204,8 s par tour
+    private static final int MASK = SLOTS - 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Par case : positions compactées et tick d'échéance (tableaux parallèles, alloués à la demande)
+    private final long[][] positions = new long[SLOTS][];
+    private final long[][] deadlines = new long[SLOTS][];
+    private final int[] sizes = new int[SLOTS];
+
+    private final long epochNanos = System.nanoTime();
+    // Dernier tick traité
+    private long currentTick;
+    private int size;
+
+    // === Positions compactées ===
+
+    /**
+     * x et z sur 26 bits signés, y sur 12 bits signés.
+     */
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    // === Roue ===
+
+    /**
+     * Programme la régénération d'une position dans delayMillis.
+     */
+    synchronized void schedule(long packed, long delayMillis) {
+        long deadline = Math.max(currentTick + 1, nowTick() + Math.max(1, delayMillis / TICK_MILLIS));
+        int slot = (int) (deadline & MASK);
+
+        long[] slotPositions = positions[slot];
+        int n = sizes[slot];
+        if (slotPositions == null) {
+            positions[slot] = slotPositions = new long[INITIAL_CAPACITY];
+            deadlines[slot] = new long[INITIAL_CAPACITY];
+        } else if (n == slotPositions.length) {
+            positions[slot] = slotPositions = Arrays.copyOf(slotPositions, n * 2);
+            deadlines[slot] = Arrays.copyOf(deadlines[slot], n * 2);
+        }
+        slotPositions[n] = packed;
+        deadlines[slot][n] = deadline;
+        sizes[slot] = n + 1;
+        size++;
+    }
+
+    /**
+     * Avance la roue jusqu'au tick courant et passe chaque position échue à out.
+     * Un retard de plus d'un tour ne parcourt chaque case qu'une fois.
+     *
+     * @return le nombre de positions échues
+     */
+    synchronized int advance(@NotNull LongConsumer out) {
+        long target = nowTick();
+        if (target <= currentTick || size == 0) {
+            currentTick = Math.max(currentTick, target);
+            return 0;
+        }
+
+        long from = Math.max(currentTick + 1, target - MASK);
+        int fired = 0;
+        for (long tick = from; tick <= target; tick++) {
+            fired += drainSlot((int) (tick & MASK), target, out);
+        }
+        currentTick = target;
+        return fired;
+    }
+
+    private int drainSlot(int slot, long target, LongConsumer out) {
+        int n = sizes[slot];
+        if (n == 0) return 0;
+
+        long[] slotPositions = positions[slot];
+        long[] slotDeadlines = deadlines[slot];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (slotDeadlines[i] <= target) {
+                out.accept(slotPositions[i]);
+            } else {
+                // Tour suivant : compacter sur place
+                slotPositions[kept] = slotPositions[i];
+                slotDeadlines[kept] = slotDeadlines[i];
+                kept++;
+            }
+        }
+        sizes[slot] = kept;
+        size -= n - kept;
+
+        // Rendre la mémoire des cases vidées après un pic
+        if (kept == 0 && slotPositions.length > INITIAL_CAPACITY * 16) {
+            positions[slot] = null;
+            deadlines[slot] = null;
+        }
+        return n - kept;
+    }
+
+    /**
+     * Oublie toutes les régénérations en attente (reset complet de la mine).
+     */
+    synchronized void clear() {
+        Arrays.fill(sizes, 0);
+        Arrays.fill(positions, null);
+        Arrays.fill(deadlines, null);
+        size = 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private long nowTick() {
+        return (System.nanoTime() - epochNanos) / (TICK_MILLIS * 1_000_000L);
+    }
+}
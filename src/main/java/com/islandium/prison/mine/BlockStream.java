@@ -0,0 +1,36 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Source séquentielle de blocs à écrire (position + type), consommée par MineBlockWriter.
+ * Non thread-safe : lue uniquement depuis le thread monde.
+ */
+interface BlockStream {
+
+    /**
+     * Avance au bloc suivant.
+     *
+     * @return false quand tous les blocs ont été produits
+     */
+    boolean next();
+
+    int x();
+
+    int y();
+
+    int z();
+
+    @NotNull
+    String blockType();
+
+    /**
+     * "air" n'est pas un bloc valide pour setBlock : le bloc courant doit être cassé.
+     */
+    boolean isAir();
+
+    /**
+     * Nombre total de blocs de la source.
+     */
+    int total();
+}
@@ -0,0 +1,70 @@
+package com.islandium.prison.mine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bitset des positions cassées depuis le dernier reset, indexé par l'ordinal de MineGeometry.
+ * Alimenté depuis le cassage de bloc (sans verrou), vidé atomiquement par le reset différentiel.
+ */
+final class BrokenBlockSet {
+
+    private final AtomicLongArray words;
+    private final int size;
+
+    BrokenBlockSet(int size) {
+        this.size = Math.max(0, size);
+        this.words = new AtomicLongArray((this.size + 63) >>> 6);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Marque une position comme cassée.
+     */
+    void mark(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) return;
+        int index = ordinal >>> 6;
+        long bit = 1L << ordinal;
+        long current = words.get(index);
+        while ((current & bit) == 0) {
+            if (words.compareAndSet(index, current, current | bit)) return;
+            current = words.get(index);
+        }
+    }
+
+    /**
+     * Retourne les ordinaux marqués et remet le bitset à zéro.
+     * Un bloc cassé pendant l'appel est soit retourné, soit conservé pour le prochain reset.
+     */
+    int[] drain() {
+        int count = 0;
+        long[] snapshot = new long[words.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            long word = words.getAndSet(i, 0L);
+            snapshot[i] = word;
+            count += Long.bitCount(word);
+        }
+
+        int[] ordinals = new int[count];
+        int n = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            long word = snapshot[i];
+            while (word != 0) {
+                ordinals[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * Vide le bitset (reset complet).
+     */
+    void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+}
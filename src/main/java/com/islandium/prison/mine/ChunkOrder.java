@@ -0,0 +1,64 @@
+package com.islandium.prison.mine;
+
+import java.util.Comparator;
+
+/**
+ * Ordre d'écriture par chunk : toutes les positions d'une colonne de chunk (section par section,
+ * de bas en haut) avant de passer au chunk suivant, pour que les setBlock consécutifs
+ * restent dans le même chunk.
+ */
+final class ChunkOrder {
+
+    // Colonnes de chunk de 32x32 blocs, sections de 32 blocs de haut
+    static final int CHUNK_SHIFT = 5;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /**
+     * Tri des positions {x, y, z} : chunk (z puis x), puis y, z, x.
+     */
+    static final Comparator<int[]> POSITIONS = Comparator
+            .<int[]>comparingInt(p -> p[2] >> CHUNK_SHIFT)
+            .thenComparingInt(p -> p[0] >> CHUNK_SHIFT)
+            .thenComparingInt(p -> p[1])
+            .thenComparingInt(p -> p[2])
+            .thenComparingInt(p -> p[0]);
+
+    private ChunkOrder() {
+    }
+
+    static long chunkKey(int x, int z) {
+        return ((long) (x >> CHUNK_SHIFT) << 32) | ((z >> CHUNK_SHIFT) & 0xFFFFFFFFL);
+    }
+
+    // === Clés de position ===
+    // Chunk z signé (21 bits), chunk x décalé (21), y décalé (12), z puis x dans le chunk (5 + 5) :
+    // trier les clés (Arrays.sort) donne l'ordre de POSITIONS, sans objet par position.
+
+    private static final int CHUNK_BITS = 21;
+    private static final int CHUNK_BIAS = 1 << (CHUNK_BITS - 1);
+    private static final int Y_BIAS = 2048;
+    private static final int LOCAL_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Clé triable d'une position (mêmes plages que BlockRegenWheel.pack).
+     */
+    static long key(int x, int y, int z) {
+        return ((long) (z >> CHUNK_SHIFT) << 43)
+                | ((long) (((x >> CHUNK_SHIFT) + CHUNK_BIAS) & 0x1FFFFF) << 22)
+                | ((long) ((y + Y_BIAS) & 0xFFF) << 10)
+                | ((long) (z & LOCAL_MASK) << CHUNK_SHIFT)
+                | (x & LOCAL_MASK);
+    }
+
+    static int keyX(long key) {
+        return ((((int) (key >>> 22) & 0x1FFFFF) - CHUNK_BIAS) << CHUNK_SHIFT) | (int) (key & LOCAL_MASK);
+    }
+
+    static int keyY(long key) {
+        return ((int) (key >>> 10) & 0xFFF) - Y_BIAS;
+    }
+
+    static int keyZ(long key) {
+        return ((int) (key >> 43) << CHUNK_SHIFT) | (int) ((key >>> CHUNK_SHIFT) & LOCAL_MASK);
+    }
+}
@@ -0,0 +1,134 @@
+package com.islandium.prison.mine;
+
+import java.util.Arrays;
+
+/**
+ * Empreinte horizontale d'une mine cylindrique, en offsets relatifs au centre.
+ * Grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée :
+ * (dx²/(radius+adj)²) + (dz²/(radius+adj)²) < 1
+ *
+ * Calculée une seule fois par (radius, radiusAdjust) et partagée par tous les consommateurs
+ * (contains, total de blocs, fill, scan, visualisation) pour qu'ils voient la même forme.
+ * Immutable.
+ */
+public final class CylinderFootprint {
+
+    private final int radius;
+    private final double radiusAdjust;
+
+    // Par rangée (index = dz + radius) : étendue dx [-rowHalf, rowHalf], -1 si rangée vide
+    private final int[] rowHalf;
+    // Ordinal de la première colonne de chaque rangée (parcours dz puis dx)
+    private final int[] rowStart;
+    private final int columnCount;
+
+    // Colonnes du contour (au moins un voisin 4-connexe hors de l'empreinte)
+    private final int[] edgeDx;
+    private final int[] edgeDz;
+
+    private CylinderFootprint(int radius, double radiusAdjust) {
+        this.radius = radius;
+        this.radiusAdjust = radiusAdjust;
+
+        int size = 2 * radius + 1;
+        double r = radius + radiusAdjust;
+        double rSq = r * r;
+
+        this.rowHalf = new int[size];
+        this.rowStart = new int[size];
+        int count = 0;
+        for (int dz = -radius; dz <= radius; dz++) {
+            int half = -1;
+            for (int dx = radius; dx >= 0; dx--) {
+                if ((dx * dx) / rSq + (dz * dz) / rSq < 1.0) {
+                    half = dx;
+                    break;
+                }
+            }
+            rowHalf[dz + radius] = half;
+            rowStart[dz + radius] = count;
+            if (half >= 0) count += 2 * half + 1;
+        }
+        this.columnCount = count;
+
+        int edges = 0;
+        int[] ex = new int[count];
+        int[] ez = new int[count];
+        for (int dz = -radius; dz <= radius; dz++) {
+            int half = rowHalf[dz + radius];
+            for (int dx = -half; dx <= half; dx++) {
+                if (!contains(dx + 1, dz) || !contains(dx - 1, dz)
+                        || !contains(dx, dz + 1) || !contains(dx, dz - 1)) {
+                    ex[edges] = dx;
+                    ez[edges] = dz;
+                    edges++;
+                }
+            }
+        }
+        this.edgeDx = Arrays.copyOf(ex, edges);
+        this.edgeDz = Arrays.copyOf(ez, edges);
+    }
+
+    /**
+     * Calcule l'empreinte pour un rayon et un ajustement donnés.
+     */
+    public static CylinderFootprint of(int radius, double radiusAdjust) {
+        return new CylinderFootprint(Math.max(0, radius), radiusAdjust);
+    }
+
+    /**
+     * Vérifie si l'empreinte a été calculée avec ces paramètres.
+     */
+    boolean matches(int radius, double radiusAdjust) {
+        return this.radius == radius && Double.compare(this.radiusAdjust, radiusAdjust) == 0;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Nombre de colonnes (blocs par couche).
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Demi-largeur dx de la rangée dz, ou -1 si la rangée est vide (ou hors grille).
+     */
+    public int getRowHalf(int dz) {
+        if (dz < -radius || dz > radius) return -1;
+        return rowHalf[dz + radius];
+    }
+
+    /**
+     * Vérifie si la colonne (dx, dz) fait partie de l'empreinte.
+     */
+    public boolean contains(int dx, int dz) {
+        if (dz < -radius || dz > radius) return false;
+        int half = rowHalf[dz + radius];
+        return dx >= -half && dx <= half;
+    }
+
+    /**
+     * Ordinal de la colonne (dx, dz) dans le parcours dz puis dx, ou -1 si hors empreinte.
+     */
+    public int ordinal(int dx, int dz) {
+        if (!contains(dx, dz)) return -1;
+        int row = dz + radius;
+        return rowStart[row] + dx + rowHalf[row];
+    }
+
+    public int getEdgeCount() {
+        return edgeDx.length;
+    }
+
+    public int getEdgeDx(int i) {
+        return edgeDx[i];
+    }
+
+    public int getEdgeDz(int i) {
+        return edgeDz[i];
+    }
+}
@@ -0,0 +1,152 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ShortBuffer;
+
+import static com.islandium.prison.mine.ChunkOrder.CHUNK_SHIFT;
+import static com.islandium.prison.mine.ChunkOrder.CHUNK_SIZE;
+
+/**
+ * Parcours en flux des positions d'un fill complet, dans l'ordre des chunks (voir ChunkOrder) :
+ * colonne de chunk par colonne de chunk, puis de bas en haut, rangée par rangée.
+ * Curseurs primitifs : aucune position ni chaîne n'est matérialisée ; le type de chaque
+ * position est lu dans un gabarit d'indices short (tableau ou snapshot) indexé par l'ordinal.
+ *
+ * Non thread-safe : consommé séquentiellement par MineBlockWriter sur le thread monde.
+ */
+final class FillCursor implements BlockStream {
+
+    private final MineGeometry geometry;
+    private final FillPlan plan;
+    private final ShortBuffer template;
+    private final int total;
+
+    // Bornes des colonnes de chunk couvertes par la mine
+    private final int chunkXMin, chunkXMax, chunkZMax;
+
+    // Position courante (valide après un next() qui a retourné true)
+    private int x, y, z;
+    private short type;
+
+    // Chunk courant et bornes de parcours dans ce chunk
+    private int chunkX, chunkZ;
+    private int zStart, zEnd, xEnd;
+    private int produced;
+
+    /**
+     * @param template indice de palette par ordinal (voir FillPlan.generateTemplate)
+     */
+    FillCursor(@NotNull MineGeometry geometry, @NotNull FillPlan plan, @NotNull short[] template) {
+        this(geometry, plan, ShortBuffer.wrap(template));
+    }
+
+    /**
+     * @param template indices de palette par ordinal, lus en accès absolu (voir MineSnapshot)
+     */
+    FillCursor(@NotNull MineGeometry geometry, @NotNull FillPlan plan, @NotNull ShortBuffer template) {
+        this.geometry = geometry;
+        this.plan = plan;
+        this.template = template;
+        this.total = geometry.volume();
+
+        this.chunkXMin = geometry.minX >> CHUNK_SHIFT;
+        this.chunkXMax = geometry.maxX >> CHUNK_SHIFT;
+        this.chunkZMax = geometry.maxZ >> CHUNK_SHIFT;
+
+        // Forcer le passage au premier chunk au premier next()
+        this.chunkX = chunkXMax;
+        this.chunkZ = (geometry.minZ >> CHUNK_SHIFT) - 1;
+        this.y = geometry.maxY;
+        this.xEnd = -1;
+    }
+
+    @Override
+    public boolean next() {
+        if (produced >= total) return false;
+
+        if (x < xEnd) {
+            x++;
+        } else {
+            // Segment suivant (en sautant les segments vides)
+            do {
+                nextRow();
+            } while (x > xEnd);
+        }
+
+        type = template.get(geometry.ordinal(x, y, z));
+        produced++;
+        return true;
+    }
+
+    /**
+     * Passe à la rangée suivante du chunk courant, ou au chunk suivant.
+     */
+    private void nextRow() {
+        if (z < zEnd) {
+            z++;
+        } else if (y < geometry.maxY) {
+            y++;
+            z = zStart;
+        } else {
+            nextChunk();
+        }
+
+        int chunkMinX = chunkX << CHUNK_SHIFT;
+        x = Math.max(geometry.rowMinX(z), chunkMinX);
+        xEnd = Math.min(geometry.rowMaxX(z), chunkMinX + CHUNK_SIZE - 1);
+    }
+
+    private void nextChunk() {
+        if (chunkX < chunkXMax) {
+            chunkX++;
+        } else {
+            chunkX = chunkXMin;
+            chunkZ++;
+        }
+        if (chunkZ > chunkZMax) {
+            throw new IllegalStateException("Fill cursor overran the mine bounds");
+        }
+
+        int chunkMinZ = chunkZ << CHUNK_SHIFT;
+        zStart = Math.max(geometry.minZ, chunkMinZ);
+        zEnd = Math.min(geometry.maxZ, chunkMinZ + CHUNK_SIZE - 1);
+        y = geometry.minY;
+        z = zStart;
+    }
+
+    @Override
+    public int x() {
+        return x;
+    }
+
+    @Override
+    public int y() {
+        return y;
+    }
+
+    @Override
+    public int z() {
+        return z;
+    }
+
+    @NotNull
+    @Override
+    public String blockType() {
+        return plan.blockType(type);
+    }
+
+    @Override
+    public boolean isAir() {
+        return plan.isAir(type);
+    }
+
+    @Override
+    public int total() {
+        return total;
+    }
+
+    int produced() {
+        return produced;
+    }
+}
@@ -0,0 +1,205 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Composition d'un fill, résolue une fois par reset : palette de types de blocs
+ * et, pour chaque couche, les indices de palette et pourcentages actifs.
+ *
+ * Génère les couches sous forme d'indices short mélangés, avec des comptes exacts
+ * (même répartition que l'ancien preGenerateBlocksForMine) sans créer de String par bloc.
+ */
+final class FillPlan {
+
+    private static final String FALLBACK_BLOCK = "stone";
+
+    private final String[] palette;
+    // "air" ne passe pas par setBlock (voir MineBlockWriter)
+    private final boolean[] air;
+    // Par couche : indices de palette et pourcentages normalisés (somme = 1)
+    private final short[][] layerTypes;
+    private final double[][] layerShares;
+    // Tables d'alias par couche (construites au premier tirage)
+    private final AliasSampler[] samplers;
+
+    private FillPlan(String[] palette, short[][] layerTypes, double[][] layerShares) {
+        this.palette = palette;
+        this.layerTypes = layerTypes;
+        this.layerShares = layerShares;
+        this.samplers = new AliasSampler[layerTypes.length];
+        this.air = new boolean[palette.length];
+        for (int i = 0; i < palette.length; i++) {
+            air[i] = "air".equalsIgnoreCase(palette[i]);
+        }
+    }
+
+    /**
+     * Résout la composition active (limites de couches, blocs désactivés) de chaque couche.
+     */
+    @NotNull
+    static FillPlan of(@NotNull Mine mine, int layers) {
+        Map<String, Short> indices = new HashMap<>();
+        short[][] layerTypes = new short[layers][];
+        double[][] layerShares = new double[layers][];
+
+        for (int layer = 0; layer < layers; layer++) {
+            Map<String, Double> layerComp = mine.getActiveCompositionForLayer(layer);
+            if (layerComp.isEmpty()) {
+                layerComp = Map.of(FALLBACK_BLOCK, 100.0);
+            }
+
+            double totalPercent = 0;
+            for (double percent : layerComp.values()) {
+                totalPercent += percent;
+            }
+            if (totalPercent <= 0) {
+                totalPercent = 100.0;
+            }
+
+            short[] types = new short[layerComp.size()];
+            double[] shares = new double[layerComp.size()];
+            int i = 0;
+            for (Map.Entry<String, Double> entry : layerComp.entrySet()) {
+                types[i] = indices.computeIfAbsent(entry.getKey(), k -> (short) indices.size());
+                shares[i] = entry.getValue() / totalPercent;
+                i++;
+            }
+            layerTypes[layer] = types;
+            layerShares[layer] = shares;
+        }
+
+        String[] palette = new String[indices.size()];
+        for (Map.Entry<String, Short> entry : indices.entrySet()) {
+            palette[entry.getValue()] = entry.getKey();
+        }
+        return new FillPlan(palette, layerTypes, layerShares);
+    }
+
+    /**
+     * Plan à un seul type de bloc (clear : "air").
+     */
+    @NotNull
+    static FillPlan uniform(@NotNull String blockType, int layers) {
+        short[][] layerTypes = new short[layers][];
+        double[][] layerShares = new double[layers][];
+        for (int layer = 0; layer < layers; layer++) {
+            layerTypes[layer] = new short[]{0};
+            layerShares[layer] = new double[]{1.0};
+        }
+        return new FillPlan(new String[]{blockType}, layerTypes, layerShares);
+    }
+
+    /**
+     * Plan réduit à une palette (snapshot : les indices viennent du fichier, pas des pourcentages).
+     */
+    @NotNull
+    static FillPlan palette(@NotNull String[] palette) {
+        return new FillPlan(palette.clone(), new short[0][], new double[0][]);
+    }
+
+    int layers() {
+        return layerTypes.length;
+    }
+
+    /**
+     * Palette du plan (indice -> id de bloc), à ne pas modifier.
+     */
+    @NotNull
+    String[] palette() {
+        return palette;
+    }
+
+    @NotNull
+    String blockType(short index) {
+        return palette[index];
+    }
+
+    boolean isAir(short index) {
+        return air[index];
+    }
+
+    /**
+     * Tire un indice de palette pour la couche selon ses pourcentages (tirage indépendant, O(1)).
+     * Pour les blocs isolés (régénération, voir MineRegenerator) ; un fill complet passe par generateLayer.
+     */
+    short sample(int layer, @NotNull Random random) {
+        AliasSampler sampler = samplers[layer];
+        if (sampler == null) {
+            // Course bénigne : deux threads peuvent construire la même table
+            sampler = new AliasSampler(samplerWeights(layerShares[layer]));
+            samplers[layer] = sampler;
+        }
+        return layerTypes[layer][sampler.sample(random)];
+    }
+
+    /**
+     * Poids négatifs ramenés à 0 ; sans poids positif, le dernier type prend tout (comme generateLayer).
+     */
+    private static double[] samplerWeights(double[] shares) {
+        double[] weights = new double[shares.length];
+        double total = 0;
+        for (int i = 0; i < shares.length; i++) {
+            weights[i] = Math.max(0, shares[i]);
+            total += weights[i];
+        }
+        if (total <= 0) {
+            weights[weights.length - 1] = 1.0;
+        }
+        return weights;
+    }
+
+    /**
+     * Même palette et mêmes répartitions par couche (un gabarit généré avec l'un reste valide pour l'autre).
+     */
+    boolean sameAs(@NotNull FillPlan other) {
+        return Arrays.equals(palette, other.palette)
+                && Arrays.deepEquals(layerTypes, other.layerTypes)
+                && Arrays.deepEquals(layerShares, other.layerShares);
+    }
+
+    /**
+     * Génère le gabarit complet d'une géométrie : un indice de palette par ordinal
+     * (couche par couche, chaque couche mélangée indépendamment).
+     */
+    @NotNull
+    short[] generateTemplate(@NotNull MineGeometry geometry, @NotNull Random random) {
+        short[] template = new short[geometry.volume()];
+        for (int layer = 0; layer < geometry.layers; layer++) {
+            generateLayer(layer, template, layer * geometry.columnsPerLayer, geometry.columnsPerLayer, random);
+        }
+        return template;
+    }
+
+    /**
+     * Remplit out[offset..offset+count) avec des indices de palette mélangés pour la couche.
+     * Les comptes par type sont exacts (arrondis, le dernier type prend le reste).
+     */
+    void generateLayer(int layer, @NotNull short[] out, int offset, int count, @NotNull Random random) {
+        short[] types = layerTypes[layer];
+        double[] shares = layerShares[layer];
+
+        int assigned = 0;
+        for (int i = 0; i < types.length; i++) {
+            int n = i == types.length - 1
+                    ? count - assigned
+                    : Math.min(count - assigned, (int) Math.round(shares[i] * count));
+            for (int j = 0; j < n; j++) {
+                out[offset + assigned + j] = types[i];
+            }
+            assigned += n;
+        }
+
+        // Fisher-Yates sur la portion utilisée
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            short tmp = out[offset + i];
+            out[offset + i] = out[offset + j];
+            out[offset + j] = tmp;
+        }
+    }
+}
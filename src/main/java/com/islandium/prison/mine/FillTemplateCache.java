@@ -0,0 +1,135 @@
+package com.islandium.prison.mine;
+
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * Gabarits de fill pré-générés en arrière-plan (double buffer par mine).
+ *
+ * Pendant qu'un gabarit est écrit par MineBlockWriter, le suivant est généré (avec ses comptes
+ * par type, voir BlockHistogram) sur le thread "Prison-FillTemplates" : au reset, il ne reste
+ * qu'à le prendre. Un gabarit est valide tant que la géométrie de la mine et son FillPlan
+ * (composition, limites de couches, blocs désactivés) n'ont pas changé ; sinon il est régénéré
+ * (en synchrone si le reset arrive avant).
+ */
+final class FillTemplateCache {
+
+    private final PrisonPlugin plugin;
+    private final ExecutorService executor;
+
+    // id (minuscule) -> gabarit prêt pour le prochain fill
+    private final Map<String, Prepared> ready = new ConcurrentHashMap<>();
+
+    FillTemplateCache(@NotNull PrisonPlugin plugin) {
+        this.plugin = plugin;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Prison-FillTemplates");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Gabarit prêt à être écrit, lié à la géométrie et au plan avec lesquels il a été généré.
+     */
+    static final class Prepared {
+        final MineGeometry geometry;
+        final FillPlan plan;
+        final short[] template;
+        // Comptes par type et par couche du gabarit (composition vivante après le fill)
+        final BlockHistogram histogram;
+
+        Prepared(MineGeometry geometry, FillPlan plan, short[] template) {
+            this.geometry = geometry;
+            this.plan = plan;
+            this.template = template;
+            this.histogram = BlockHistogram.of(geometry, plan.palette(), i -> template[i]);
+        }
+
+        @NotNull
+        FillCursor cursor() {
+            return new FillCursor(geometry, plan, template);
+        }
+    }
+
+    /**
+     * Prend le gabarit prêt de la mine (ou le génère s'il manque ou est périmé)
+     * et lance la génération du suivant en arrière-plan.
+     *
+     * @return null si la mine n'a pas de géométrie
+     */
+    @Nullable
+    Prepared take(@NotNull Mine mine) {
+        String id = mine.getId().toLowerCase();
+        Prepared prepared = ready.remove(id);
+        if (prepared == null || !isCurrent(prepared, mine)) {
+            if (prepared != null) {
+                plugin.log(Level.INFO, "[fill] Template of " + mine.getId() + " is stale, regenerating");
+            }
+            prepared = generate(mine);
+        }
+        prepare(mine);
+        return prepared;
+    }
+
+    /**
+     * Planifie la génération du prochain gabarit de la mine (sans effet s'il est déjà à jour).
+     */
+    void prepare(@NotNull Mine mine) {
+        String id = mine.getId().toLowerCase();
+        try {
+            executor.execute(() -> {
+                try {
+                    Prepared current = ready.get(id);
+                    if (current != null && isCurrent(current, mine)) return;
+                    Prepared next = generate(mine);
+                    if (next != null) {
+                        ready.put(id, next);
+                    } else {
+                        ready.remove(id);
+                    }
+                } catch (Exception e) {
+                    plugin.log(Level.WARNING, "[fill] Failed to pre-generate template of " + mine.getId() + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Arrêt en cours
+        }
+    }
+
+    /**
+     * Oublie le gabarit d'une mine supprimée.
+     */
+    void remove(@NotNull String mineId) {
+        ready.remove(mineId.toLowerCase());
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        ready.clear();
+    }
+
+    private boolean isCurrent(@NotNull Prepared prepared, @NotNull Mine mine) {
+        MineGeometry geometry = mine.getGeometry();
+        if (geometry == null || !geometry.sameLayout(prepared.geometry)) return false;
+        return prepared.plan.sameAs(FillPlan.of(mine, prepared.geometry.layers));
+    }
+
+    @Nullable
+    private Prepared generate(@NotNull Mine mine) {
+        MineGeometry geometry = mine.getGeometry();
+        if (geometry == null || geometry.volume() == 0) return null;
+
+        FillPlan plan = FillPlan.of(mine, geometry.layers);
+        return new Prepared(geometry, plan, plan.generateTemplate(geometry, ThreadLocalRandom.current()));
+    }
+}
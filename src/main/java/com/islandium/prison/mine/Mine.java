@@ -6,6 +6,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Représente une mine dans le système Prison.
@@ -53,10 +55,38 @@ public class Mine {
 
     // État de la mine
     private int totalBlocks;
-    private int remainingBlocks;
+    // Décrémenté sans verrou depuis le thread monde à chaque bloc cassé
+    private final AtomicInteger remainingBlocks = new AtomicInteger();
+    // Reset déjà demandé (seuil de blocs restants franchi), remis à false au reset
+    private final AtomicBoolean resetPending = new AtomicBoolean();
+    // Blocs restants juste après le dernier reset (inférieur au total si le snapshot contient de l'air)
+    private volatile int resetBaseline;
     private long lastResetTime;
     private boolean autoReset = true;
     private int resetIntervalMinutes = 0; // 0 = utiliser la valeur globale de PrisonConfig
+    // Reset différentiel : ne régénère que les blocs cassés depuis le dernier reset
+    private boolean deltaReset = false;
+    // Reset depuis le snapshot binaire de la mine (mods/prison/snapshots/) au lieu des pourcentages
+    private boolean snapshotReset = false;
+    // Régénération bloc par bloc : délai en secondes après la casse (0 = désactivée)
+    private int regenDelaySeconds = 0;
+
+    // Géométrie pré-calculée (null si non configurée), reconstruite à chaque changement de forme
+    private volatile MineGeometry geometry;
+    private volatile MineGeometry villageGeometry;
+    // Empreinte du cylindre (null si radius = 0), recalculée quand radius ou radiusAdjust change
+    private volatile CylinderFootprint footprint;
+    private volatile CylinderFootprint villageFootprint;
+    // Positions cassées depuis le dernier reset (indexées par ordinal de la géométrie)
+    private volatile BrokenBlockSet brokenBlocks;
+    // Le suivi ne couvre toute la mine qu'après un reset complet sur la géométrie courante
+    private volatile boolean brokenTracked;
+    // Blocs restants par type et par couche (null tant qu'aucun fill n'a eu lieu depuis le démarrage)
+    private volatile BlockHistogram histogram;
+    // Modifiée depuis la dernière écriture de son fichier (voir MineManager.flush)
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    // Blocs restants au moment de la dernière écriture (compteur trop chaud pour marquer dirty)
+    private volatile int savedRemainingBlocks = -1;
 
     public Mine(@NotNull String id) {
         this.id = id;
@@ -79,6 +109,7 @@ public class Mine {
 
     public void setDisplayName(@NotNull String displayName) {
         this.displayName = displayName;
+        markDirty();
     }
 
     @NotNull
@@ -88,6 +119,7 @@ public class Mine {
 
     public void setRequiredRank(@NotNull String requiredRank) {
         this.requiredRank = requiredRank;
+        markDirty();
     }
 
     @Nullable
@@ -98,6 +130,7 @@ public class Mine {
     public void setCorner1(@Nullable ServerLocation corner1) {
         this.corner1 = corner1;
         recalculateTotalBlocks();
+        markDirty();
     }
 
     @Nullable
@@ -108,6 +141,7 @@ public class Mine {
     public void setCorner2(@Nullable ServerLocation corner2) {
         this.corner2 = corner2;
         recalculateTotalBlocks();
+        markDirty();
     }
 
     // === Cylindrical Shape ===
@@ -128,6 +162,7 @@ public class Mine {
             updateSpawnToCenter();
         }
         recalculateTotalBlocks();
+        markDirty();
     }
 
     /**
@@ -159,6 +194,7 @@ public class Mine {
     public void setRadius(int radius) {
         this.radius = Math.max(0, radius);
         recalculateTotalBlocks();
+        markDirty();
     }
 
     public int getHeight() {
@@ -172,6 +208,7 @@ public class Mine {
         if (cylinderMode && center != null) {
             updateSpawnToCenter();
         }
+        markDirty();
     }
 
     /**
@@ -193,6 +230,8 @@ public class Mine {
      */
     public void setCylinderMode(boolean cylinderMode) {
         this.cylinderMode = cylinderMode;
+        rebuildGeometry();
+        markDirty();
     }
 
     /**
@@ -207,6 +246,7 @@ public class Mine {
      */
     public void setUseDiameterMode(boolean useDiameterMode) {
         this.useDiameterMode = useDiameterMode;
+        markDirty();
     }
 
     /**
@@ -222,6 +262,7 @@ public class Mine {
     public void setRadiusAdjust(double radiusAdjust) {
         this.radiusAdjust = radiusAdjust;
         recalculateTotalBlocks();
+        markDirty();
     }
 
     /**
@@ -237,6 +278,8 @@ public class Mine {
      */
     public void setVillageMargin(int villageMargin) {
         this.villageMargin = Math.max(0, villageMargin);
+        rebuildGeometry();
+        markDirty();
     }
 
     /**
@@ -258,6 +301,7 @@ public class Mine {
         this.corner1 = null;
         this.corner2 = null;
         recalculateTotalBlocks();
+        markDirty();
     }
 
     @Nullable
@@ -267,6 +311,7 @@ public class Mine {
 
     public void setSpawnPoint(@Nullable ServerLocation spawnPoint) {
         this.spawnPoint = spawnPoint;
+        markDirty();
     }
 
     @NotNull
@@ -276,10 +321,12 @@ public class Mine {
 
     public void setComposition(@NotNull Map<String, Double> composition) {
         this.composition = composition;
+        markDirty();
     }
 
     public void addBlock(@NotNull String blockType, double percentage) {
         composition.put(blockType, percentage);
+        markDirty();
     }
 
     // === Disabled Blocks ===
@@ -300,6 +347,7 @@ public class Mine {
         } else {
             disabledBlocks.add(blockType);
         }
+        markDirty();
     }
 
     /**
@@ -307,6 +355,7 @@ public class Mine {
      * @return true si le bloc est maintenant enabled, false sinon
      */
     public boolean toggleBlockEnabled(@NotNull String blockType) {
+        markDirty();
         if (disabledBlocks.contains(blockType)) {
             disabledBlocks.remove(blockType);
             return true;
@@ -329,6 +378,7 @@ public class Mine {
      */
     public void setDisabledBlocks(@NotNull Set<String> disabledBlocks) {
         this.disabledBlocks = disabledBlocks;
+        markDirty();
     }
 
     /**
@@ -359,6 +409,7 @@ public class Mine {
         } else {
             blockLayerLimits.put(blockType, new int[]{minLayer, maxLayer});
         }
+        markDirty();
     }
 
     /**
@@ -405,6 +456,7 @@ public class Mine {
      */
     public void setBlockLayerLimitsMap(@NotNull Map<String, int[]> limits) {
         this.blockLayerLimits = limits;
+        markDirty();
     }
 
     /**
@@ -433,6 +485,7 @@ public class Mine {
 
     public void setLayerComposition(@NotNull Map<Integer, Map<String, Double>> layerComposition) {
         this.layerComposition = layerComposition;
+        markDirty();
     }
 
     public boolean isUseLayerComposition() {
@@ -441,6 +494,7 @@ public class Mine {
 
     public void setUseLayerComposition(boolean useLayerComposition) {
         this.useLayerComposition = useLayerComposition;
+        markDirty();
     }
 
     /**
@@ -451,6 +505,7 @@ public class Mine {
      */
     public void addBlockToLayer(int layer, @NotNull String blockType, double percentage) {
         layerComposition.computeIfAbsent(layer, k -> new HashMap<>()).put(blockType, percentage);
+        markDirty();
     }
 
     /**
@@ -481,6 +536,7 @@ public class Mine {
      */
     public void clearLayerComposition() {
         layerComposition.clear();
+        markDirty();
     }
 
     // === Natural Mode ===
@@ -491,6 +547,64 @@ public class Mine {
 
     public void setNaturalMode(boolean naturalMode) {
         this.naturalMode = naturalMode;
+        markDirty();
+    }
+
+    // === Delta Reset ===
+
+    public boolean isDeltaReset() {
+        return deltaReset;
+    }
+
+    public void setDeltaReset(boolean deltaReset) {
+        this.deltaReset = deltaReset;
+        markDirty();
+    }
+
+    /**
+     * Enregistre un bloc cassé pour le prochain reset différentiel.
+     */
+    public void markBroken(int x, int y, int z) {
+        MineGeometry geo = geometry;
+        BrokenBlockSet set = brokenBlocks;
+        if (geo == null || set == null || !geo.contains(geo.world, x, y, z)) return;
+        set.mark(geo.ordinal(x, y, z));
+    }
+
+    /**
+     * Récupère et vide les positions cassées depuis le dernier reset ({x, y, z}, couche par couche).
+     * Retourne null si le suivi n'est pas fiable (pas de reset complet depuis le démarrage
+     * ou depuis un changement de forme) : un reset complet est alors nécessaire.
+     */
+    @Nullable
+    public List<int[]> drainBrokenBlocks() {
+        MineGeometry geo = geometry;
+        BrokenBlockSet set = brokenBlocks;
+        if (!brokenTracked || geo == null || set == null || set.size() != geo.volume()) return null;
+
+        int[] ordinals = set.drain();
+        List<int[]> positions = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            positions.add(geo.position(ordinal));
+        }
+        return positions;
+    }
+
+    /**
+     * Vide et active le suivi des blocs cassés (au début d'un reset complet).
+     */
+    public void restartBrokenTracking() {
+        BrokenBlockSet set = brokenBlocks;
+        if (set == null) return;
+        set.clear();
+        brokenTracked = true;
+    }
+
+    /**
+     * Désactive le suivi jusqu'au prochain reset complet (mine vidée, etc.).
+     */
+    public void stopBrokenTracking() {
+        brokenTracked = false;
     }
 
     @NotNull
@@ -500,6 +614,7 @@ public class Mine {
 
     public void setBlockRankRequirements(@NotNull Map<String, String> blockRankRequirements) {
         this.blockRankRequirements = blockRankRequirements;
+        markDirty();
     }
 
     /**
@@ -507,6 +622,7 @@ public class Mine {
      */
     public void setBlockRankRequirement(@NotNull String blockType, @NotNull String rank) {
         blockRankRequirements.put(blockType, rank);
+        markDirty();
     }
 
     /**
@@ -540,6 +656,7 @@ public class Mine {
      */
     public void clearBlockRankRequirements() {
         blockRankRequirements.clear();
+        markDirty();
     }
 
     public int getTotalBlocks() {
@@ -547,17 +664,52 @@ public class Mine {
     }
 
     public int getRemainingBlocks() {
-        return remainingBlocks;
+        return remainingBlocks.get();
     }
 
     public void setRemainingBlocks(int remainingBlocks) {
-        this.remainingBlocks = remainingBlocks;
+        this.remainingBlocks.set(remainingBlocks);
     }
 
-    public void decrementRemainingBlocks() {
-        if (remainingBlocks > 0) {
-            remainingBlocks--;
-        }
+    /**
+     * Blocs restants juste après le dernier reset : la mine est intacte tant qu'elle en a au moins autant.
+     */
+    public int getResetBaseline() {
+        return resetBaseline;
+    }
+
+    /**
+     * Décrémente le compteur de blocs restants (sans passer sous 0).
+     *
+     * @return le nombre de blocs restants après décrément
+     */
+    public int decrementRemainingBlocks() {
+        return remainingBlocks.updateAndGet(v -> v > 0 ? v - 1 : 0);
+    }
+
+    /**
+     * Ajoute des blocs restants (régénération), sans dépasser le total.
+     */
+    public int addRemainingBlocks(int count) {
+        return remainingBlocks.updateAndGet(v -> Math.min(totalBlocks, v + count));
+    }
+
+    /**
+     * Marque un reset comme demandé. Retourne false s'il l'était déjà (debounce).
+     */
+    public boolean markResetPending() {
+        return resetPending.compareAndSet(false, true);
+    }
+
+    /**
+     * Libère la demande de reset (reset terminé, y compris en échec).
+     */
+    public void clearResetPending() {
+        resetPending.set(false);
+    }
+
+    public boolean isResetPending() {
+        return resetPending.get();
     }
 
     public long getLastResetTime() {
@@ -566,6 +718,7 @@ public class Mine {
 
     public void setLastResetTime(long lastResetTime) {
         this.lastResetTime = lastResetTime;
+        markDirty();
     }
 
     public boolean isAutoReset() {
@@ -574,6 +727,7 @@ public class Mine {
 
     public void setAutoReset(boolean autoReset) {
         this.autoReset = autoReset;
+        markDirty();
     }
 
     public int getResetIntervalMinutes() {
@@ -582,6 +736,113 @@ public class Mine {
 
     public void setResetIntervalMinutes(int resetIntervalMinutes) {
         this.resetIntervalMinutes = resetIntervalMinutes;
+        markDirty();
+    }
+
+    // === Snapshot Reset ===
+
+    public boolean isSnapshotReset() {
+        return snapshotReset;
+    }
+
+    public void setSnapshotReset(boolean snapshotReset) {
+        this.snapshotReset = snapshotReset;
+        markDirty();
+    }
+
+    // === Block Regeneration ===
+
+    /**
+     * Mode régénération : chaque bloc cassé est reposé après getRegenDelaySeconds(),
+     * au lieu d'attendre le seuil de reset ou le timer.
+     */
+    public boolean isRegenMode() {
+        return regenDelaySeconds > 0;
+    }
+
+    public int getRegenDelaySeconds() {
+        return regenDelaySeconds;
+    }
+
+    public void setRegenDelaySeconds(int regenDelaySeconds) {
+        this.regenDelaySeconds = Math.max(0, regenDelaySeconds);
+        markDirty();
+    }
+
+    // === Live Composition ===
+
+    /**
+     * Blocs restants par type, tenus à jour depuis le dernier fill (sans scan du monde).
+     * @return null si la mine n'a pas été remplie depuis le démarrage ou depuis un changement de forme
+     */
+    @Nullable
+    public Map<String, Integer> getLiveComposition() {
+        BlockHistogram h = histogram;
+        return h != null ? h.totals() : null;
+    }
+
+    /**
+     * Blocs restants par type pour une couche (0 = bas), ou null si inconnu.
+     */
+    @Nullable
+    public Map<String, Integer> getLiveCompositionForLayer(int layer) {
+        BlockHistogram h = histogram;
+        return h != null ? h.layer(layer) : null;
+    }
+
+    /**
+     * Nombre restant d'un type de bloc, ou -1 si inconnu (voir getLiveComposition).
+     */
+    public int getLiveRemaining(@NotNull String blockType) {
+        BlockHistogram h = histogram;
+        return h != null ? h.remaining(blockType) : -1;
+    }
+
+    /**
+     * Retire un bloc cassé de la composition vivante.
+     */
+    public void countBroken(@NotNull String blockType, int y) {
+        BlockHistogram h = histogram;
+        if (h != null) {
+            h.decrement(blockType, y);
+        }
+    }
+
+    @Nullable
+    BlockHistogram getHistogram() {
+        return histogram;
+    }
+
+    void setHistogram(@Nullable BlockHistogram histogram) {
+        this.histogram = histogram;
+    }
+
+    /**
+     * Ajoute des blocs reposés (reset différentiel, régénération) à la composition vivante.
+     */
+    void countRestored(@NotNull List<int[]> positions, @NotNull List<String> blockTypes) {
+        BlockHistogram h = histogram;
+        if (h == null) return; // Inconnue depuis le démarrage : attend un fill complet
+
+        h = h.withTypes(new HashSet<>(blockTypes));
+        histogram = h;
+        for (int i = 0; i < positions.size(); i++) {
+            h.increment(blockTypes.get(i), positions.get(i)[1]);
+        }
+    }
+
+    /**
+     * Variante primitive pour la régénération : positions en clés ChunkOrder, types en indices du plan.
+     */
+    void countRestored(@NotNull FillPlan plan, @NotNull long[] keys, @NotNull short[] types, int count) {
+        BlockHistogram h = histogram;
+        if (h == null) return;
+
+        h = h.withTypes(Arrays.asList(plan.palette()));
+        histogram = h;
+        for (int i = 0; i < count; i++) {
+            h.increment(plan.blockType(types[i]), ChunkOrder.keyY(keys[i]));
+        }
     }
 
     // === Utility Methods ===
@@ -604,53 +865,16 @@ public class Mine {
     }
 
     /**
-     * Recalcule le nombre total de blocs dans la mine.
-     * Utilise une grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée.
-     *
-     * Pour un rayon R, la grille va de -R à +R (soit 2R+1 positions).
-     * halfW = halfH = R
-     * radiusAdjust = 0.40 (pour avoir 13 blocs au bord quand R=50)
-     * Condition d'inclusion: (x²/(halfW+adj)²) + (z²/(halfH+adj)²) < 1
+     * Recalcule le nombre total de blocs dans la mine, d'après sa géométrie (seule source de vérité :
+     * coins arrondis par Math.floor, empreinte du cylindre x hauteur).
      */
     private void recalculateTotalBlocks() {
-        // Cylindre prioritaire
-        if (isCylindrical()) {
-            // Grille (2*radius+1) x (2*radius+1), de -radius à +radius
-            int halfW = radius;
-            int halfH = radius;
-            double rX = halfW + this.radiusAdjust;
-            double rZ = halfH + radiusAdjust;
-            double rXSq = rX * rX;
-            double rZSq = rZ * rZ;
-
-            int count = 0;
-            for (int dz = -halfH; dz <= halfH; dz++) {
-                for (int dx = -halfW; dx <= halfW; dx++) {
-                    // Formule de l'ellipse: (x²/rX²) + (z²/rZ²) < 1
-                    double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                    if (distSq < 1.0) {
-                        count++;
-                    }
-                }
-            }
-            totalBlocks = count * height;
-            remainingBlocks = totalBlocks;
-            return;
-        }
-
-        // Cuboid fallback
-        if (corner1 == null || corner2 == null) {
-            totalBlocks = 0;
-            remainingBlocks = 0;
-            return;
-        }
-
-        int dx = Math.abs((int) corner2.x() - (int) corner1.x()) + 1;
-        int dy = Math.abs((int) corner2.y() - (int) corner1.y()) + 1;
-        int dz = Math.abs((int) corner2.z() - (int) corner1.z()) + 1;
+        rebuildGeometry();
 
-        totalBlocks = dx * dy * dz;
-        remainingBlocks = totalBlocks;
+        MineGeometry geo = geometry;
+        totalBlocks = geo != null ? geo.volume() : 0;
+        remainingBlocks.set(totalBlocks);
+        resetBaseline = totalBlocks;
     }
 
     /**
@@ -658,21 +882,7 @@ public class Mine {
      */
     public double getRemainingPercentage() {
         if (totalBlocks == 0) return 100.0;
-        return (remainingBlocks * 100.0) / totalBlocks;
-    }
-
-    /**
-     * Retourne le nom du monde de la mine, ou null si non configurée.
-     */
-    @Nullable
-    private String getMineWorld() {
-        if (isCylindrical() && center != null) {
-            return center.world();
-        }
-        if (corner1 != null) {
-            return corner1.world();
-        }
-        return null;
+        return (remainingBlocks.get() * 100.0) / totalBlocks;
     }
 
     /**
@@ -680,60 +890,18 @@ public class Mine {
      * Utilise une grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée.
      */
     public boolean contains(@NotNull ServerLocation location) {
-        if (!isConfigured()) return false;
-
-        // Vérifier que le joueur est dans le même monde que la mine
-        String mineWorld = getMineWorld();
-        if (mineWorld != null && !mineWorld.equals(location.world())) {
-            return false;
-        }
-
-        // Cylindre prioritaire
-        if (isCylindrical()) {
-            int cx = (int) Math.floor(center.x());
-            int cy = (int) Math.floor(center.y());
-            int cz = (int) Math.floor(center.z());
-            int lx = (int) Math.floor(location.x());
-            int ly = (int) Math.floor(location.y());
-            int lz = (int) Math.floor(location.z());
-
-            // Vérifier la hauteur (Y)
-            if (ly < cy || ly >= cy + height) {
-                return false;
-            }
-
-            // Grille (2*radius+1) x (2*radius+1), de -radius à +radius
-            int halfW = radius;
-            int halfH = radius;
-            double rX = halfW + this.radiusAdjust;
-            double rZ = halfH + this.radiusAdjust;
-            double rXSq = rX * rX;
-            double rZSq = rZ * rZ;
-
-            int dx = lx - cx;
-            int dz = lz - cz;
-
-            // Vérifier les bornes de la grille
-            if (dx < -halfW || dx > halfW || dz < -halfH || dz > halfH) {
-                return false;
-            }
-
-            // Formule de l'ellipse: (x²/rX²) + (z²/rZ²) < 1
-            double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-            return distSq < 1.0;
-        }
-
-        // Cuboid fallback
-        double minX = Math.min(corner1.x(), corner2.x());
-        double maxX = Math.max(corner1.x(), corner2.x());
-        double minY = Math.min(corner1.y(), corner2.y());
-        double maxY = Math.max(corner1.y(), corner2.y());
-        double minZ = Math.min(corner1.z(), corner2.z());
-        double maxZ = Math.max(corner1.z(), corner2.z());
+        return contains(location.world(),
+                (int) Math.floor(location.x()),
+                (int) Math.floor(location.y()),
+                (int) Math.floor(location.z()));
+    }
 
-        return location.x() >= minX && location.x() <= maxX
-                && location.y() >= minY && location.y() <= maxY
-                && location.z() >= minZ && location.z() <= maxZ;
+    /**
+     * Vérifie si un bloc est dans la mine, sans allocation (géométrie pré-calculée).
+     */
+    public boolean contains(@Nullable String world, int x, int y, int z) {
+        MineGeometry geo = geometry;
+        return geo != null && geo.contains(world, x, y, z);
     }
 
     /**
@@ -743,66 +911,143 @@ public class Mine {
      * Pour cuboid: coins étendus de margin dans toutes les directions.
      */
     public boolean containsVillage(@NotNull ServerLocation location) {
-        if (!isConfigured() || villageMargin <= 0) return false;
+        return containsVillage(location.world(),
+                (int) Math.floor(location.x()),
+                (int) Math.floor(location.y()),
+                (int) Math.floor(location.z()));
+    }
 
-        // Vérifier que le joueur est dans le même monde que la mine
-        String mineWorld = getMineWorld();
-        if (mineWorld != null && !mineWorld.equals(location.world())) {
-            return false;
-        }
+    /**
+     * Vérifie si un bloc est dans la zone village, sans allocation.
+     */
+    public boolean containsVillage(@Nullable String world, int x, int y, int z) {
+        MineGeometry geo = villageGeometry;
+        return geo != null && geo.contains(world, x, y, z);
+    }
 
-        if (isCylindrical()) {
-            int cx = (int) Math.floor(center.x());
-            int cy = (int) Math.floor(center.y());
-            int cz = (int) Math.floor(center.z());
-            int lx = (int) Math.floor(location.x());
-            int ly = (int) Math.floor(location.y());
-            int lz = (int) Math.floor(location.z());
-
-            // Vérifier la hauteur étendue (Y élargi de margin en bas et en haut)
-            if (ly < cy - villageMargin || ly >= cy + height + villageMargin) {
-                return false;
-            }
+    /**
+     * Géométrie pré-calculée de la mine, ou null si non configurée.
+     */
+    @Nullable
+    MineGeometry getGeometry() {
+        return geometry;
+    }
 
-            // Rayon étendu
-            int expandedRadius = radius + villageMargin;
-            int halfW = expandedRadius;
-            int halfH = expandedRadius;
-            double rX = halfW + this.radiusAdjust;
-            double rZ = halfH + this.radiusAdjust;
-            double rXSq = rX * rX;
-            double rZSq = rZ * rZ;
+    /**
+     * Empreinte du cylindre (colonnes par couche), ou null si le rayon n'est pas défini.
+     */
+    @Nullable
+    public CylinderFootprint getFootprint() {
+        return footprint;
+    }
 
-            int dx = lx - cx;
-            int dz = lz - cz;
+    /**
+     * Empreinte de la zone village (rayon + marge), ou null si pas de zone village.
+     */
+    @Nullable
+    public CylinderFootprint getVillageFootprint() {
+        return villageFootprint;
+    }
 
-            if (dx < -halfW || dx > halfW || dz < -halfH || dz > halfH) {
-                return false;
+    /**
+     * Reconstruit la géométrie pré-calculée (empreintes, mine et zone village).
+     */
+    private void rebuildGeometry() {
+        CylinderFootprint fp = null;
+        CylinderFootprint villageFp = null;
+        if (radius > 0) {
+            fp = footprint;
+            if (fp == null || !fp.matches(radius, radiusAdjust)) {
+                fp = CylinderFootprint.of(radius, radiusAdjust);
+            }
+            if (villageMargin > 0) {
+                villageFp = villageFootprint;
+                if (villageFp == null || !villageFp.matches(radius + villageMargin, radiusAdjust)) {
+                    villageFp = CylinderFootprint.of(radius + villageMargin, radiusAdjust);
+                }
             }
-
-            double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-            return distSq < 1.0;
         }
+        this.footprint = fp;
+        this.villageFootprint = villageFp;
+
+        MineGeometry geo = null;
+        MineGeometry village = null;
+        if (isConfigured()) {
+            if (isCylindrical()) {
+                geo = MineGeometry.cylinder(center, fp, height, 0);
+                if (villageFp != null) {
+                    village = MineGeometry.cylinder(center, villageFp, height, villageMargin);
+                }
+            } else {
+                geo = MineGeometry.cuboid(corner1, corner2, 0);
+                if (villageMargin > 0) {
+                    village = MineGeometry.cuboid(corner1, corner2, villageMargin);
+                }
+            }
+        }
+        // Les ordinaux changent avec la forme : nouveau bitset, reset complet requis
+        MineGeometry previous = this.geometry;
+        if (geo == null) {
+            this.brokenBlocks = null;
+            this.brokenTracked = false;
+        } else if (previous == null || !geo.sameLayout(previous) || brokenBlocks == null) {
+            this.brokenBlocks = new BrokenBlockSet(geo.volume());
+            this.brokenTracked = false;
+        }
+        if (geo == null || previous == null || !geo.sameLayout(previous)) {
+            this.histogram = null;
+        }
+
+        this.geometry = geo;
+        this.villageGeometry = village;
+    }
 
-        // Cuboid: coins étendus de margin dans toutes les directions
-        double minX = Math.min(corner1.x(), corner2.x()) - villageMargin;
-        double maxX = Math.max(corner1.x(), corner2.x()) + villageMargin;
-        double minY = Math.min(corner1.y(), corner2.y()) - villageMargin;
-        double maxY = Math.max(corner1.y(), corner2.y()) + villageMargin;
-        double minZ = Math.min(corner1.z(), corner2.z()) - villageMargin;
-        double maxZ = Math.max(corner1.z(), corner2.z()) + villageMargin;
+    // === Persistence ===
 
-        return location.x() >= minX && location.x() <= maxX
-                && location.y() >= minY && location.y() <= maxY
-                && location.z() >= minZ && location.z() <= maxZ;
+    /**
+     * Marque la mine comme modifiée : son fichier sera réécrit au prochain flush.
+     * Les setters le font eux-mêmes ; à appeler après une modification directe des maps
+     * (getComposition(), getDisabledBlocks()...).
+     */
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * Vérifie si la mine doit être réécrite (réglage modifié ou blocs restants changés).
+     */
+    public boolean needsSave() {
+        return dirty.get() || remainingBlocks.get() != savedRemainingBlocks;
+    }
+
+    /**
+     * Sérialise la mine pour le flush et la marque à jour. En cas d'échec d'écriture,
+     * l'appelant remet le flag avec markDirty().
+     */
+    @NotNull
+    MineData takeDataForSave() {
+        dirty.set(false);
+        savedRemainingBlocks = remainingBlocks.get();
+        return toData();
     }
 
     /**
      * Réinitialise l'état de la mine (pour après un reset).
      */
     public void resetState() {
-        remainingBlocks = totalBlocks;
+        resetState(totalBlocks);
+    }
+
+    /**
+     * Réinitialise l'état de la mine avec le nombre de blocs non-air effectivement replacés
+     * (reset depuis un snapshot contenant de l'air).
+     */
+    public void resetState(int solidBlocks) {
+        remainingBlocks.set(solidBlocks);
+        resetBaseline = solidBlocks;
         lastResetTime = System.currentTimeMillis();
+        resetPending.set(false);
+        markDirty();
     }
 
     /**
@@ -841,10 +1086,14 @@ public class Mine {
         }
         data.villageMargin = villageMargin;
         data.totalBlocks = totalBlocks;
-        data.remainingBlocks = remainingBlocks;
+        data.remainingBlocks = remainingBlocks.get();
+        data.resetBaseline = resetBaseline;
         data.lastResetTime = lastResetTime;
         data.autoReset = autoReset;
         data.resetIntervalMinutes = resetIntervalMinutes;
+        data.deltaReset = deltaReset;
+        data.snapshotReset = snapshotReset;
+        data.regenDelaySeconds = regenDelaySeconds;
         return data;
     }
 
@@ -890,10 +1139,19 @@ public class Mine {
         }
         mine.villageMargin = data.villageMargin;
         mine.totalBlocks = data.totalBlocks;
-        mine.remainingBlocks = data.remainingBlocks;
+        mine.remainingBlocks.set(data.remainingBlocks);
+        // Fichier antérieur au champ : le total (au pire un reset de trop, puis la valeur est écrite)
+        mine.resetBaseline = data.resetBaseline >= 0 ? data.resetBaseline : data.totalBlocks;
         mine.lastResetTime = data.lastResetTime;
         mine.autoReset = data.autoReset;
         mine.resetIntervalMinutes = data.resetIntervalMinutes;
+        mine.deltaReset = data.deltaReset;
+        mine.snapshotReset = data.snapshotReset;
+        mine.regenDelaySeconds = Math.max(0, data.regenDelaySeconds);
+        mine.rebuildGeometry();
+        // Fraîchement lue : identique à son fichier
+        mine.dirty.set(false);
+        mine.savedRemainingBlocks = mine.remainingBlocks.get();
         return mine;
     }
 
@@ -925,8 +1183,13 @@ public class Mine {
         public int villageMargin;
         public int totalBlocks;
         public int remainingBlocks;
+        // Blocs restants juste après le dernier reset (-1 : absent du fichier)
+        public int resetBaseline = -1;
         public long lastResetTime;
         public boolean autoReset;
         public int resetIntervalMinutes;
+        public boolean deltaReset;
+        public boolean snapshotReset;
+        public int regenDelaySeconds;
     }
 }
@@ -0,0 +1,393 @@
+package com.islandium.prison.mine;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Écrivain de blocs sur le thread monde, limité par un budget de temps par tick.
+ *
+ * Les travaux (fill, clear, reset différentiel) sont mis en file par monde. Une seule tranche
+ * est planifiée à la fois par monde : elle écrit des blocs dans world.execute jusqu'à épuiser
+ * le budget (PrisonConfig.getFillTickBudgetMicros), puis replanifie la suivante au tick d'après.
+ * Si le thread monde est chargé, les tranches arrivent plus tard au lieu de s'empiler.
+ * Un plafond global de blocs par seconde (PrisonConfig.getMaxFillBlocksPerSecond) est
+ * partagé entre tous les mondes (seau à jetons).
+ *
+ * Le temps d'écriture est aussi mesuré par chunk (voir ChunkOrder) : les sources écrivent
+ * chunk par chunk, ce qui permet de suivre le coût moyen d'un chunk.
+ */
+public class MineBlockWriter {
+
+    private static final long TICK_MILLIS = 50;
+    // Vérification du temps écoulé tous les N blocs (System.nanoTime n'est pas gratuit)
+    private static final int CHECK_INTERVAL = 64;
+
+    private final PrisonPlugin plugin;
+    private final ScheduledExecutorService scheduler;
+    private final Map<World, Lane> lanes = new ConcurrentHashMap<>();
+
+    // Statistiques
+    private final AtomicInteger queuedJobs = new AtomicInteger();
+    private final AtomicLong pendingBlocks = new AtomicLong();
+    private final AtomicLong totalWritten = new AtomicLong();
+    private volatile double blocksPerMs;
+    private volatile long lastSliceMicros;
+    private final AtomicLong chunksWritten = new AtomicLong();
+    private final AtomicLong chunkBlocksTotal = new AtomicLong();
+    private final AtomicLong chunkNanosTotal = new AtomicLong();
+    private volatile long maxChunkMicros;
+
+    // Seau à jetons du plafond global (protégé par this)
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    MineBlockWriter(@NotNull PrisonPlugin plugin, @NotNull ScheduledExecutorService scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Met en file l'écriture d'une source de blocs.
+     *
+     * @return le nombre de blocs posés, une fois la source épuisée
+     */
+    @NotNull
+    CompletableFuture<Integer> submit(@NotNull World world, @NotNull BlockStream stream, @NotNull String name) {
+        return submit(world, stream, name, Level.INFO);
+    }
+
+    /**
+     * @param logLevel niveau du log de fin de travail (FINE pour les petits travaux fréquents)
+     */
+    @NotNull
+    CompletableFuture<Integer> submit(@NotNull World world, @NotNull BlockStream stream, @NotNull String name,
+                                      @NotNull Level logLevel) {
+        Job job = new Job(stream, name, logLevel);
+        if (stream.total() <= 0) {
+            job.future.complete(0);
+            return job.future;
+        }
+
+        Lane lane = lanes.computeIfAbsent(world, Lane::new);
+        queuedJobs.incrementAndGet();
+        pendingBlocks.addAndGet(stream.total());
+        lane.jobs.add(job);
+        lane.wake(0);
+        return job.future;
+    }
+
+    // === Stats ===
+
+    /**
+     * Nombre de travaux en file ou en cours.
+     */
+    public int getQueueDepth() {
+        return queuedJobs.get();
+    }
+
+    /**
+     * Nombre de blocs restant à écrire, tous travaux confondus.
+     */
+    public long getPendingBlocks() {
+        return pendingBlocks.get();
+    }
+
+    /**
+     * Débit mesuré sur le thread monde (moyenne glissante, blocs par milliseconde de tranche).
+     */
+    public double getBlocksPerMs() {
+        return blocksPerMs;
+    }
+
+    /**
+     * Durée de la dernière tranche exécutée (microsecondes).
+     */
+    public long getLastSliceMicros() {
+        return lastSliceMicros;
+    }
+
+    public long getTotalWritten() {
+        return totalWritten.get();
+    }
+
+    /**
+     * Nombre de chunks entièrement écrits (un chunk visité deux fois compte deux fois).
+     */
+    public long getChunksWritten() {
+        return chunksWritten.get();
+    }
+
+    /**
+     * Temps moyen d'écriture d'un chunk sur le thread monde (microsecondes).
+     */
+    public double getAvgChunkMicros() {
+        long chunks = chunksWritten.get();
+        return chunks > 0 ? chunkNanosTotal.get() / 1000.0 / chunks : 0;
+    }
+
+    /**
+     * Nombre moyen de blocs écrits par chunk.
+     */
+    public double getAvgBlocksPerChunk() {
+        long chunks = chunksWritten.get();
+        return chunks > 0 ? (double) chunkBlocksTotal.get() / chunks : 0;
+    }
+
+    public long getMaxChunkMicros() {
+        return maxChunkMicros;
+    }
+
+    // === Slices ===
+
+    private final class Lane {
+        final World world;
+        final Queue<Job> jobs = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Lane(World world) {
+            this.world = world;
+        }
+
+        /**
+         * Planifie une tranche si aucune ne l'est déjà.
+         */
+        void wake(long delayMillis) {
+            if (jobs.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+            try {
+                scheduler.schedule(this::dispatch, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                stall(e);
+            }
+        }
+
+        /**
+         * Confie la tranche au thread monde (scheduler).
+         */
+        private void dispatch() {
+            try {
+                world.execute(this::runSlice);
+            } catch (Exception e) {
+                stall(e);
+            }
+        }
+
+        /**
+         * La tranche ne peut pas être planifiée (monde déchargé, arrêt) : échouer les travaux en file
+         * pour que leurs appelants (MineResetQueue, etc.) ne restent pas bloqués.
+         */
+        private void stall(Exception e) {
+            lanes.remove(world, this);
+            plugin.log(Level.WARNING, "[fill] Block writer lane stopped, failing " + jobs.size() + " jobs: " + e.getMessage());
+            Job job;
+            while ((job = jobs.poll()) != null) {
+                abandon(job, e);
+            }
+            scheduled.set(false);
+        }
+
+        /**
+         * Écrit des blocs jusqu'à épuiser le budget du tick (thread monde).
+         */
+        void runSlice() {
+            long budgetNanos = plugin.getConfig().getFillTickBudgetMicros() * 1000L;
+            long allowance = takeAllowance(plugin.getConfig().getMaxFillBlocksPerSecond());
+            long start = System.nanoTime();
+            int written = 0;
+
+            try {
+                Job job;
+                outer:
+                while ((job = jobs.peek()) != null) {
+                    BlockStream stream = job.stream;
+                    job.resumeChunkTimer(System.nanoTime());
+                    while (written < allowance && stream.next()) {
+                        job.write(world);
+                        written++;
+                        if ((written % CHECK_INTERVAL) == 0 && System.nanoTime() - start >= budgetNanos) {
+                            job.pauseChunkTimer(System.nanoTime());
+                            break outer;
+                        }
+                    }
+                    job.pauseChunkTimer(System.nanoTime());
+                    if (written >= allowance) {
+                        break; // Plafond global atteint, reprise au prochain tick
+                    }
+                    jobs.poll();
+                    queuedJobs.decrementAndGet();
+                    job.finish();
+                }
+            } catch (Exception e) {
+                // Abandonner le travail fautif pour ne pas bloquer la file
+                Job failedJob = jobs.poll();
+                if (failedJob != null) {
+                    abandon(failedJob, e);
+                }
+                plugin.log(Level.SEVERE, "[fill] Block writer slice failed: " + e.getMessage());
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                returnAllowance(allowance, written);
+                recordSlice(written, elapsed);
+                scheduled.set(false);
+                wake(TICK_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Retire un travail non terminé des statistiques et échoue son future.
+     */
+    private void abandon(@NotNull Job job, @NotNull Exception e) {
+        queuedJobs.decrementAndGet();
+        pendingBlocks.addAndGet(-(job.stream.total() - job.processed - job.failed));
+        job.future.completeExceptionally(e);
+    }
+
+    /**
+     * Nombre de blocs que la tranche peut écrire selon le plafond global (Long.MAX_VALUE si illimité).
+     * Le seau se remplit de maxPerSecond jetons par seconde, sans dépasser une seconde de réserve.
+     */
+    private synchronized long takeAllowance(int maxPerSecond) {
+        if (maxPerSecond <= 0) return Long.MAX_VALUE;
+
+        long now = System.nanoTime();
+        tokens = Math.min(maxPerSecond, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * maxPerSecond);
+        lastRefillNanos = now;
+
+        long allowance = (long) tokens;
+        tokens -= allowance;
+        return allowance;
+    }
+
+    /**
+     * Rend les jetons non consommés par la tranche.
+     */
+    private synchronized void returnAllowance(long allowance, int written) {
+        if (allowance == Long.MAX_VALUE) return;
+        tokens += allowance - written;
+    }
+
+    private void recordSlice(int written, long elapsedNanos) {
+        if (written <= 0) return;
+        pendingBlocks.addAndGet(-written);
+        totalWritten.addAndGet(written);
+        lastSliceMicros = elapsedNanos / 1000;
+
+        double rate = written / Math.max(elapsedNanos / 1_000_000.0, 0.001);
+        double previous = blocksPerMs;
+        blocksPerMs = previous <= 0 ? rate : previous * 0.8 + rate * 0.2;
+    }
+
+    private void recordChunk(int blocks, long nanos) {
+        chunksWritten.incrementAndGet();
+        chunkBlocksTotal.addAndGet(blocks);
+        chunkNanosTotal.addAndGet(nanos);
+        long micros = nanos / 1000;
+        if (micros > maxChunkMicros) {
+            maxChunkMicros = micros;
+        }
+    }
+
+    private final class Job {
+        final BlockStream stream;
+        final String name;
+        final Level logLevel;
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        final long startMillis = System.currentTimeMillis();
+        int processed;
+        int failed;
+
+        // Chronométrage du chunk courant (temps passé sur le thread monde uniquement)
+        long currentChunk = Long.MIN_VALUE;
+        int chunkBlocks;
+        long chunkNanos;
+        long segmentStart;
+        int chunks;
+        long jobChunkNanos;
+
+        Job(BlockStream stream, String name, Level logLevel) {
+            this.stream = stream;
+            this.name = name;
+            this.logLevel = logLevel;
+        }
+
+        void write(World world) {
+            int x = stream.x(), y = stream.y(), z = stream.z();
+
+            long chunk = ChunkOrder.chunkKey(x, z);
+            if (chunk != currentChunk) {
+                long now = System.nanoTime();
+                closeChunk(now);
+                currentChunk = chunk;
+                segmentStart = now;
+            }
+            chunkBlocks++;
+
+            try {
+                if (stream.isAir()) {
+                    world.breakBlock(x, y, z, 0);
+                } else {
+                    world.setBlock(x, y, z, stream.blockType());
+                }
+                processed++;
+            } catch (Exception e) {
+                if (!stream.isAir()) {
+                    try { world.setBlock(x, y, z, "stone"); } catch (Exception ignored) {}
+                }
+                failed++;
+            }
+        }
+
+        void resumeChunkTimer(long now) {
+            segmentStart = now;
+        }
+
+        void pauseChunkTimer(long now) {
+            chunkNanos += now - segmentStart;
+            segmentStart = now;
+        }
+
+        private void closeChunk(long now) {
+            if (currentChunk == Long.MIN_VALUE) {
+                chunkNanos = 0;
+                return;
+            }
+            chunkNanos += now - segmentStart;
+            recordChunk(chunkBlocks, chunkNanos);
+            chunks++;
+            jobChunkNanos += chunkNanos;
+            chunkBlocks = 0;
+            chunkNanos = 0;
+        }
+
+        void finish() {
+            // Dernier chunk (le chrono est déjà arrêté par pauseChunkTimer)
+            if (currentChunk != Long.MIN_VALUE) {
+                recordChunk(chunkBlocks, chunkNanos);
+                chunks++;
+                jobChunkNanos += chunkNanos;
+                currentChunk = Long.MIN_VALUE;
+            }
+            if (failed > 0) {
+                plugin.log(Level.WARNING, "[fill] " + name + ": " + failed + " blocks failed");
+            }
+            plugin.log(logLevel, "[fill] " + name + ": " + processed + " blocks in "
+                    + (System.currentTimeMillis() - startMillis) + " ms ("
+                    + String.format("%.1f", blocksPerMs) + " blocks/ms on world thread, "
+                    + chunks + " chunks, " + (chunks > 0 ? jobChunkNanos / 1000 / chunks : 0) + " us/chunk)");
+            future.complete(processed);
+        }
+    }
+}
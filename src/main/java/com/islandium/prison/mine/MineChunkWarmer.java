@@ -0,0 +1,131 @@
+package com.islandium.prison.mine;
+
+import com.hypixel.hytale.math.util.ChunkUtil;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Préchargement des chunks d'une mine avant son reset.
+ *
+ * Sans joueur à proximité, les chunks d'une mine peuvent être déchargés : les premières tranches
+ * du fill les chargeraient alors de façon synchrone sur le thread monde. Le warmer les demande
+ * en asynchrone dès le début de l'avertissement (ou du délai de téléportation) et les garde
+ * demandés tant que le bail de la mine court (re-demande périodique, l'API n'exposant pas
+ * d'épinglage), jusqu'à la fin du fill.
+ */
+final class MineChunkWarmer {
+
+    // Re-demande des chunks tant que le bail court (un chunk déchargé entre-temps est rechargé)
+    private static final long KEEP_ALIVE_SECONDS = 5;
+    // Attente maximale des chargements avant de lancer le fill quand même
+    private static final long MAX_WAIT_SECONDS = 5;
+
+    private final PrisonPlugin plugin;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    MineChunkWarmer(@NotNull PrisonPlugin plugin, @NotNull ScheduledExecutorService scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+    }
+
+    private final class Lease {
+        final String mineId;
+        final World world;
+        final long[] chunks;
+        final CompletableFuture<Void> loaded;
+        final ScheduledFuture<?> keepAlive;
+
+        Lease(String mineId, World world, long[] chunks) {
+            this.mineId = mineId;
+            this.world = world;
+            this.chunks = chunks;
+            this.loaded = request().completeOnTimeout(null, MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            this.keepAlive = scheduler.scheduleAtFixedRate(this::request, KEEP_ALIVE_SECONDS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Demande le chargement de tous les chunks (thread monde), complété quand tous sont chargés.
+         */
+        CompletableFuture<Void> request() {
+            long start = System.currentTimeMillis();
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            try {
+                world.execute(() -> {
+                    try {
+                        CompletableFuture<?>[] loads = new CompletableFuture<?>[chunks.length];
+                        for (int i = 0; i < chunks.length; i++) {
+                            int x = (int) (chunks[i] >> 32) << ChunkOrder.CHUNK_SHIFT;
+                            int z = (int) chunks[i] << ChunkOrder.CHUNK_SHIFT;
+                            loads[i] = world.getChunkAsync(ChunkUtil.indexChunkFromBlock(x, z));
+                        }
+                        CompletableFuture.allOf(loads).whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                plugin.log(Level.WARNING, "[warm] " + mineId + ": chunk load failed: " + error.getMessage());
+                            } else {
+                                plugin.log(Level.FINE, "[warm] " + mineId + ": " + chunks.length + " chunks ready in "
+                                        + (System.currentTimeMillis() - start) + " ms");
+                            }
+                            done.complete(null);
+                        });
+                    } catch (Exception e) {
+                        plugin.log(Level.WARNING, "[warm] " + mineId + ": " + e.getMessage());
+                        done.complete(null);
+                    }
+                });
+            } catch (Exception e) {
+                done.complete(null);
+            }
+            return done;
+        }
+    }
+
+    /**
+     * Ouvre (ou reprend) le bail des chunks d'une mine.
+     *
+     * @return complété quand les chunks sont chargés, ou après MAX_WAIT_SECONDS au plus
+     */
+    @NotNull
+    CompletableFuture<Void> warm(@NotNull Mine mine, @NotNull World world) {
+        MineGeometry geometry = mine.getGeometry();
+        if (geometry == null) return CompletableFuture.completedFuture(null);
+        String id = mine.getId().toLowerCase();
+        return leases.computeIfAbsent(id, k -> new Lease(mine.getId(), world, geometry.chunkColumns())).loaded;
+    }
+
+    /**
+     * Termine le bail d'une mine (fill terminé) : ses chunks peuvent de nouveau être déchargés.
+     */
+    void release(@NotNull String mineId) {
+        Lease lease = leases.remove(mineId.toLowerCase());
+        if (lease != null) {
+            lease.keepAlive.cancel(false);
+        }
+    }
+
+    void releaseAll() {
+        for (String mineId : leases.keySet()) {
+            release(mineId);
+        }
+    }
+
+    /**
+     * Nombre de chunks actuellement tenus chargés pour des resets.
+     */
+    int getLeasedChunkCount() {
+        int count = 0;
+        for (Lease lease : leases.values()) {
+            count += lease.chunks.length;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,242 @@
+package com.islandium.prison.mine;
+
+import com.islandium.core.api.location.ServerLocation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Géométrie pré-calculée d'une mine, en coordonnées de bloc entières.
+ * Immutable : Mine en reconstruit une à chaque changement de forme.
+ *
+ * Permet un test d'appartenance sans allocation ni calcul flottant :
+ * boîte englobante entière + étendue X par rangée Z pour les cylindres.
+ */
+final class MineGeometry {
+
+    // Nom du monde (interné : comparaison par référence en premier)
+    final String world;
+
+    final int minX, maxX;
+    final int minY, maxY; // bornes inclusives
+    final int minZ, maxZ;
+
+    // Cylindre : étendue X par rangée Z (index = z - minZ), null pour un cuboid.
+    // Une rangée vide a rowMinX > rowMaxX.
+    private final int[] rowMinX;
+    private final int[] rowMaxX;
+    // Cylindre : ordinal de la première colonne de chaque rangée
+    private final int[] rowStart;
+
+    // Nombre de colonnes par couche et de couches (ordinal = layer * columnsPerLayer + colonne)
+    final int columnsPerLayer;
+    final int layers;
+
+    private MineGeometry(@NotNull String world, int minX, int maxX, int minY, int maxY, int minZ, int maxZ,
+                         @Nullable int[] rowMinX, @Nullable int[] rowMaxX) {
+        this.world = world.intern();
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.minZ = minZ;
+        this.maxZ = maxZ;
+        this.rowMinX = rowMinX;
+        this.rowMaxX = rowMaxX;
+        this.layers = maxY - minY + 1;
+
+        if (rowMinX != null) {
+            this.rowStart = new int[rowMinX.length];
+            int count = 0;
+            for (int row = 0; row < rowMinX.length; row++) {
+                rowStart[row] = count;
+                count += Math.max(0, rowMaxX[row] - rowMinX[row] + 1);
+            }
+            this.columnsPerLayer = count;
+        } else {
+            this.rowStart = null;
+            this.columnsPerLayer = (maxX - minX + 1) * (maxZ - minZ + 1);
+        }
+    }
+
+    /**
+     * Construit la géométrie d'un cylindre à partir de son empreinte.
+     *
+     * @param margin extension verticale en blocs (zone village, l'empreinte est déjà élargie), 0 pour la mine
+     */
+    @Nullable
+    static MineGeometry cylinder(@NotNull ServerLocation center, @NotNull CylinderFootprint footprint,
+                                 int height, int margin) {
+        if (center.world() == null) return null;
+
+        int cx = (int) Math.floor(center.x());
+        int cy = (int) Math.floor(center.y());
+        int cz = (int) Math.floor(center.z());
+        int r = footprint.getRadius();
+
+        int[] rowMinX = new int[2 * r + 1];
+        int[] rowMaxX = new int[2 * r + 1];
+        for (int dz = -r; dz <= r; dz++) {
+            int half = footprint.getRowHalf(dz);
+            rowMinX[dz + r] = cx - half;
+            rowMaxX[dz + r] = cx + half;
+        }
+
+        return new MineGeometry(center.world(),
+                cx - r, cx + r,
+                cy - margin, cy + height + margin - 1,
+                cz - r, cz + r,
+                rowMinX, rowMaxX);
+    }
+
+    /**
+     * Construit la géométrie d'un cuboid (mêmes bornes que le fill).
+     *
+     * @param margin extension en blocs (zone village), 0 pour la mine elle-même
+     */
+    @Nullable
+    static MineGeometry cuboid(@NotNull ServerLocation c1, @NotNull ServerLocation c2, int margin) {
+        if (c1.world() == null) return null;
+        return new MineGeometry(c1.world(),
+                (int) Math.floor(Math.min(c1.x(), c2.x())) - margin,
+                (int) Math.floor(Math.max(c1.x(), c2.x())) + margin,
+                (int) Math.floor(Math.min(c1.y(), c2.y())) - margin,
+                (int) Math.floor(Math.max(c1.y(), c2.y())) + margin,
+                (int) Math.floor(Math.min(c1.z(), c2.z())) - margin,
+                (int) Math.floor(Math.max(c1.z(), c2.z())) + margin,
+                null, null);
+    }
+
+    boolean isCylinder() {
+        return rowMinX != null;
+    }
+
+    /**
+     * Vérifie si un bloc est dans la géométrie.
+     */
+    boolean contains(@Nullable String world, int x, int y, int z) {
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+            return false;
+        }
+        if (this.world != world && !this.world.equals(world)) {
+            return false;
+        }
+        if (rowMinX == null) {
+            return true;
+        }
+        int row = z - minZ;
+        return x >= rowMinX[row] && x <= rowMaxX[row];
+    }
+
+    /**
+     * Première colonne X de la rangée z (bornes de la boîte pour un cuboid).
+     */
+    int rowMinX(int z) {
+        return rowMinX != null ? rowMinX[z - minZ] : minX;
+    }
+
+    /**
+     * Dernière colonne X de la rangée z ; inférieure à rowMinX si la rangée est vide.
+     */
+    int rowMaxX(int z) {
+        return rowMaxX != null ? rowMaxX[z - minZ] : maxX;
+    }
+
+    /**
+     * Colonnes de chunk touchées par l'empreinte (clés ChunkOrder.chunkKey, sans doublon).
+     */
+    @NotNull
+    long[] chunkColumns() {
+        long[] keys = new long[16];
+        int count = 0;
+        for (int z = minZ; z <= maxZ; z++) {
+            int x0 = rowMinX(z), x1 = rowMaxX(z);
+            if (x0 > x1) continue;
+            for (int cx = x0 >> ChunkOrder.CHUNK_SHIFT; cx <= x1 >> ChunkOrder.CHUNK_SHIFT; cx++) {
+                if (count == keys.length) keys = Arrays.copyOf(keys, count * 2);
+                keys[count++] = ChunkOrder.chunkKey(cx << ChunkOrder.CHUNK_SHIFT, z);
+            }
+        }
+        long[] sorted = Arrays.copyOf(keys, count);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[unique++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    /**
+     * Vérifie si deux géométries couvrent exactement les mêmes positions (mêmes ordinaux).
+     */
+    boolean sameLayout(@NotNull MineGeometry other) {
+        return world.equals(other.world)
+                && minX == other.minX && maxX == other.maxX
+                && minY == other.minY && maxY == other.maxY
+                && minZ == other.minZ && maxZ == other.maxZ
+                && Arrays.equals(rowMinX, other.rowMinX)
+                && Arrays.equals(rowMaxX, other.rowMaxX);
+    }
+
+    /**
+     * Forme relative (indépendante de la position) : dimensions puis étendue X de chaque rangée
+     * par rapport à minX. Deux géométries de même forme ont les mêmes ordinaux à translation près.
+     */
+    @NotNull
+    int[] shape() {
+        int rows = maxZ - minZ + 1;
+        int[] shape = new int[3 + 2 * rows];
+        shape[0] = maxX - minX;
+        shape[1] = maxY - minY;
+        shape[2] = maxZ - minZ;
+        for (int row = 0; row < rows; row++) {
+            shape[3 + 2 * row] = rowMinX(minZ + row) - minX;
+            shape[4 + 2 * row] = rowMaxX(minZ + row) - minX;
+        }
+        return shape;
+    }
+
+    /**
+     * Nombre total de positions (colonnes x couches).
+     */
+    int volume() {
+        return columnsPerLayer * layers;
+    }
+
+    /**
+     * Ordinal d'un bloc contenu dans la géométrie (à vérifier avant avec contains).
+     * Cylindre : même ordre de colonnes que CylinderFootprint.ordinal.
+     */
+    int ordinal(int x, int y, int z) {
+        int row = z - minZ;
+        int column = rowStart != null
+                ? rowStart[row] + (x - rowMinX[row])
+                : row * (maxX - minX + 1) + (x - minX);
+        return (y - minY) * columnsPerLayer + column;
+    }
+
+    /**
+     * Position {x, y, z} d'un ordinal (inverse de ordinal).
+     */
+    int[] position(int ordinal) {
+        int layer = ordinal / columnsPerLayer;
+        int column = ordinal - layer * columnsPerLayer;
+        int y = minY + layer;
+
+        if (rowStart == null) {
+            int widthX = maxX - minX + 1;
+            return new int[]{minX + column % widthX, y, minZ + column / widthX};
+        }
+
+        // Recherche de la rangée (rowStart croissant)
+        int lo = 0, hi = rowStart.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (rowStart[mid] <= column) lo = mid; else hi = mid - 1;
+        }
+        // Sauter les rangées vides qui partagent le même rowStart
+        while (lo < rowStart.length - 1 && rowMaxX[lo] < rowMinX[lo]) lo++;
+        return new int[]{rowMinX[lo] + (column - rowStart[lo]), y, minZ + lo};
+    }
+}
@@ -15,10 +15,16 @@ import com.hypixel.hytale.server.core.universe.world.World;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
 
 /**
@@ -27,48 +33,111 @@ import java.util.logging.Level;
 public class MineManager {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String MINE_EXTENSION = ".json";
+    // Regroupement des sauvegardes : une écriture au plus toutes les FLUSH_DELAY_MILLIS
+    private static final long FLUSH_DELAY_MILLIS = 2000;
 
     private final PrisonPlugin plugin;
-    private final Path minesFile;
+    // Un fichier par mine (mods/prison/mines/<id>.json)
+    private final Path minesDir;
+    // Ancien fichier unique, migré au premier chargement
+    private final Path legacyMinesFile;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
     private final Map<String, Mine> mines = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler;
 
     // Reset tasks
     private final Map<String, ScheduledFuture<?>> resetTasks = new ConcurrentHashMap<>();
 
+    // Index spatial (reconstruit à chaque changement de mine, lu sans verrou)
+    private volatile MineSpatialIndex spatialIndex = MineSpatialIndex.EMPTY;
+
+    // Écriture des blocs sur le thread monde (budget par tick)
+    private final MineBlockWriter blockWriter;
+    // File globale des resets automatiques (concurrence, priorité, décalage)
+    private final MineResetQueue resetQueue;
+    // Gabarits de fill pré-générés en arrière-plan
+    private final FillTemplateCache fillTemplates;
+    // Snapshots binaires des mines (mods/prison/snapshots/)
+    private final MineSnapshotStore snapshots;
+    // Scan des blocs par tranches (thread monde) puis agrégation hors thread
+    private final MineScanner scanner;
+    // Régénération bloc par bloc (mines en mode régénération)
+    private final MineRegenerator regenerator;
+    // Chunks des mines tenus chargés de l'avertissement à la fin du fill
+    private final MineChunkWarmer chunkWarmer;
+
     public MineManager(@NotNull PrisonPlugin plugin) {
         this.plugin = plugin;
-        this.minesFile = plugin.getDataFolder().toPath().resolve("mines.json");
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "Prison-MineReset");
-            t.setDaemon(true);
-            return t;
-        });
+        this.minesDir = plugin.getDataFolder().toPath().resolve("mines");
+        this.legacyMinesFile = plugin.getDataFolder().toPath().resolve("mines.json");
+        // Couloir série du timer du plugin (les composants des mines supposent un seul thread)
+        this.scheduler = plugin.getTimerService().lane("MineReset");
+        this.blockWriter = new MineBlockWriter(plugin, scheduler);
+        this.resetQueue = new MineResetQueue(plugin, this, scheduler);
+        this.fillTemplates = new FillTemplateCache(plugin);
+        this.snapshots = new MineSnapshotStore(plugin);
+        this.scanner = new MineScanner(plugin, scheduler);
+        this.regenerator = new MineRegenerator(plugin, this, blockWriter, scheduler);
+        this.chunkWarmer = new MineChunkWarmer(plugin, scheduler);
     }
 
     /**
-     * Charge toutes les mines depuis le fichier.
+     * Charge toutes les mines depuis leurs fichiers (migre l'ancien mines.json s'il est seul présent).
      */
     public void loadAll() {
         try {
-            if (Files.exists(minesFile)) {
-                String content = Files.readString(minesFile);
-                Type type = new TypeToken<List<Mine.MineData>>() {}.getType();
-                List<Mine.MineData> dataList = GSON.fromJson(content, type);
-
-                if (dataList != null) {
-                    for (Mine.MineData data : dataList) {
-                        Mine mine = Mine.fromData(data);
-                        mines.put(mine.getId().toLowerCase(), mine);
-                        plugin.log(Level.INFO, "[MineReset] Loaded mine " + mine.getId() + ": autoReset=" + mine.isAutoReset() + " configured=" + mine.isConfigured() + " lastResetTime=" + mine.getLastResetTime() + " resetIntervalMin=" + mine.getResetIntervalMinutes());
-                        scheduleReset(mine);
+            List<Mine.MineData> dataList = new ArrayList<>();
+            // Fichiers nommés par l'ancien encodage (id -> fichier), réécrits sous leur nouveau nom
+            Map<String, Path> misnamed = new HashMap<>();
+            boolean legacy = false;
+            if (Files.isDirectory(minesDir)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(minesDir, "*" + MINE_EXTENSION)) {
+                    for (Path file : files) {
+                        try {
+                            Mine.MineData data = GSON.fromJson(Files.readString(file), Mine.MineData.class);
+                            if (data != null && data.id != null) {
+                                dataList.add(data);
+                                if (!file.equals(mineFile(data.id))) {
+                                    misnamed.put(data.id.toLowerCase(), file);
+                                }
+                            }
+                        } catch (Exception e) {
+                            plugin.log(Level.SEVERE, "Failed to load mine file " + file.getFileName() + ": " + e.getMessage());
+                        }
                     }
                 }
+            } else if (Files.exists(legacyMinesFile)) {
+                Type type = new TypeToken<List<Mine.MineData>>() {}.getType();
+                List<Mine.MineData> legacyList = GSON.fromJson(Files.readString(legacyMinesFile), type);
+                if (legacyList != null) {
+                    dataList.addAll(legacyList);
+                }
+                legacy = true;
+            }
 
-                plugin.log(Level.INFO, "Loaded " + mines.size() + " mines");
-            } else {
+            if (dataList.isEmpty()) {
                 // Pas de mines par défaut - l'admin les crée manuellement
                 plugin.log(Level.INFO, "No mines found. Use /pa createmine <name> to create mines.");
+                return;
+            }
+
+            for (Mine.MineData data : dataList) {
+                Mine mine = Mine.fromData(data);
+                mines.put(mine.getId().toLowerCase(), mine);
+                plugin.log(Level.INFO, "[MineReset] Loaded mine " + mine.getId() + ": autoReset=" + mine.isAutoReset() + " configured=" + mine.isConfigured() + " lastResetTime=" + mine.getLastResetTime() + " resetIntervalMin=" + mine.getResetIntervalMinutes());
+                scheduleReset(mine);
+                fillTemplates.prepare(mine);
+            }
+
+            rebuildSpatialIndex();
+            plugin.log(Level.INFO, "Loaded " + mines.size() + " mines");
+
+            if (legacy) {
+                migrateLegacyFile();
+            }
+            if (!misnamed.isEmpty()) {
+                renameMineFiles(misnamed);
             }
         } catch (Exception e) {
             plugin.log(Level.SEVERE, "Failed to load mines: " + e.getMessage());
@@ -76,22 +145,148 @@ public class MineManager {
     }
 
     /**
-     * Sauvegarde toutes les mines.
+     * Écrit un fichier par mine puis met l'ancien mines.json de côté (mines.json.migrated).
+     */
+    private void migrateLegacyFile() throws IOException {
+        for (Mine mine : mines.values()) {
+            mine.markDirty();
+        }
+        if (!flush()) {
+            plugin.log(Level.WARNING, "Mine migration incomplete, keeping " + legacyMinesFile.getFileName());
+            return;
+        }
+        Files.move(legacyMinesFile, legacyMinesFile.resolveSibling(legacyMinesFile.getFileName() + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+        plugin.log(Level.INFO, "Migrated " + mines.size() + " mines to " + minesDir);
+    }
+
+    /**
+     * Réécrit les fichiers nommés par l'ancien encodage (caractères remplacés par "_") sous leur
+     * nom actuel, puis supprime l'ancien fichier.
+     */
+    private void renameMineFiles(@NotNull Map<String, Path> misnamed) throws IOException {
+        for (String id : misnamed.keySet()) {
+            Mine mine = mines.get(id);
+            if (mine != null) {
+                mine.markDirty();
+            }
+        }
+        if (!flush()) {
+            plugin.log(Level.WARNING, "Mine file rename incomplete, keeping old files");
+            return;
+        }
+        for (Path file : misnamed.values()) {
+            Files.deleteIfExists(file);
+        }
+        plugin.log(Level.INFO, "Renamed " + misnamed.size() + " mine file(s)");
+    }
+
+    /**
+     * Programme l'écriture des mines modifiées, regroupée en arrière-plan (FLUSH_DELAY_MILLIS).
+     * Les mines inchangées depuis leur dernière écriture ne sont pas sérialisées.
      */
     public void saveAll() {
-        try {
-            List<Mine.MineData> dataList = new ArrayList<>();
-            for (Mine mine : mines.values()) {
-                dataList.add(mine.toData());
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::runScheduledFlush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Arrêt en cours : shutdown() écrit les mines modifiées
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    private void runScheduledFlush() {
+        flushScheduled.set(false);
+        saveNow();
+    }
+
+    /**
+     * Écrit tout de suite les mines modifiées (/pa save), sans attendre le flush programmé.
+     *
+     * @return false si au moins une écriture a échoué
+     */
+    public boolean saveNow() {
+        for (Mine mine : mines.values()) {
+            if (mine.needsSave()) {
+                // Composition ou forme peut-être modifiée : régénère le gabarit s'il est périmé
+                fillTemplates.prepare(mine);
+            }
+        }
+        return flush();
+    }
+
+    /**
+     * Écrit immédiatement le fichier de chaque mine modifiée.
+     *
+     * @return false si au moins une écriture a échoué (la mine reste à écrire)
+     */
+    public synchronized boolean flush() {
+        boolean ok = true;
+        int written = 0;
+        for (Mine mine : mines.values()) {
+            if (!mine.needsSave()) continue;
+            try {
+                writeMineFile(mine.getId(), mine.takeDataForSave());
+                written++;
+            } catch (Exception e) {
+                mine.markDirty();
+                ok = false;
+                plugin.log(Level.SEVERE, "Failed to save mine " + mine.getId() + ": " + e.getMessage());
             }
+        }
+        if (written > 0) {
+            plugin.log(Level.FINE, "Saved " + written + " mine(s)");
+        }
+        return ok;
+    }
 
-            Files.createDirectories(minesFile.getParent());
-            Files.writeString(minesFile, GSON.toJson(dataList));
+    /**
+     * Écrit le fichier d'une mine (fichier temporaire puis renommage, jamais de fichier à moitié écrit).
+     */
+    private void writeMineFile(@NotNull String id, @NotNull Mine.MineData data) throws IOException {
+        Files.createDirectories(minesDir);
+        Path file = mineFile(id);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, GSON.toJson(data));
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private synchronized void deleteMineFile(@NotNull String id) {
+        try {
+            Files.deleteIfExists(mineFile(id));
         } catch (IOException e) {
-            plugin.log(Level.SEVERE, "Failed to save mines: " + e.getMessage());
+            plugin.log(Level.SEVERE, "Failed to delete mine file " + id + ": " + e.getMessage());
         }
     }
 
+    private Path mineFile(String id) {
+        return minesDir.resolve(fileName(id) + MINE_EXTENSION);
+    }
+
+    /**
+     * Nom de fichier d'une mine (JSON, snapshot) : id en minuscules, octets UTF-8 hors [a-z0-9_-]
+     * encodés en %XX. L'encodage est réversible, deux ids distincts n'ont donc jamais le même
+     * fichier, et le nom ne contient ni séparateur ni "..".
+     */
+    @NotNull
+    static String fileName(@NotNull String id) {
+        StringBuilder name = new StringBuilder(id.length());
+        for (byte b : id.toLowerCase().getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-') {
+                name.append((char) c);
+            } else {
+                name.append(String.format("%%%02X", c));
+            }
+        }
+        return name.toString();
+    }
+
     // === Mine CRUD ===
 
     @Nullable
@@ -105,7 +300,9 @@ public class MineManager {
     }
 
     public void addMine(@NotNull Mine mine) {
+        mine.markDirty();
         mines.put(mine.getId().toLowerCase(), mine);
+        rebuildSpatialIndex();
         scheduleReset(mine);
         saveAll();
     }
@@ -113,19 +310,60 @@ public class MineManager {
     public void removeMine(@NotNull String id) {
         Mine mine = mines.remove(id.toLowerCase());
         if (mine != null) {
+            rebuildSpatialIndex();
             cancelResetTask(id);
-            saveAll();
+            resetQueue.remove(id);
+            fillTemplates.remove(id);
+            snapshots.evict(id);
+            regenerator.remove(id);
+            chunkWarmer.release(id);
+            deleteMineFile(id);
         }
     }
 
     /**
-     * Sauvegarde une mine spécifique (et toutes les autres).
+     * Enregistre une mine et programme l'écriture de son fichier.
      */
     public void saveMine(@NotNull Mine mine) {
+        mine.markDirty();
         mines.put(mine.getId().toLowerCase(), mine);
+        rebuildSpatialIndex();
         saveAll();
     }
 
+    // === Mine Lookup ===
+
+    /**
+     * Trouve la mine contenant une position, via l'index spatial.
+     */
+    @Nullable
+    public Mine findMineAt(@NotNull ServerLocation location) {
+        return findMineAt(location.world(),
+                (int) Math.floor(location.x()),
+                (int) Math.floor(location.y()),
+                (int) Math.floor(location.z()));
+    }
+
+    /**
+     * Trouve la mine contenant un bloc, sans allocation.
+     */
+    @Nullable
+    public Mine findMineAt(@Nullable String world, int x, int y, int z) {
+        for (Mine mine : spatialIndex.candidates(world, x, z)) {
+            if (mine.contains(world, x, y, z)) {
+                return mine;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reconstruit l'index spatial après un changement de géométrie.
+     */
+    public void rebuildSpatialIndex() {
+        spatialIndex = MineSpatialIndex.build(mines.values());
+    }
+
     // === Mine Access ===
 
     /**
@@ -237,7 +475,7 @@ public class MineManager {
         plugin.log(Level.INFO, "[MineReset] scheduleReset(" + mine.getId() + ") interval=" + intervalMinutes + "min, initialDelay=" + initialDelaySeconds + "s, lastResetTime=" + mine.getLastResetTime() + ", elapsed=" + (elapsed / 1000) + "s");
 
         ScheduledFuture<?> task = scheduler.scheduleAtFixedRate(
-                () -> checkAndResetMine(mine),
+                () -> onResetTimer(mine),
                 initialDelaySeconds,
                 intervalSeconds,
                 TimeUnit.SECONDS
@@ -254,12 +492,54 @@ public class MineManager {
     }
 
     /**
-     * Vérifie et reset une mine.
-     * Le reset se déclenche toujours quand le timer expire (scheduleAtFixedRate).
+     * Appelé par le timer (scheduleAtFixedRate).
+     * Une mine intacte depuis son dernier reset (blocs restants au niveau d'après reset) n'est pas régénérée.
      */
-    private void checkAndResetMine(@NotNull Mine mine) {
+    private void onResetTimer(@NotNull Mine mine) {
+        // En mode régénération, la mine se reconstitue bloc par bloc : pas de reset périodique
+        if (mine.isRegenMode()) return;
+        if (mine.getRemainingBlocks() >= mine.getResetBaseline()) {
+            plugin.log(Level.FINE, "[MineReset] Timer for " + mine.getId() + " skipped: no block mined since last reset");
+            return;
+        }
+        if (!mine.markResetPending()) {
+            return; // Reset déjà en cours (seuil franchi)
+        }
+        resetQueue.enqueue(mine);
+    }
+
+    /**
+     * Appelé à chaque bloc cassé dans une mine, avec le nombre de blocs restants.
+     * Déclenche un reset quand le pourcentage restant passe sous PrisonConfig.getAutoResetPercentage().
+     * Le reset n'est demandé qu'une fois jusqu'à ce qu'il ait lieu (debounce via Mine.markResetPending).
+     */
+    public void onBlockBroken(@NotNull Mine mine, int remaining) {
+        // En mode régénération, la mine se reconstitue bloc par bloc : pas de reset au seuil
+        if (mine.isRegenMode()) return;
+
+        int threshold = plugin.getConfig().getAutoResetPercentage();
+        if (threshold <= 0 || !mine.isAutoReset()) return;
+
+        int total = mine.getTotalBlocks();
+        if (total <= 0 || (long) remaining * 100 >= (long) total * threshold) return;
+
+        if (mine.markResetPending()) {
+            plugin.log(Level.INFO, "[MineReset] Mine " + mine.getId() + " below " + threshold + "% (" + remaining + "/" + total + "), reset queued");
+            resetQueue.enqueue(mine);
+        }
+    }
+
+    /**
+     * Avertit les joueurs puis reset la mine (appelé par MineResetQueue).
+     *
+     * @return complété à la fin du fill
+     */
+    CompletableFuture<Integer> checkAndResetMine(@NotNull Mine mine) {
         plugin.log(Level.INFO, "[MineReset] checkAndResetMine(" + mine.getId() + ") TRIGGERED! autoReset=" + mine.isAutoReset() + " configured=" + mine.isConfigured());
 
+        // Précharger les chunks pendant l'avertissement
+        warmChunks(mine);
+
         // Broadcast warning
         if (plugin.getConfig().shouldBroadcastResetWarning()) {
             int warningSeconds = plugin.getConfig().getWarningSecondsBeforeReset();
@@ -267,48 +547,123 @@ public class MineManager {
             broadcastResetWarning(mine, warningSeconds);
 
             // Schedule actual reset after warning delay
-            scheduler.schedule(() -> resetMine(mine), warningSeconds, TimeUnit.SECONDS);
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                try {
+                    runReset(mine).whenComplete((count, error) -> result.complete(count != null ? count : 0));
+                } catch (Exception e) {
+                    plugin.log(Level.SEVERE, "[MineReset] Mine " + mine.getId() + " reset FAILED: " + e.getMessage());
+                    mine.clearResetPending();
+                    result.complete(0);
+                }
+            }, warningSeconds, TimeUnit.SECONDS);
+            return result;
         } else {
             plugin.log(Level.INFO, "[MineReset] No warning configured, resetting mine " + mine.getId() + " immediately");
-            resetMine(mine);
+            return runReset(mine);
         }
     }
 
     /**
-     * Reset une mine immédiatement.
+     * Reset une mine immédiatement (commande admin, UI), sans attendre son tour dans la file.
      * Téléporte tous les joueurs dans la mine au spawn, attend 1 seconde, puis remplit les blocs.
+     *
+     * @return false si un reset de la mine est déjà en cours
      */
-    public void resetMine(@NotNull Mine mine) {
+    public boolean resetMine(@NotNull Mine mine) {
+        if (!resetQueue.startNow(mine)) {
+            plugin.log(Level.INFO, "[MineReset] Manual reset of " + mine.getId() + " skipped: already resetting");
+            return false;
+        }
+        return true;
+    }
+
+    CompletableFuture<Integer> runReset(@NotNull Mine mine) {
         if (!mine.isConfigured()) {
             plugin.log(Level.WARNING, "[MineReset] Cannot reset mine " + mine.getId() + ": not configured");
-            return;
+            chunkWarmer.release(mine.getId());
+            mine.clearResetPending();
+            return CompletableFuture.completedFuture(0);
         }
 
         plugin.log(Level.INFO, "[MineReset] resetMine(" + mine.getId() + ") START - hasSpawn=" + mine.hasSpawn());
+        CompletableFuture<Integer> result = new CompletableFuture<>();
 
         // Téléporter tous les joueurs dans la mine vers le spawn
         teleportMinePlayers(mine);
 
-        // Attendre 1 seconde puis remplir les blocs
-        scheduler.schedule(() -> {
+        // Attendre 1 seconde (et les chunks préchargés) puis remplir les blocs ; bail libéré après le fill
+        CompletableFuture<Void> chunksReady = warmChunks(mine);
+        result.whenComplete((count, error) -> {
+            chunkWarmer.release(mine.getId());
+            // Toujours libérer la demande, même si le fill a échoué avant resetState
+            mine.clearResetPending();
+        });
+        scheduler.schedule(() -> chunksReady.whenCompleteAsync((ignored, error) -> fillAfterReset(mine, result), scheduler),
+                1, TimeUnit.SECONDS);
+        return result;
+    }
+
+    /**
+     * Remet l'état de la mine à zéro et lance le fill adapté (différentiel, snapshot ou complet).
+     */
+    private void fillAfterReset(@NotNull Mine mine, @NotNull CompletableFuture<Integer> result) {
+        try {
             plugin.log(Level.INFO, "[MineReset] resetMine(" + mine.getId() + ") filling blocks after 1s delay...");
 
-            // Mettre à jour l'état
-            mine.resetState();
+            // Reset différentiel si le suivi des blocs cassés couvre la mine, sinon reset complet
+            List<int[]> broken = mine.isDeltaReset() ? mine.drainBrokenBlocks() : null;
+            if (broken == null) {
+                mine.restartBrokenTracking();
+            }
+
+            // Snapshot exact de la mine si le mode est actif (sinon composition en pourcentages)
+            MineSnapshot snapshot = mine.isSnapshotReset() ? resolveSnapshot(mine) : null;
+
+            // Mettre à jour l'état (les régénérations en attente sont couvertes par le fill)
+            regenerator.clear(mine.getId());
+            // Le snapshot peut contenir de l'air : blocs restants = blocs non-air du snapshot
+            mine.resetState(snapshot != null ? snapshot.getSolidCount() : mine.getTotalBlocks());
             saveAll();
             plugin.log(Level.INFO, "[MineReset] resetMine(" + mine.getId() + ") state reset, lastResetTime=" + mine.getLastResetTime());
 
+            // Réaligner le timer sur ce reset (qui a pu être déclenché par le seuil)
+            if (resetTasks.containsKey(mine.getId().toLowerCase())) {
+                scheduleReset(mine);
+            }
+
             // Remplir les blocs en full async
-            fillMineBlocksAsync(mine).thenAccept(count -> {
+            CompletableFuture<Integer> fill;
+            if (broken != null) {
+                fill = fillBrokenBlocksAsync(mine, broken, snapshot);
+            } else if (snapshot != null) {
+                fill = fillSnapshotAsync(mine, snapshot);
+            } else {
+                fill = fillMineBlocksAsync(mine);
+            }
+            fill.thenAccept(count -> {
                 plugin.log(Level.INFO, "[MineReset] Mine " + mine.getId() + " reset COMPLETE: " + count + " blocks placed");
                 String message = plugin.getConfig().getPrefixedMessage("mine.reset", "mine", mine.getDisplayName());
                 broadcastToMinePlayers(mine, message);
+                result.complete(count);
             }).exceptionally(ex -> {
                 plugin.log(Level.SEVERE, "[MineReset] Mine " + mine.getId() + " reset FAILED: " + ex.getMessage());
                 ex.printStackTrace();
+                result.complete(0);
                 return null;
             });
-        }, 1, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            plugin.log(Level.SEVERE, "[MineReset] Mine " + mine.getId() + " reset FAILED: " + e.getMessage());
+            result.complete(0);
+        }
+    }
+
+    /**
+     * Ouvre le bail de préchargement des chunks de la mine (sans effet si le monde est introuvable).
+     */
+    private CompletableFuture<Void> warmChunks(@NotNull Mine mine) {
+        World world = getMineWorld(mine);
+        return world != null ? chunkWarmer.warm(mine, world) : CompletableFuture.completedFuture(null);
     }
 
     /**
@@ -324,6 +679,9 @@ public class MineManager {
 
         // Mettre à jour l'état immédiatement (mine vidée = 0 blocs restants)
         mine.setRemainingBlocks(0);
+        mine.stopBrokenTracking();
+        MineGeometry geometry = mine.getGeometry();
+        mine.setHistogram(geometry != null ? BlockHistogram.empty(geometry) : null);
         saveAll();
 
         clearMineAsync(mine).thenAccept(count -> {
@@ -332,22 +690,18 @@ public class MineManager {
     }
 
     // ============================================
-    // ASYNC OPERATIONS (même pattern que BlockOperations du plugin edit)
+    // ASYNC OPERATIONS (écriture par tranches via MineBlockWriter)
     // ============================================
 
-    private static final int BLOCKS_PER_BATCH = 5000;
-    private static final int BATCH_DELAY_MS = 50;
-
     /**
      * Vide une mine en full async. Retourne un CompletableFuture avec le nombre de blocs.
      */
     private CompletableFuture<Integer> clearMineAsync(@NotNull Mine mine) {
         plugin.log(Level.INFO, "[DEBUG-CLEAR] clearMineAsync START for mine " + mine.getId());
 
-        // Calculer les positions
-        List<int[]> positions = computeMinePositions(mine);
-        plugin.log(Level.INFO, "[DEBUG-CLEAR] positions count=" + positions.size());
-        if (positions.isEmpty()) {
+        // Géométrie de la mine (positions parcourues chunk par chunk)
+        MineGeometry geometry = mine.getGeometry();
+        if (geometry == null || geometry.volume() == 0) {
             plugin.log(Level.WARNING, "[DEBUG-CLEAR] ABORT: positions empty!");
             return CompletableFuture.completedFuture(0);
         }
@@ -360,9 +714,9 @@ public class MineManager {
             return CompletableFuture.completedFuture(0);
         }
 
-        // Exécuter le placement en batch async
-        plugin.log(Level.INFO, "[DEBUG-CLEAR] Starting processBlocksInBatches with blockType=air");
-        return processBlocksInBatches(world, positions, "air", mine.getId(), "clear");
+        // Exécuter le placement par tranches (gabarit uniforme : index 0 = air partout)
+        FillCursor cursor = new FillCursor(geometry, FillPlan.uniform("air", geometry.layers), new short[geometry.volume()]);
+        return blockWriter.submit(world, cursor, "clear " + mine.getId());
     }
 
     /**
@@ -377,10 +731,9 @@ public class MineManager {
             try {
                 plugin.log(Level.INFO, "[DEBUG-FILL] scheduler task started for mine " + mine.getId());
 
-                // Calculer les positions
-                List<int[]> positions = computeMinePositions(mine);
-                plugin.log(Level.INFO, "[DEBUG-FILL] positions count=" + positions.size());
-                if (positions.isEmpty()) {
+                // Géométrie de la mine (positions parcourues en flux, sans liste)
+                MineGeometry geometry = mine.getGeometry();
+                if (geometry == null || geometry.volume() == 0) {
                     plugin.log(Level.WARNING, "[DEBUG-FILL] ABORT: positions empty!");
                     future.complete(0);
                     return;
@@ -395,25 +748,21 @@ public class MineManager {
                     return;
                 }
 
-                // Pré-générer les blocs par couche
-                int height = computeMineHeight(mine);
-                int blocksPerLayer = computeBlocksPerLayer(mine);
-                plugin.log(Level.INFO, "[DEBUG-FILL] height=" + height + " blocksPerLayer=" + blocksPerLayer);
-                Map<Integer, List<String>> preGeneratedBlocks = preGenerateBlocksForMine(mine, height, blocksPerLayer);
-                plugin.log(Level.INFO, "[DEBUG-FILL] preGenerated layers=" + preGeneratedBlocks.size());
-
-                // Assigner un type de bloc à chaque position
-                List<String> blockTypes = assignBlockTypes(mine, positions, preGeneratedBlocks);
-                plugin.log(Level.INFO, "[DEBUG-FILL] blockTypes assigned=" + blockTypes.size() + " (first 3: " + blockTypes.subList(0, Math.min(3, blockTypes.size())) + ")");
-
-                plugin.log(Level.INFO, "[DEBUG-FILL] Filling mine " + mine.getId() + ": " + positions.size() + " blocks");
-
-                // Exécuter le placement en batch async
-                processBlocksWithTypeInBatches(world, positions, blockTypes, mine.getId())
-                        .thenAccept(count -> {
-                            plugin.log(Level.INFO, "[DEBUG-FILL] processBlocksWithTypeInBatches complete: " + count + " blocks placed");
-                            future.complete(count);
-                        });
+                // Gabarit short[] pré-généré (le suivant est préparé pendant l'écriture), parcours chunk par chunk
+                FillTemplateCache.Prepared prepared = fillTemplates.take(mine);
+                if (prepared == null) {
+                    plugin.log(Level.WARNING, "No fill template available for mine " + mine.getId() + ", fill skipped");
+                    future.complete(0);
+                    return;
+                }
+                FillCursor cursor = prepared.cursor();
+                mine.setHistogram(prepared.histogram);
+                plugin.log(Level.FINE, "Filling mine " + mine.getId() + ": " + cursor.total() + " blocks ("
+                        + geometry.layers + " layers x " + geometry.columnsPerLayer + ")");
+
+                // Placement par tranches sur le thread monde (fin de travail loguée par le writer)
+                blockWriter.submit(world, cursor, "fill " + mine.getId())
+                        .whenComplete((count, error) -> future.complete(count != null ? count : 0));
             } catch (Exception e) {
                 plugin.log(Level.SEVERE, "[DEBUG-FILL] Error preparing fill for mine " + mine.getId() + ": " + e.getMessage());
                 e.printStackTrace();
@@ -425,262 +774,178 @@ public class MineManager {
     }
 
     /**
-     * Traite des blocs en batches (même type pour tous). Exactement comme BlockOperations.
+     * Reset différentiel : ne régénère que les positions cassées depuis le dernier reset.
+     * Chaque couche reçoit des comptes exacts selon sa composition, comme pour un fill complet,
+     * ou les blocs exacts du snapshot, puis les positions sont écrites dans l'ordre des chunks.
+     *
+     * @param positions positions {x, y, z} cassées (voir Mine.drainBrokenBlocks)
+     * @param snapshot snapshot à restaurer (déjà vérifié par resolveSnapshot), ou null
      */
-    private CompletableFuture<Integer> processBlocksInBatches(@NotNull World world,
-                                                               @NotNull List<int[]> positions,
-                                                               @NotNull String blockType,
-                                                               @NotNull String mineId,
-                                                               @NotNull String operation) {
+    private CompletableFuture<Integer> fillBrokenBlocksAsync(@NotNull Mine mine, @NotNull List<int[]> positions,
+                                                             @Nullable MineSnapshot snapshot) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
-        int total = positions.size();
-        int[] processed = {0};
-        int[] failed = {0};
 
-        List<List<int[]>> batches = partition(positions, BLOCKS_PER_BATCH);
-        plugin.log(Level.INFO, "[DEBUG-BATCH][" + operation + "] Mine " + mineId + ": " + total + " blocks in " + batches.size() + " batches, blockType=" + blockType);
+        scheduler.schedule(() -> {
+            try {
+                if (positions.isEmpty()) {
+                    future.complete(0);
+                    return;
+                }
 
-        for (int i = 0; i < batches.size(); i++) {
-            List<int[]> batch = batches.get(i);
-            int delay = i * BATCH_DELAY_MS;
-            final int batchIndex = i;
+                World world = getMineWorld(mine);
+                if (world == null) {
+                    plugin.log(Level.WARNING, "[fill] Delta reset aborted: world not found for mine " + mine.getId());
+                    future.complete(0);
+                    return;
+                }
 
-            scheduler.schedule(() -> {
-                plugin.log(Level.INFO, "[DEBUG-BATCH][" + operation + "] Batch " + batchIndex + " scheduled, executing on world thread...");
-                world.execute(() -> {
-                    plugin.log(Level.INFO, "[DEBUG-BATCH][" + operation + "] Batch " + batchIndex + " EXECUTING " + batch.size() + " blocks");
-                    int batchSuccess = 0;
-                    int batchFail = 0;
-                    for (int[] pos : batch) {
-                        try {
-                            // "air" n'est pas un bloc valide pour setBlock, utiliser breakBlock
-                            if ("air".equalsIgnoreCase(blockType)) {
-                                world.breakBlock(pos[0], pos[1], pos[2], 0);
-                            } else {
-                                world.setBlock(pos[0], pos[1], pos[2], blockType);
-                            }
-                            processed[0]++;
-                            batchSuccess++;
-                        } catch (Exception e) {
-                            failed[0]++;
-                            batchFail++;
-                            if (batchFail <= 3) {
-                                plugin.log(Level.WARNING, "[DEBUG-BATCH][" + operation + "] setBlock FAILED at " + pos[0] + "," + pos[1] + "," + pos[2] + " type=" + blockType + " error=" + e.getMessage());
-                            }
-                        }
-                    }
-                    plugin.log(Level.INFO, "[DEBUG-BATCH][" + operation + "] Batch " + batchIndex + " done: success=" + batchSuccess + " fail=" + batchFail + " total_processed=" + processed[0] + "/" + total);
+                MineGeometry geometry = mine.getGeometry();
+                if (geometry == null) {
+                    future.complete(0);
+                    return;
+                }
 
-                    if (processed[0] + failed[0] >= total) {
-                        if (failed[0] > 0) {
-                            plugin.log(Level.WARNING, "[" + operation + "] Mine " + mineId + ": " + failed[0] + " blocks failed");
-                        }
-                        future.complete(processed[0]);
+                if (snapshot != null) {
+                    positions.sort(ChunkOrder.POSITIONS);
+                    List<String> blockTypes = new ArrayList<>(positions.size());
+                    for (int[] pos : positions) {
+                        blockTypes.add(snapshot.blockType(geometry.ordinal(pos[0], pos[1], pos[2])));
                     }
-                });
-            }, delay, TimeUnit.MILLISECONDS);
-        }
+                    mine.countRestored(positions, blockTypes);
+                    plugin.log(Level.INFO, "[fill] Delta reset of mine " + mine.getId() + " from snapshot: " + positions.size() + " broken blocks");
+                    blockWriter.submit(world, new PositionListStream(positions, blockTypes, "stone"), "delta " + mine.getId())
+                            .thenAccept(future::complete);
+                    return;
+                }
 
-        return future;
-    }
+                FillPlan plan = FillPlan.of(mine, geometry.layers);
+                Random random = new Random();
 
-    /**
-     * Traite des blocs en batches (type différent par position). Exactement comme BlockOperations.
-     */
-    private CompletableFuture<Integer> processBlocksWithTypeInBatches(@NotNull World world,
-                                                                       @NotNull List<int[]> positions,
-                                                                       @NotNull List<String> blockTypes,
-                                                                       @NotNull String mineId) {
-        CompletableFuture<Integer> future = new CompletableFuture<>();
-        int total = positions.size();
-        int[] processed = {0};
-        int[] failed = {0};
+                // Comptes exacts et mélangés pour chaque couche touchée
+                int[] layerCounts = new int[geometry.layers];
+                for (int[] pos : positions) {
+                    layerCounts[pos[1] - geometry.minY]++;
+                }
+                short[][] layerBlocks = new short[geometry.layers][];
+                for (int layer = 0; layer < geometry.layers; layer++) {
+                    if (layerCounts[layer] == 0) continue;
+                    layerBlocks[layer] = new short[layerCounts[layer]];
+                    plan.generateLayer(layer, layerBlocks[layer], 0, layerCounts[layer], random);
+                }
 
-        // Créer les batches (indices)
-        int batchCount = (total + BLOCKS_PER_BATCH - 1) / BLOCKS_PER_BATCH;
-        plugin.log(Level.INFO, "[fill] Mine " + mineId + ": " + total + " blocks in " + batchCount + " batches");
+                // Ordre des chunks, puis un type pris dans la liste de la couche de chaque position
+                positions.sort(ChunkOrder.POSITIONS);
+                int[] layerCursors = new int[geometry.layers];
+                List<String> blockTypes = new ArrayList<>(positions.size());
+                for (int[] pos : positions) {
+                    int layer = pos[1] - geometry.minY;
+                    blockTypes.add(plan.blockType(layerBlocks[layer][layerCursors[layer]++]));
+                }
+                mine.countRestored(positions, blockTypes);
 
-        for (int i = 0; i < batchCount; i++) {
-            final int startIdx = i * BLOCKS_PER_BATCH;
-            final int endIdx = Math.min(startIdx + BLOCKS_PER_BATCH, total);
-            int delay = i * BATCH_DELAY_MS;
+                plugin.log(Level.INFO, "[fill] Delta reset of mine " + mine.getId() + ": " + positions.size() + " broken blocks");
+                blockWriter.submit(world, new PositionListStream(positions, blockTypes, "stone"), "delta " + mine.getId())
+                        .thenAccept(future::complete);
+            } catch (Exception e) {
+                plugin.log(Level.SEVERE, "[fill] Error preparing delta reset for mine " + mine.getId() + ": " + e.getMessage());
+                e.printStackTrace();
+                future.complete(0);
+            }
+        }, 0, TimeUnit.MILLISECONDS);
 
-            scheduler.schedule(() -> {
-                world.execute(() -> {
-                    for (int idx = startIdx; idx < endIdx; idx++) {
-                        int[] pos = positions.get(idx);
-                        String blockType = blockTypes.get(idx);
-                        try {
-                            // "air" n'est pas un bloc valide pour setBlock, utiliser breakBlock
-                            if ("air".equalsIgnoreCase(blockType)) {
-                                world.breakBlock(pos[0], pos[1], pos[2], 0);
-                            } else {
-                                world.setBlock(pos[0], pos[1], pos[2], blockType);
-                            }
-                            processed[0]++;
-                        } catch (Exception e) {
-                            try { world.setBlock(pos[0], pos[1], pos[2], "stone"); } catch (Exception ignored) {}
-                            failed[0]++;
-                        }
-                    }
+        return future;
+    }
 
-                    if (processed[0] + failed[0] >= total) {
-                        if (failed[0] > 0) {
-                            plugin.log(Level.WARNING, "[fill] Mine " + mineId + ": " + failed[0] + " blocks failed");
-                        }
-                        future.complete(processed[0]);
-                    }
-                });
-            }, delay, TimeUnit.MILLISECONDS);
+    /**
+     * Restaure la disposition exacte du snapshot (aucun tirage aléatoire).
+     */
+    private CompletableFuture<Integer> fillSnapshotAsync(@NotNull Mine mine, @NotNull MineSnapshot snapshot) {
+        MineGeometry geometry = mine.getGeometry();
+        World world = getMineWorld(mine);
+        if (geometry == null || world == null) {
+            plugin.log(Level.WARNING, "[fill] Snapshot restore aborted: world not found for mine " + mine.getId());
+            return CompletableFuture.completedFuture(0);
         }
-
-        return future;
+        plugin.log(Level.INFO, "[fill] Restoring mine " + mine.getId() + " from snapshot of " + snapshot.getSourceMine()
+                + ": " + snapshot.getVolume() + " blocks, " + snapshot.getPaletteSize() + " types");
+        mine.setHistogram(snapshot.histogram(geometry));
+        return blockWriter.submit(world, snapshot.cursor(geometry), "snapshot " + mine.getId());
     }
 
     // ============================================
-    // HELPERS pour calculer les positions de la mine
+    // SNAPSHOTS
     // ============================================
 
     /**
-     * Calcule toutes les positions (x,y,z) d'une mine (cuboid ou cylindre).
+     * Snapshot de la mine s'il existe et couvre exactement sa forme actuelle, sinon null (fill classique).
      */
-    private List<int[]> computeMinePositions(@NotNull Mine mine) {
-        if (mine.isCylindrical()) {
-            return computeCylinderPositions(mine);
-        } else {
-            return computeCuboidPositions(mine);
+    @Nullable
+    private MineSnapshot resolveSnapshot(@NotNull Mine mine) {
+        MineSnapshot snapshot = snapshots.get(mine.getId());
+        MineGeometry geometry = mine.getGeometry();
+        if (snapshot == null) {
+            plugin.log(Level.WARNING, "[snapshot] Mine " + mine.getId() + " is in snapshot mode but has no snapshot, using composition");
+            return null;
         }
-    }
-
-    private List<int[]> computeCuboidPositions(@NotNull Mine mine) {
-        ServerLocation c1 = mine.getCorner1();
-        ServerLocation c2 = mine.getCorner2();
-        if (c1 == null || c2 == null) return Collections.emptyList();
-
-        int minX = (int) Math.min(c1.x(), c2.x());
-        int maxX = (int) Math.max(c1.x(), c2.x());
-        int minY = (int) Math.min(c1.y(), c2.y());
-        int maxY = (int) Math.max(c1.y(), c2.y());
-        int minZ = (int) Math.min(c1.z(), c2.z());
-        int maxZ = (int) Math.max(c1.z(), c2.z());
-
-        List<int[]> positions = new ArrayList<>();
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    positions.add(new int[]{x, y, z});
-                }
-            }
+        if (geometry == null || !snapshot.fits(geometry)) {
+            plugin.log(Level.WARNING, "[snapshot] Snapshot of mine " + mine.getId() + " does not match its shape, using composition");
+            return null;
         }
-        return positions;
+        return snapshot;
     }
 
-    private List<int[]> computeCylinderPositions(@NotNull Mine mine) {
-        ServerLocation center = mine.getCenter();
-        int radius = mine.getRadius();
-        int height = mine.getHeight();
-        if (center == null || radius <= 0 || height <= 0) return Collections.emptyList();
-
-        int cx = (int) Math.floor(center.x());
-        int cy = (int) Math.floor(center.y());
-        int cz = (int) Math.floor(center.z());
-
-        int halfW = radius;
-        int halfH = radius;
-        double radiusAdjust = mine.getRadiusAdjust();
-        double rX = halfW + radiusAdjust;
-        double rZ = halfH + radiusAdjust;
-        double rXSq = rX * rX;
-        double rZSq = rZ * rZ;
-
-        List<int[]> positions = new ArrayList<>();
-        for (int layerOffset = 0; layerOffset < height; layerOffset++) {
-            int y = cy + layerOffset;
-            for (int dz = -halfH; dz <= halfH; dz++) {
-                for (int dx = -halfW; dx <= halfW; dx++) {
-                    double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                    if (distSq < 1.0) {
-                        positions.add(new int[]{cx + dx, y, cz + dz});
-                    }
-                }
+    /**
+     * Capture la disposition exacte des blocs de la mine dans mods/prison/snapshots/&lt;mine&gt;.snap.
+     * La lecture des blocs passe par MineScanner, l'écriture du fichier se fait sur le scheduler.
+     *
+     * @return le nombre de positions capturées
+     */
+    @NotNull
+    public CompletableFuture<Integer> captureSnapshot(@NotNull Mine mine) {
+        return scanMine(mine, null).thenApplyAsync(result -> {
+            try {
+                MineSnapshot snapshot = snapshots.save(mine.getId(), result.geometry, result.palette, result.indices);
+                plugin.log(Level.INFO, "[snapshot] Captured mine " + mine.getId() + ": " + snapshot.getVolume()
+                        + " blocks, " + result.palette.length + " types");
+                return snapshot.getVolume();
+            } catch (IOException e) {
+                plugin.log(Level.SEVERE, "[snapshot] Failed to write snapshot of mine " + mine.getId() + ": " + e.getMessage());
+                throw new CompletionException(e);
             }
-        }
-        return positions;
+        }, scheduler);
     }
 
-    private int computeMineHeight(@NotNull Mine mine) {
-        if (mine.isCylindrical()) {
-            return mine.getHeight();
+    /**
+     * Copie le snapshot d'une mine vers une autre de même forme.
+     *
+     * @return false si la source n'a pas de snapshot ou si les formes diffèrent
+     */
+    public boolean cloneSnapshot(@NotNull Mine source, @NotNull Mine target) {
+        MineSnapshot snapshot = snapshots.get(source.getId());
+        MineGeometry geometry = target.getGeometry();
+        if (snapshot == null || geometry == null || !snapshot.fits(geometry)) {
+            return false;
         }
-        ServerLocation c1 = mine.getCorner1();
-        ServerLocation c2 = mine.getCorner2();
-        if (c1 == null || c2 == null) return 0;
-        return (int) Math.abs(c2.y() - c1.y()) + 1;
-    }
-
-    private int computeBlocksPerLayer(@NotNull Mine mine) {
-        if (mine.isCylindrical()) {
-            int radius = mine.getRadius();
-            double radiusAdjust = mine.getRadiusAdjust();
-            double rX = radius + radiusAdjust;
-            double rZ = radius + radiusAdjust;
-            double rXSq = rX * rX;
-            double rZSq = rZ * rZ;
-            int count = 0;
-            for (int dz = -radius; dz <= radius; dz++) {
-                for (int dx = -radius; dx <= radius; dx++) {
-                    if ((dx * dx) / rXSq + (dz * dz) / rZSq < 1.0) count++;
-                }
-            }
-            return count;
+        try {
+            snapshots.copy(source.getId(), target.getId());
+            plugin.log(Level.INFO, "[snapshot] Cloned snapshot of mine " + source.getId() + " to " + target.getId());
+            return true;
+        } catch (IOException e) {
+            plugin.log(Level.SEVERE, "[snapshot] Failed to clone snapshot of mine " + source.getId() + ": " + e.getMessage());
+            return false;
         }
-        ServerLocation c1 = mine.getCorner1();
-        ServerLocation c2 = mine.getCorner2();
-        if (c1 == null || c2 == null) return 0;
-        int widthX = (int) Math.abs(c2.x() - c1.x()) + 1;
-        int widthZ = (int) Math.abs(c2.z() - c1.z()) + 1;
-        return widthX * widthZ;
     }
 
-    private int computeBaseY(@NotNull Mine mine) {
-        if (mine.isCylindrical()) {
-            ServerLocation center = mine.getCenter();
-            return center != null ? (int) Math.floor(center.y()) : 0;
-        }
-        ServerLocation c1 = mine.getCorner1();
-        ServerLocation c2 = mine.getCorner2();
-        if (c1 == null || c2 == null) return 0;
-        return (int) Math.min(c1.y(), c2.y());
+    public boolean hasSnapshot(@NotNull Mine mine) {
+        return snapshots.get(mine.getId()) != null;
     }
 
-    /**
-     * Assigne un type de bloc à chaque position selon les blocs pré-générés.
-     */
-    private List<String> assignBlockTypes(@NotNull Mine mine,
-                                            @NotNull List<int[]> positions,
-                                            @NotNull Map<Integer, List<String>> preGeneratedBlocks) {
-        int baseY = computeBaseY(mine);
-        List<String> blockTypes = new ArrayList<>(positions.size());
-
-        // Compteur par layer
-        Map<Integer, Integer> layerCounters = new HashMap<>();
-
-        for (int[] pos : positions) {
-            int layer = pos[1] - baseY;
-            int idx = layerCounters.getOrDefault(layer, 0);
-            layerCounters.put(layer, idx + 1);
-
-            List<String> layerBlocks = preGeneratedBlocks.get(layer);
-            String blockType = (layerBlocks != null && idx < layerBlocks.size())
-                    ? layerBlocks.get(idx) : "stone";
-            blockTypes.add(blockType);
-        }
-
-        return blockTypes;
-    }
+    // ============================================
+    // HELPERS (monde de la mine)
+    // ============================================
 
     @Nullable
-    private World getMineWorld(@NotNull Mine mine) {
+    World getMineWorld(@NotNull Mine mine) {
         plugin.log(Level.INFO, "[DEBUG-WORLD] getMineWorld for " + mine.getId() + " cylindrical=" + mine.isCylindrical());
         if (mine.isCylindrical()) {
             ServerLocation center = mine.getCenter();
@@ -696,193 +961,6 @@ public class MineManager {
         return w;
     }
 
-    private <T> List<List<T>> partition(@NotNull List<T> list, int size) {
-        List<List<T>> partitions = new ArrayList<>();
-        for (int i = 0; i < list.size(); i += size) {
-            partitions.add(list.subList(i, Math.min(i + size, list.size())));
-        }
-        return partitions;
-    }
-
-    /**
-     * Pré-génère les blocs pour toute la mine en respectant les pourcentages globaux et les limites de couches.
-     * @param mine La mine
-     * @param height Nombre de couches
-     * @param blocksPerLayer Nombre de blocs par couche
-     * @return Map layer -> liste des blocs pré-générés pour cette couche
-     */
-    private Map<Integer, List<String>> preGenerateBlocksForMine(Mine mine, int height, int blocksPerLayer) {
-        Random random = new Random();
-        Map<Integer, List<String>> result = new HashMap<>();
-
-        plugin.log(Level.INFO, "[DEBUG-PREGEN] START height=" + height + " blocksPerLayer=" + blocksPerLayer + " total=" + (height * blocksPerLayer));
-
-        for (int layer = 0; layer < height; layer++) {
-            // Obtenir la composition filtrée pour cette couche (avec limites de couches + blocs désactivés)
-            Map<String, Double> layerComp = mine.getActiveCompositionForLayer(layer);
-            if (layerComp.isEmpty()) {
-                layerComp = Map.of("stone", 100.0);
-            }
-
-            // Normaliser les pourcentages pour cette couche
-            double totalPercent = layerComp.values().stream().mapToDouble(Double::doubleValue).sum();
-            if (totalPercent <= 0) {
-                totalPercent = 100.0;
-            }
-
-            // Calculer le nombre exact de blocs par type pour cette couche
-            List<String> blockTypes = new ArrayList<>(layerComp.keySet());
-            int[] counts = new int[blockTypes.size()];
-            int assigned = 0;
-
-            for (int i = 0; i < blockTypes.size(); i++) {
-                double percent = layerComp.get(blockTypes.get(i));
-                if (i == blockTypes.size() - 1) {
-                    counts[i] = blocksPerLayer - assigned;
-                } else {
-                    counts[i] = (int) Math.round((percent / totalPercent) * blocksPerLayer);
-                }
-                assigned += counts[i];
-            }
-
-            // Créer la liste de blocs pour cette couche
-            List<String> layerBlocks = new ArrayList<>(blocksPerLayer);
-            for (int i = 0; i < blockTypes.size(); i++) {
-                String blockType = blockTypes.get(i);
-                for (int j = 0; j < counts[i]; j++) {
-                    layerBlocks.add(blockType);
-                }
-            }
-
-            // Mélanger pour randomiser la distribution dans la couche
-            Collections.shuffle(layerBlocks, random);
-
-            result.put(layer, layerBlocks);
-        }
-
-        plugin.log(Level.INFO, "[DEBUG-PREGEN] DONE layers=" + result.size());
-        return result;
-    }
-
-    /**
-     * Remplit une couche du cylindre (méthode legacy, gardée pour compatibilité).
-     * Utilise une grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée.
-     *
-     * Pour un rayon R, la grille va de -R à +R (soit 2R+1 positions).
-     * halfW = halfH = R
-     * radiusAdjust = 0.40 (pour avoir 13 blocs au bord quand R=50)
-     * Condition d'inclusion: (x²/(halfW+adj)²) + (z²/(halfH+adj)²) < 1
-     */
-    private void fillCylinderLayer(World world, Mine mine, int cx, int y, int cz, int radius, int radiusSq,
-                                    int layer, Map<Integer, List<Map.Entry<String, Double>>> layerEntries, Random random) {
-        List<Map.Entry<String, Double>> entries = layerEntries.computeIfAbsent(layer, l -> {
-            // Utiliser getActiveComposition pour exclure les blocs désactivés
-            Map<String, Double> comp = mine.getCompositionForLayer(l);
-            Map<String, Double> activeComp = new HashMap<>();
-            for (Map.Entry<String, Double> e : comp.entrySet()) {
-                if (!mine.isBlockDisabled(e.getKey())) {
-                    activeComp.put(e.getKey(), e.getValue());
-                }
-            }
-            List<Map.Entry<String, Double>> list = new ArrayList<>(activeComp.entrySet());
-            if (list.isEmpty()) {
-                list.add(Map.entry("stone", 100.0));
-            }
-            return list;
-        });
-
-        // Grille (2*radius+1) x (2*radius+1), de -radius à +radius
-        int halfW = radius;
-        int halfH = radius;
-        double radiusAdjust = 0.40;
-        double rX = halfW + radiusAdjust;
-        double rZ = halfH + radiusAdjust;
-        double rXSq = rX * rX;
-        double rZSq = rZ * rZ;
-
-        boolean logged = false;
-        // Parcourir la grille de -radius à +radius
-        for (int dz = -halfH; dz <= halfH; dz++) {
-            for (int dx = -halfW; dx <= halfW; dx++) {
-                // Formule de l'ellipse: (x²/rX²) + (z²/rZ²) < 1
-                double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                if (distSq >= 1.0) continue; // Hors du cercle
-
-                int x = cx + dx;
-                int z = cz + dz;
-                String blockType = selectRandomBlock(entries, random);
-                if (!logged) {
-                    plugin.log(Level.INFO, "[Mine " + mine.getId() + "] Trying to set block: " + blockType);
-                    logged = true;
-                }
-                try {
-                    // "air" n'est pas un bloc valide pour setBlock, utiliser breakBlock
-                    if ("air".equalsIgnoreCase(blockType)) {
-                        world.breakBlock(x, y, z, 0);
-                    } else {
-                        world.setBlock(x, y, z, blockType);
-                    }
-                } catch (Exception e) {
-                    try {
-                        world.setBlock(x, y, z, "stone");
-                    } catch (Exception ignored) {
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Remplit une bande d'une couche de la mine.
-     */
-    private void fillLayerStrip(World world, Mine mine, int minX, int maxX, int y, int minZ, int maxZ,
-                                 int layer, Map<Integer, List<Map.Entry<String, Double>>> layerEntries, Random random) {
-        // Obtenir la composition pour ce layer (exclure les blocs désactivés)
-        List<Map.Entry<String, Double>> entries = layerEntries.computeIfAbsent(layer, l -> {
-            Map<String, Double> comp = mine.getCompositionForLayer(l);
-            Map<String, Double> activeComp = new HashMap<>();
-            for (Map.Entry<String, Double> e : comp.entrySet()) {
-                if (!mine.isBlockDisabled(e.getKey())) {
-                    activeComp.put(e.getKey(), e.getValue());
-                }
-            }
-            List<Map.Entry<String, Double>> list = new ArrayList<>(activeComp.entrySet());
-            // Si pas de composition, utiliser stone par défaut
-            if (list.isEmpty()) {
-                list.add(Map.entry("stone", 100.0));
-            }
-            return list;
-        });
-
-        boolean logged = false;
-        for (int x = minX; x <= maxX; x++) {
-            for (int z = minZ; z <= maxZ; z++) {
-                String blockType = selectRandomBlock(entries, random);
-                if (!logged) {
-                    plugin.log(Level.INFO, "[Mine " + mine.getId() + "] Trying to set block: " + blockType);
-                    logged = true;
-                }
-                try {
-                    // "air" n'est pas un bloc valide pour setBlock, utiliser breakBlock
-                    if ("air".equalsIgnoreCase(blockType)) {
-                        world.breakBlock(x, y, z, 0);
-                    } else {
-                        world.setBlock(x, y, z, blockType);
-                    }
-                } catch (Exception e) {
-                    if (!logged) {
-                        plugin.log(Level.WARNING, "[Mine " + mine.getId() + "] Failed to set " + blockType + ": " + e.getMessage());
-                    }
-                    // Bloc inconnu, utiliser stone par défaut
-                    try {
-                        world.setBlock(x, y, z, "stone");
-                    } catch (Exception ignored) {
-                    }
-                }
-            }
-        }
-    }
-
     /**
      * Obtient le World Hytale depuis une ServerLocation.
      */
@@ -929,102 +1007,14 @@ public class MineManager {
     }
 
     /**
-     * Scanne les blocs d'une mine et retourne le compte par type de bloc.
-     */
-    @NotNull
-    public Map<String, Integer> scanMineBlocks(@NotNull Mine mine) {
-        Map<String, Integer> blockCounts = new HashMap<>();
-
-        // Cylindre
-        if (mine.isCylindrical()) {
-            return scanCylinderBlocks(mine);
-        }
-
-        ServerLocation c1 = mine.getCorner1();
-        ServerLocation c2 = mine.getCorner2();
-
-        if (c1 == null || c2 == null) return blockCounts;
-
-        World world = getWorldFromLocation(c1);
-        if (world == null) {
-            plugin.log(Level.WARNING, "Cannot scan mine " + mine.getId() + ": world not found");
-            return blockCounts;
-        }
-
-        int minX = (int) Math.min(c1.x(), c2.x());
-        int maxX = (int) Math.max(c1.x(), c2.x());
-        int minY = (int) Math.min(c1.y(), c2.y());
-        int maxY = (int) Math.max(c1.y(), c2.y());
-        int minZ = (int) Math.min(c1.z(), c2.z());
-        int maxZ = (int) Math.max(c1.z(), c2.z());
-
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    var blockType = world.getBlockType(x, y, z);
-                    if (blockType != null && blockType != com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType.EMPTY) {
-                        String blockId = blockType.getId();
-                        blockCounts.merge(blockId, 1, Integer::sum);
-                    }
-                }
-            }
-        }
-
-        plugin.log(Level.INFO, "Scanned mine " + mine.getId() + ": found " + blockCounts.size() + " block types");
-        return blockCounts;
-    }
-
-    /**
-     * Scanne les blocs d'une mine cylindrique.
-     * Utilise une grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée.
+     * Scanne les blocs d'une mine et retourne le compte par type de bloc (air exclu).
+     * Capture par tranches sur le thread monde, agrégation hors thread (voir MineScanner).
+     *
+     * @param progress pourcentage capturé, par paliers de 10 % (peut être null)
      */
     @NotNull
-    private Map<String, Integer> scanCylinderBlocks(@NotNull Mine mine) {
-        Map<String, Integer> blockCounts = new HashMap<>();
-
-        ServerLocation center = mine.getCenter();
-        int radius = mine.getRadius();
-        int height = mine.getHeight();
-
-        if (center == null) return blockCounts;
-
-        World world = getWorldFromLocation(center);
-        if (world == null) {
-            plugin.log(Level.WARNING, "Cannot scan cylindrical mine " + mine.getId() + ": world not found");
-            return blockCounts;
-        }
-
-        int cx = (int) Math.floor(center.x());
-        int cy = (int) Math.floor(center.y());
-        int cz = (int) Math.floor(center.z());
-
-        // Grille (2*radius+1) x (2*radius+1), de -radius à +radius
-        int halfW = radius;
-        int halfH = radius;
-        double radiusAdjust = 0.40;
-        double rX = halfW + radiusAdjust;
-        double rZ = halfH + radiusAdjust;
-        double rXSq = rX * rX;
-        double rZSq = rZ * rZ;
-
-        for (int y = cy; y < cy + height; y++) {
-            for (int dz = -halfH; dz <= halfH; dz++) {
-                for (int dx = -halfW; dx <= halfW; dx++) {
-                    // Formule de l'ellipse: (x²/rX²) + (z²/rZ²) < 1
-                    double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                    if (distSq >= 1.0) continue; // Hors du cercle
-
-                    var blockType = world.getBlockType(cx + dx, y, cz + dz);
-                    if (blockType != null && blockType != com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType.EMPTY) {
-                        String blockId = blockType.getId();
-                        blockCounts.merge(blockId, 1, Integer::sum);
-                    }
-                }
-            }
-        }
-
-        plugin.log(Level.INFO, "Scanned cylindrical mine " + mine.getId() + ": found " + blockCounts.size() + " block types");
-        return blockCounts;
+    public CompletableFuture<Map<String, Integer>> scanMineBlocks(@NotNull Mine mine, @Nullable IntConsumer progress) {
+        return scanMine(mine, progress).thenApply(MineScanner.Result::totals);
     }
 
     /**
@@ -1032,120 +1022,19 @@ public class MineManager {
      * @return Map<Layer, Map<BlockType, Count>>
      */
     @NotNull
-    public Map<Integer, Map<String, Integer>> scanMineLayers(@NotNull Mine mine) {
-        Map<Integer, Map<String, Integer>> layerBlockCounts = new HashMap<>();
-
-        // Cylindre
-        if (mine.isCylindrical()) {
-            return scanCylinderLayers(mine);
-        }
-
-        ServerLocation c1 = mine.getCorner1();
-        ServerLocation c2 = mine.getCorner2();
-
-        if (c1 == null || c2 == null) return layerBlockCounts;
-
-        World world = getWorldFromLocation(c1);
-        if (world == null) {
-            plugin.log(Level.WARNING, "Cannot scan mine layers " + mine.getId() + ": world not found");
-            return layerBlockCounts;
-        }
-
-        int minX = (int) Math.min(c1.x(), c2.x());
-        int maxX = (int) Math.max(c1.x(), c2.x());
-        int minY = (int) Math.min(c1.y(), c2.y());
-        int maxY = (int) Math.max(c1.y(), c2.y());
-        int minZ = (int) Math.min(c1.z(), c2.z());
-        int maxZ = (int) Math.max(c1.z(), c2.z());
-
-        for (int y = minY; y <= maxY; y++) {
-            int layer = y - minY; // Layer 0 = bas de la mine
-            Map<String, Integer> layerCounts = layerBlockCounts.computeIfAbsent(layer, k -> new HashMap<>());
-
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    var blockType = world.getBlockType(x, y, z);
-                    if (blockType != null && blockType != com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType.EMPTY) {
-                        String blockId = blockType.getId();
-                        layerCounts.merge(blockId, 1, Integer::sum);
-                    }
-                }
-            }
-        }
-
-        plugin.log(Level.INFO, "Scanned mine " + mine.getId() + " layers: found " + layerBlockCounts.size() + " layers");
-        return layerBlockCounts;
+    public CompletableFuture<Map<Integer, Map<String, Integer>>> scanMineLayers(@NotNull Mine mine, @Nullable IntConsumer progress) {
+        return scanMine(mine, progress).thenApply(MineScanner.Result::perLayer);
     }
 
-    /**
-     * Scanne les blocs d'une mine cylindrique par layer.
-     * Utilise une grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée.
-     */
     @NotNull
-    private Map<Integer, Map<String, Integer>> scanCylinderLayers(@NotNull Mine mine) {
-        Map<Integer, Map<String, Integer>> layerBlockCounts = new HashMap<>();
-
-        ServerLocation center = mine.getCenter();
-        int radius = mine.getRadius();
-        int height = mine.getHeight();
-
-        if (center == null) return layerBlockCounts;
-
-        World world = getWorldFromLocation(center);
-        if (world == null) {
-            plugin.log(Level.WARNING, "Cannot scan cylindrical mine layers " + mine.getId() + ": world not found");
-            return layerBlockCounts;
-        }
-
-        int cx = (int) Math.floor(center.x());
-        int cy = (int) Math.floor(center.y());
-        int cz = (int) Math.floor(center.z());
-
-        // Grille (2*radius+1) x (2*radius+1), de -radius à +radius
-        int halfW = radius;
-        int halfH = radius;
-        double radiusAdjust = 0.40;
-        double rX = halfW + radiusAdjust;
-        double rZ = halfH + radiusAdjust;
-        double rXSq = rX * rX;
-        double rZSq = rZ * rZ;
-
-        for (int layerOffset = 0; layerOffset < height; layerOffset++) {
-            int y = cy + layerOffset;
-            Map<String, Integer> layerCounts = layerBlockCounts.computeIfAbsent(layerOffset, k -> new HashMap<>());
-
-            for (int dz = -halfH; dz <= halfH; dz++) {
-                for (int dx = -halfW; dx <= halfW; dx++) {
-                    // Formule de l'ellipse: (x²/rX²) + (z²/rZ²) < 1
-                    double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                    if (distSq >= 1.0) continue; // Hors du cercle
-
-                    var blockType = world.getBlockType(cx + dx, y, cz + dz);
-                    if (blockType != null && blockType != com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType.EMPTY) {
-                        String blockId = blockType.getId();
-                        layerCounts.merge(blockId, 1, Integer::sum);
-                    }
-                }
-            }
+    private CompletableFuture<MineScanner.Result> scanMine(@NotNull Mine mine, @Nullable IntConsumer progress) {
+        MineGeometry geometry = mine.getGeometry();
+        World world = getMineWorld(mine);
+        if (geometry == null || world == null) {
+            plugin.log(Level.WARNING, "Cannot scan mine " + mine.getId() + ": not configured or world not found");
+            return CompletableFuture.failedFuture(new IllegalStateException("Mine " + mine.getId() + " is not configured"));
         }
-
-        plugin.log(Level.INFO, "Scanned cylindrical mine " + mine.getId() + " layers: found " + layerBlockCounts.size() + " layers");
-        return layerBlockCounts;
-    }
-
-    private String selectRandomBlock(List<Map.Entry<String, Double>> entries, Random random) {
-        double total = entries.stream().mapToDouble(Map.Entry::getValue).sum();
-        double roll = random.nextDouble() * total;
-
-        double cumulative = 0;
-        for (Map.Entry<String, Double> entry : entries) {
-            cumulative += entry.getValue();
-            if (roll <= cumulative) {
-                return entry.getKey();
-            }
-        }
-
-        return entries.isEmpty() ? "minecraft:stone" : entries.get(0).getKey();
+        return scanner.scan(world, geometry, "mine " + mine.getId(), progress);
     }
 
     /**
@@ -1161,7 +1050,8 @@ public class MineManager {
         int count = 0;
         for (IslandiumPlayer player : plugin.getCore().getPlayerManager().getOnlinePlayersLocal()) {
             ServerLocation loc = player.getLocation();
-            if (loc != null && mine.contains(loc)) {
+            if (loc != null && mine.contains(loc.world(),
+                    (int) Math.floor(loc.x()), (int) Math.floor(loc.y()), (int) Math.floor(loc.z()))) {
                 plugin.log(Level.INFO, "[MineReset] Teleporting player " + player.getName() + " out of mine " + mine.getId());
                 plugin.getCore().getTeleportService().teleportWithWarmup(
                         player,
@@ -1174,6 +1064,20 @@ public class MineManager {
         plugin.log(Level.INFO, "[MineReset] teleportMinePlayers(" + mine.getId() + ") teleported " + count + " players");
     }
 
+    /**
+     * Nombre de joueurs (locaux) actuellement dans la mine.
+     */
+    int countPlayersInMine(@NotNull Mine mine) {
+        int count = 0;
+        for (IslandiumPlayer player : plugin.getCore().getPlayerManager().getOnlinePlayersLocal()) {
+            ServerLocation loc = player.getLocation();
+            if (loc != null && mine.contains(loc)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private void broadcastResetWarning(@NotNull Mine mine, int seconds) {
         String message = plugin.getConfig().getPrefixedMessage("mine.reset-warning",
                 "mine", mine.getDisplayName(),
@@ -1192,6 +1096,61 @@ public class MineManager {
         }
     }
 
+    /**
+     * Écrivain de blocs des fills (file d'attente et débit).
+     */
+    @NotNull
+    public MineBlockWriter getBlockWriter() {
+        return blockWriter;
+    }
+
+    /**
+     * Programme la régénération d'un bloc cassé (mines en mode régénération).
+     */
+    public void scheduleRegen(@NotNull Mine mine, int x, int y, int z) {
+        regenerator.schedule(mine, x, y, z);
+    }
+
+    /**
+     * Change le délai de régénération d'une mine (0 = désactivée). Désactiver oublie les blocs
+     * en attente : ils seront reposés par le prochain reset.
+     */
+    public void setRegenDelay(@NotNull Mine mine, int seconds) {
+        mine.setRegenDelaySeconds(seconds);
+        if (!mine.isRegenMode()) {
+            regenerator.clear(mine.getId());
+        }
+        saveAll();
+    }
+
+    /**
+     * Nombre de blocs en attente de régénération, toutes mines confondues.
+     */
+    public int getPendingRegenCount() {
+        return regenerator.getPendingCount();
+    }
+
+    /**
+     * Nombre de chunks tenus chargés pour des resets en cours.
+     */
+    public int getWarmChunkCount() {
+        return chunkWarmer.getLeasedChunkCount();
+    }
+
+    /**
+     * Nombre de resets automatiques en file d'attente.
+     */
+    public int getQueuedResetCount() {
+        return resetQueue.getQueuedCount();
+    }
+
+    /**
+     * Nombre de resets automatiques en cours (avertissement ou fill).
+     */
+    public int getActiveResetCount() {
+        return resetQueue.getActiveCount();
+    }
+
     /**
      * Arrête le manager.
      */
@@ -1200,6 +1159,10 @@ public class MineManager {
             task.cancel(false);
         }
         resetTasks.clear();
+        regenerator.shutdown();
+        chunkWarmer.releaseAll();
+        flush();
         scheduler.shutdown();
+        fillTemplates.shutdown();
     }
 }
@@ -0,0 +1,176 @@
+package com.islandium.prison.mine;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Régénération bloc par bloc des mines en mode régénération (voir Mine.isRegenMode).
+ *
+ * Chaque bloc cassé est programmé dans la roue de sa mine (BlockRegenWheel). À chaque tick,
+ * les positions échues sont tirées selon la composition de leur couche (FillPlan.sample) et
+ * confiées à MineBlockWriter, qui les écrit sous le budget par tick du thread monde :
+ * le coût d'un reset est étalé dans le temps au lieu d'arriver d'un bloc.
+ */
+final class MineRegenerator {
+
+    // Le plan (composition résolue) est reconstruit au plus une fois par seconde et par mine
+    private static final long PLAN_REFRESH_MILLIS = 1000;
+
+    private final PrisonPlugin plugin;
+    private final MineManager manager;
+    private final MineBlockWriter writer;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> task;
+
+    MineRegenerator(@NotNull PrisonPlugin plugin, @NotNull MineManager manager,
+                    @NotNull MineBlockWriter writer, @NotNull ScheduledExecutorService scheduler) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.writer = writer;
+        this.task = scheduler.scheduleAtFixedRate(this::tick, BlockRegenWheel.TICK_MILLIS,
+                BlockRegenWheel.TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class State {
+        final Mine mine;
+        final BlockRegenWheel wheel = new BlockRegenWheel();
+        // Positions échues du tick (réutilisé, scheduler uniquement)
+        long[] due = new long[64];
+        int dueCount;
+        FillPlan plan;
+        MineGeometry planGeometry;
+        long planMillis;
+        World world;
+
+        State(Mine mine) {
+            this.mine = mine;
+        }
+    }
+
+    /**
+     * Programme la régénération d'un bloc cassé après le délai de la mine.
+     */
+    void schedule(@NotNull Mine mine, int x, int y, int z) {
+        State state = states.computeIfAbsent(mine.getId().toLowerCase(), k -> new State(mine));
+        state.wheel.schedule(BlockRegenWheel.pack(x, y, z), mine.getRegenDelaySeconds() * 1000L);
+    }
+
+    /**
+     * Annule les régénérations en attente (reset complet, mode désactivé).
+     */
+    void clear(@NotNull String mineId) {
+        State state = states.get(mineId.toLowerCase());
+        if (state != null) {
+            state.wheel.clear();
+        }
+    }
+
+    void remove(@NotNull String mineId) {
+        states.remove(mineId.toLowerCase());
+    }
+
+    /**
+     * Nombre de blocs en attente de régénération, toutes mines confondues.
+     */
+    int getPendingCount() {
+        int pending = 0;
+        for (State state : states.values()) {
+            pending += state.wheel.size();
+        }
+        return pending;
+    }
+
+    void shutdown() {
+        task.cancel(false);
+    }
+
+    // === Tick ===
+
+    private void tick() {
+        for (State state : states.values()) {
+            try {
+                // Ne vider la roue que si les positions peuvent être écrites (sinon elles attendent)
+                if (!ready(state)) continue;
+                state.dueCount = 0;
+                state.wheel.advance(packed -> {
+                    if (state.dueCount == state.due.length) {
+                        state.due = Arrays.copyOf(state.due, state.dueCount * 2);
+                    }
+                    state.due[state.dueCount++] = packed;
+                });
+                if (state.dueCount > 0) {
+                    regenerate(state);
+                }
+            } catch (Exception e) {
+                plugin.log(Level.WARNING, "[regen] Tick failed for mine " + state.mine.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Mine en mode régénération, configurée et dont le monde est chargé.
+     */
+    private boolean ready(State state) {
+        Mine mine = state.mine;
+        if (!mine.isRegenMode() || mine.getGeometry() == null) return false;
+        if (state.world == null) {
+            state.world = manager.getMineWorld(mine);
+        }
+        return state.world != null;
+    }
+
+    private void regenerate(State state) {
+        Mine mine = state.mine;
+        MineGeometry geometry = mine.getGeometry();
+        if (geometry == null) return;
+        World world = state.world;
+
+        long now = System.currentTimeMillis();
+        if (state.plan == null || state.planGeometry != geometry || now - state.planMillis >= PLAN_REFRESH_MILLIS) {
+            state.plan = FillPlan.of(mine, geometry.layers);
+            state.planGeometry = geometry;
+            state.planMillis = now;
+        }
+        FillPlan plan = state.plan;
+
+        // Positions encore dans la mine (la forme a pu changer), en clés triées par chunk.
+        // Tableaux propres au lot : le writer les lit plus tard depuis le thread monde.
+        long[] keys = new long[state.dueCount];
+        int count = 0;
+        for (int i = 0; i < state.dueCount; i++) {
+            long packed = state.due[i];
+            int x = BlockRegenWheel.unpackX(packed);
+            int y = BlockRegenWheel.unpackY(packed);
+            int z = BlockRegenWheel.unpackZ(packed);
+            if (geometry.contains(geometry.world, x, y, z)) {
+                keys[count++] = ChunkOrder.key(x, y, z);
+            }
+        }
+        if (count == 0) return;
+        Arrays.sort(keys, 0, count);
+
+        Random random = ThreadLocalRandom.current();
+        short[] types = new short[count];
+        int solid = 0;
+        for (int i = 0; i < count; i++) {
+            short type = plan.sample(ChunkOrder.keyY(keys[i]) - geometry.minY, random);
+            types[i] = type;
+            if (!plan.isAir(type)) solid++;
+        }
+
+        mine.addRemainingBlocks(solid);
+        mine.countRestored(plan, keys, types, count);
+        writer.submit(world, new PackedPositionStream(keys, types, count, plan), "regen " + mine.getId(), Level.FINE);
+    }
+}
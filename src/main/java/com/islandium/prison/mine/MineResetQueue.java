@@ -0,0 +1,157 @@
+package com.islandium.prison.mine;
+
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * File globale des resets automatiques (timer et seuil de blocs restants).
+ *
+ * - au plus PrisonConfig.getMaxConcurrentResets() resets en cours (avertissement + fill) ;
+ * - deux démarrages sont espacés d'au moins PrisonConfig.getResetStaggerSeconds() :
+ *   comme le timer de chaque mine est réaligné sur son dernier reset, les phases restent décalées ;
+ * - priorité aux mines occupées par des joueurs, puis au plus faible pourcentage restant ;
+ * - un reset manuel (startNow) démarre tout de suite, mais jamais en même temps qu'un autre
+ *   reset de la même mine.
+ *
+ * Le dispatch s'exécute sur le scheduler des mines (mono-thread).
+ */
+final class MineResetQueue {
+
+    private final PrisonPlugin plugin;
+    private final MineManager manager;
+    private final ScheduledExecutorService scheduler;
+
+    // id (minuscule) -> mine en attente
+    private final Map<String, Mine> queued = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    // id (minuscule) des mines en cours de reset (file ou manuel)
+    private final Set<String> activeIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private volatile long lastStartMillis;
+
+    MineResetQueue(@NotNull PrisonPlugin plugin, @NotNull MineManager manager, @NotNull ScheduledExecutorService scheduler) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Met une mine en file de reset (ignoré si elle y est déjà).
+     */
+    void enqueue(@NotNull Mine mine) {
+        if (queued.putIfAbsent(mine.getId().toLowerCase(), mine) == null) {
+            requestDispatch(0);
+        }
+    }
+
+    /**
+     * Reset manuel (commande, UI) : démarre sans attendre l'écart ni une place libre et absorbe
+     * la demande en file de la mine.
+     *
+     * @return false si un reset de la mine est déjà en cours (rien n'est lancé)
+     */
+    boolean startNow(@NotNull Mine mine) {
+        String id = mine.getId().toLowerCase();
+        if (!activeIds.add(id)) return false;
+        queued.remove(id);
+        start(mine, id, true);
+        return true;
+    }
+
+    /**
+     * Retire une mine de la file (mine supprimée).
+     */
+    void remove(@NotNull String mineId) {
+        queued.remove(mineId.toLowerCase());
+    }
+
+    int getQueuedCount() {
+        return queued.size();
+    }
+
+    int getActiveCount() {
+        return active.get();
+    }
+
+    private void requestDispatch(long delayMillis) {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::dispatch, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+
+        int maxConcurrent = plugin.getConfig().getMaxConcurrentResets();
+        long staggerMillis = plugin.getConfig().getResetStaggerSeconds() * 1000L;
+
+        while (!queued.isEmpty() && active.get() < maxConcurrent) {
+            long wait = lastStartMillis + staggerMillis - System.currentTimeMillis();
+            if (wait > 0) {
+                requestDispatch(wait);
+                return;
+            }
+
+            Mine next = pickNext();
+            if (next == null) return;
+            String id = next.getId().toLowerCase();
+            queued.remove(id);
+            // Reset manuel déjà en cours : il couvre la demande
+            if (!activeIds.add(id)) continue;
+            start(next, id, false);
+        }
+    }
+
+    /**
+     * Mine la plus prioritaire : joueurs présents d'abord, puis plus faible pourcentage restant.
+     */
+    private Mine pickNext() {
+        Mine best = null;
+        boolean bestOccupied = false;
+        double bestRemaining = Double.MAX_VALUE;
+
+        for (Mine mine : queued.values()) {
+            boolean occupied = manager.countPlayersInMine(mine) > 0;
+            double remaining = mine.getRemainingPercentage();
+            if (best == null
+                    || (occupied && !bestOccupied)
+                    || (occupied == bestOccupied && remaining < bestRemaining)) {
+                best = mine;
+                bestOccupied = occupied;
+                bestRemaining = remaining;
+            }
+        }
+        return best;
+    }
+
+    private void start(@NotNull Mine mine, @NotNull String id, boolean manual) {
+        active.incrementAndGet();
+        lastStartMillis = System.currentTimeMillis();
+        plugin.log(Level.INFO, "[MineReset] Queue starting " + (manual ? "manual " : "") + "reset of " + mine.getId()
+                + " (active=" + active.get() + ", queued=" + queued.size() + ")");
+
+        CompletableFuture<Integer> reset;
+        try {
+            reset = manual ? manager.runReset(mine) : manager.checkAndResetMine(mine);
+        } catch (Exception e) {
+            plugin.log(Level.SEVERE, "[MineReset] Failed to start reset of " + mine.getId() + ": " + e.getMessage());
+            reset = CompletableFuture.completedFuture(0);
+        }
+
+        reset.whenComplete((count, error) -> {
+            activeIds.remove(id);
+            active.decrementAndGet();
+            requestDispatch(0);
+        });
+    }
+}
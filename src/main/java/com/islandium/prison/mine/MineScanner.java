@@ -0,0 +1,258 @@
+package com.islandium.prison.mine;
+
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.stream.IntStream;
+
+/**
+ * Scan des blocs d'une mine sans bloquer le thread monde ni l'appelant.
+ *
+ * 1. Capture : des tranches sur le thread monde (même budget par tick que MineBlockWriter)
+ *    lisent les blocs chunk par chunk et ne stockent qu'un indice de palette short par ordinal.
+ *    Les types sont indexés par instance de BlockType : getId() n'est appelé qu'une fois par type.
+ * 2. Agrégation : les histogrammes par couche (int[] indexés par palette) sont calculés
+ *    en parallèle sur le pool commun, hors du thread monde.
+ *
+ * La progression de la capture (0-100 %) est remontée à l'appelant à chaque palier de 10 %.
+ */
+final class MineScanner {
+
+    private static final long TICK_MILLIS = 50;
+    private static final int CHECK_INTERVAL = 64;
+    private static final String AIR = "air";
+
+    private final PrisonPlugin plugin;
+    private final ScheduledExecutorService scheduler;
+
+    MineScanner(@NotNull PrisonPlugin plugin, @NotNull ScheduledExecutorService scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Lance le scan de la géométrie dans le monde.
+     *
+     * @param progress appelé avec le pourcentage capturé (hors thread monde), ou null
+     */
+    @NotNull
+    CompletableFuture<Result> scan(@NotNull World world, @NotNull MineGeometry geometry, @NotNull String name,
+                                   @Nullable IntConsumer progress) {
+        Capture capture = new Capture(world, geometry, name, progress);
+        capture.schedule(0);
+        return capture.future.thenApplyAsync(Capture::aggregate, ForkJoinPool.commonPool());
+    }
+
+    // === Capture ===
+
+    private final class Capture {
+        final World world;
+        final MineGeometry geometry;
+        final String name;
+        final IntConsumer progress;
+        final CompletableFuture<Capture> future = new CompletableFuture<>();
+        final long startMillis = System.currentTimeMillis();
+
+        // Parcours chunk par chunk (le gabarit vide ne sert qu'au parcours)
+        final FillCursor cursor;
+        final short[] indices;
+        final Map<BlockType, Short> typeIndices = new IdentityHashMap<>();
+        final List<String> palette = new ArrayList<>();
+        final short airIndex;
+        int captured;
+        int reportedPercent;
+
+        Capture(World world, MineGeometry geometry, String name, IntConsumer progress) {
+            this.world = world;
+            this.geometry = geometry;
+            this.name = name;
+            this.progress = progress;
+            this.indices = new short[geometry.volume()];
+            this.cursor = new FillCursor(geometry, FillPlan.uniform(AIR, geometry.layers), indices);
+            this.palette.add(AIR);
+            this.airIndex = 0;
+        }
+
+        void schedule(long delayMillis) {
+            try {
+                scheduler.schedule(this::dispatch, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void dispatch() {
+            try {
+                world.execute(this::runSlice);
+            } catch (Exception e) {
+                // Monde déchargé ou arrêt : la tranche ne s'exécutera jamais
+                fail(e);
+            }
+        }
+
+        private void fail(Exception e) {
+            plugin.log(Level.SEVERE, "[scan] " + name + ": capture failed: " + e.getMessage());
+            future.completeExceptionally(e);
+        }
+
+        /**
+         * Lit des blocs jusqu'à épuiser le budget du tick (thread monde).
+         */
+        void runSlice() {
+            try {
+                long budgetNanos = plugin.getConfig().getFillTickBudgetMicros() * 1000L;
+                long start = System.nanoTime();
+                int read = 0;
+                boolean more;
+                while ((more = cursor.next())) {
+                    int x = cursor.x(), y = cursor.y(), z = cursor.z();
+                    indices[geometry.ordinal(x, y, z)] = indexOf(world.getBlockType(x, y, z));
+                    read++;
+                    if ((read % CHECK_INTERVAL) == 0 && System.nanoTime() - start >= budgetNanos) {
+                        break;
+                    }
+                }
+                captured += read;
+
+                if (more) {
+                    reportProgress();
+                    schedule(TICK_MILLIS);
+                } else {
+                    future.complete(this);
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private short indexOf(@Nullable BlockType blockType) {
+            if (blockType == null || blockType == BlockType.EMPTY) return airIndex;
+            Short index = typeIndices.get(blockType);
+            if (index == null) {
+                if (palette.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many block types in " + name);
+                }
+                index = (short) palette.size();
+                palette.add(blockType.getId());
+                typeIndices.put(blockType, index);
+            }
+            return index;
+        }
+
+        private void reportProgress() {
+            if (progress == null) return;
+            int percent = (int) (captured * 100L / Math.max(1, indices.length));
+            if (percent / 10 > reportedPercent / 10) {
+                reportedPercent = percent;
+                scheduler.execute(() -> progress.accept(percent));
+            }
+        }
+
+        /**
+         * Histogrammes par couche, une couche par tâche (hors thread monde).
+         */
+        Result aggregate() {
+            // Les ids de bloc peuvent se répéter entre instances de BlockType : fusion sur l'id
+            Map<String, Short> merged = new HashMap<>();
+            short[] remap = new short[palette.size()];
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < palette.size(); i++) {
+                String id = palette.get(i);
+                Short index = merged.get(id);
+                if (index == null) {
+                    index = (short) ids.size();
+                    merged.put(id, index);
+                    ids.add(id);
+                }
+                remap[i] = index;
+            }
+
+            int types = ids.size();
+            int columns = geometry.columnsPerLayer;
+            int[][] layerCounts = new int[geometry.layers][];
+            IntStream.range(0, geometry.layers).parallel().forEach(layer -> {
+                int[] counts = new int[types];
+                int offset = layer * columns;
+                for (int i = offset; i < offset + columns; i++) {
+                    short index = remap[indices[i]];
+                    indices[i] = index;
+                    counts[index]++;
+                }
+                layerCounts[layer] = counts;
+            });
+
+            plugin.log(Level.INFO, "[scan] " + name + ": " + indices.length + " blocks, " + (types - 1)
+                    + " block types in " + (System.currentTimeMillis() - startMillis) + " ms");
+            return new Result(geometry, ids.toArray(new String[0]), indices, layerCounts);
+        }
+    }
+
+    // === Result ===
+
+    /**
+     * Résultat d'un scan : indice de palette par ordinal (palette[0] = "air") et comptes par couche.
+     */
+    static final class Result {
+        final MineGeometry geometry;
+        final String[] palette;
+        final short[] indices;
+        final int[][] layerCounts;
+
+        Result(MineGeometry geometry, String[] palette, short[] indices, int[][] layerCounts) {
+            this.geometry = geometry;
+            this.palette = palette;
+            this.indices = indices;
+            this.layerCounts = layerCounts;
+        }
+
+        /**
+         * Compte par type de bloc sur toute la mine (air exclu).
+         */
+        @NotNull
+        Map<String, Integer> totals() {
+            int[] totals = new int[palette.length];
+            for (int[] counts : layerCounts) {
+                for (int i = 0; i < counts.length; i++) {
+                    totals[i] += counts[i];
+                }
+            }
+            return toMap(totals);
+        }
+
+        /**
+         * Compte par type de bloc pour chaque couche (0 = bas, air exclu).
+         */
+        @NotNull
+        Map<Integer, Map<String, Integer>> perLayer() {
+            Map<Integer, Map<String, Integer>> layers = new HashMap<>();
+            for (int layer = 0; layer < layerCounts.length; layer++) {
+                layers.put(layer, toMap(layerCounts[layer]));
+            }
+            return layers;
+        }
+
+        private Map<String, Integer> toMap(int[] counts) {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 && !AIR.equals(palette[i])) {
+                    map.put(palette[i], counts[i]);
+                }
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Snapshot binaire de la disposition exacte des blocs d'une mine.
+ *
+ * Format (big-endian) :
+ * <pre>
+ * int    magic "PMSN"
+ * short  version
+ * long   date de capture (ms)
+ * utf    mine source
+ * int    volume (nombre d'ordinaux)
+ * int    blocs non-air
+ * int    n, int[n] forme relative (MineGeometry.shape)
+ * short  p, utf[p] palette
+ * short[volume] indice de palette par ordinal
+ * </pre>
+ * (utf = short longueur + octets UTF-8)
+ *
+ * Le fichier est lu d'un bloc dans un tampon sur le tas, que FillCursor lit directement.
+ * Pas de mmap : un fichier mappé ne peut pas être remplacé (Windows) tant que le mapping vit,
+ * et Java ne le libère qu'au GC. Un snapshot s'applique à toute mine de même forme,
+ * quelle que soit sa position (clonage entre mines).
+ */
+final class MineSnapshot {
+
+    private static final int MAGIC = 0x504D534E; // "PMSN"
+    private static final short VERSION = 1;
+
+    private final String sourceMine;
+    private final long createdAt;
+    private final int volume;
+    private final int solidCount;
+    private final int[] shape;
+    private final String[] palette;
+    private final ShortBuffer indices;
+
+    private MineSnapshot(String sourceMine, long createdAt, int volume, int solidCount,
+                         int[] shape, String[] palette, ShortBuffer indices) {
+        this.sourceMine = sourceMine;
+        this.createdAt = createdAt;
+        this.volume = volume;
+        this.solidCount = solidCount;
+        this.shape = shape;
+        this.palette = palette;
+        this.indices = indices;
+    }
+
+    // === I/O ===
+
+    /**
+     * Écrit un snapshot (fichier temporaire puis renommage, jamais de fichier à moitié écrit).
+     *
+     * @param indices indice de palette par ordinal de la géométrie
+     */
+    static void write(@NotNull Path file, @NotNull String sourceMine, @NotNull MineGeometry geometry,
+                      @NotNull String[] palette, @NotNull short[] indices) throws IOException {
+        if (indices.length != geometry.volume()) {
+            throw new IllegalArgumentException("Snapshot size " + indices.length + " != mine volume " + geometry.volume());
+        }
+        if (palette.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many block types: " + palette.length);
+        }
+
+        int solid = 0;
+        for (short index : indices) {
+            if (!"air".equalsIgnoreCase(palette[index])) solid++;
+        }
+
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            writeString(out, sourceMine);
+            out.writeInt(indices.length);
+            out.writeInt(solid);
+
+            int[] shape = geometry.shape();
+            out.writeInt(shape.length);
+            for (int value : shape) {
+                out.writeInt(value);
+            }
+
+            out.writeShort(palette.length);
+            for (String blockType : palette) {
+                writeString(out, blockType);
+            }
+            for (short index : indices) {
+                out.writeShort(index);
+            }
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Charge un snapshot et vérifie son en-tête et ses indices.
+     */
+    @NotNull
+    static MineSnapshot load(@NotNull Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).asReadOnlyBuffer();
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a mine snapshot: " + file.getFileName());
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file.getFileName());
+            }
+            long createdAt = buffer.getLong();
+            String sourceMine = readString(buffer);
+            int volume = buffer.getInt();
+            int solidCount = buffer.getInt();
+
+            int[] shape = new int[buffer.getInt()];
+            for (int i = 0; i < shape.length; i++) {
+                shape[i] = buffer.getInt();
+            }
+
+            String[] palette = new String[buffer.getShort()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = readString(buffer);
+            }
+
+            if (buffer.remaining() < volume * 2L) {
+                throw new IOException("Truncated snapshot: " + file.getFileName());
+            }
+            ShortBuffer indices = buffer.slice().asShortBuffer();
+            indices.limit(volume);
+            for (int i = 0; i < volume; i++) {
+                short index = indices.get(i);
+                if (index < 0 || index >= palette.length) {
+                    throw new IOException("Corrupted snapshot (bad palette index at " + i + "): " + file.getFileName());
+                }
+            }
+
+            return new MineSnapshot(sourceMine, createdAt, volume, solidCount, shape, palette, indices);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, NegativeArraySizeException...
+            throw new IOException("Corrupted snapshot: " + file.getFileName(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // === Restore ===
+
+    /**
+     * Vérifie que le snapshot couvre exactement les positions de la géométrie (à translation près).
+     */
+    boolean fits(@NotNull MineGeometry geometry) {
+        return geometry.volume() == volume && Arrays.equals(shape, geometry.shape());
+    }
+
+    /**
+     * Curseur de restauration complète, dans l'ordre des chunks (à vérifier avant avec fits).
+     */
+    @NotNull
+    FillCursor cursor(@NotNull MineGeometry geometry) {
+        return new FillCursor(geometry, FillPlan.palette(palette), indices.duplicate());
+    }
+
+    /**
+     * Type de bloc enregistré à un ordinal (reset différentiel depuis le snapshot).
+     */
+    @NotNull
+    String blockType(int ordinal) {
+        return palette[indices.get(ordinal)];
+    }
+
+    /**
+     * Comptes par type et par couche du snapshot (composition vivante après une restauration).
+     */
+    @NotNull
+    BlockHistogram histogram(@NotNull MineGeometry geometry) {
+        return BlockHistogram.of(geometry, palette, indices::get);
+    }
+
+    @NotNull
+    String getSourceMine() {
+        return sourceMine;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    int getVolume() {
+        return volume;
+    }
+
+    /**
+     * Nombre de blocs non-air (blocs restants juste après une restauration).
+     */
+    int getSolidCount() {
+        return solidCount;
+    }
+
+    int getPaletteSize() {
+        return palette.length;
+    }
+}
@@ -0,0 +1,123 @@
+package com.islandium.prison.mine;
+
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Snapshots des mines dans mods/prison/snapshots/ (un fichier &lt;mine&gt;.snap par mine).
+ * Les snapshots sont chargés au premier accès puis gardés en cache.
+ */
+final class MineSnapshotStore {
+
+    private static final String EXTENSION = ".snap";
+
+    private final PrisonPlugin plugin;
+    private final Path directory;
+
+    // id (minuscule) -> snapshot chargé
+    private final Map<String, MineSnapshot> cache = new ConcurrentHashMap<>();
+
+    MineSnapshotStore(@NotNull PrisonPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = plugin.getDataFolder().toPath().resolve("snapshots");
+    }
+
+    /**
+     * Snapshot de la mine, ou null s'il n'existe pas ou est illisible.
+     */
+    @Nullable
+    MineSnapshot get(@NotNull String mineId) {
+        String id = mineId.toLowerCase();
+        MineSnapshot snapshot = cache.get(id);
+        if (snapshot != null) return snapshot;
+
+        Path file = file(id);
+        try {
+            if (!Files.exists(file) && !migrateLegacyFile(id, file)) return null;
+            snapshot = MineSnapshot.load(file);
+            cache.put(id, snapshot);
+            return snapshot;
+        } catch (IOException e) {
+            plugin.log(Level.WARNING, "[snapshot] Failed to load snapshot of mine " + mineId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Écrit le snapshot d'une mine et remplace celui du cache.
+     */
+    @NotNull
+    MineSnapshot save(@NotNull String mineId, @NotNull MineGeometry geometry,
+                      @NotNull String[] palette, @NotNull short[] indices) throws IOException {
+        String id = mineId.toLowerCase();
+        Path file = file(id);
+        MineSnapshot.write(file, mineId, geometry, palette, indices);
+        MineSnapshot snapshot = MineSnapshot.load(file);
+        cache.put(id, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Copie le snapshot d'une mine vers une autre (clonage ; la forme est vérifiée au reset).
+     */
+    @NotNull
+    MineSnapshot copy(@NotNull String fromId, @NotNull String toId) throws IOException {
+        Path source = file(fromId.toLowerCase());
+        if (!Files.exists(source)) {
+            throw new IOException("No snapshot for mine " + fromId);
+        }
+        String id = toId.toLowerCase();
+        Path target = file(id);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(directory);
+        Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+
+        MineSnapshot snapshot = MineSnapshot.load(target);
+        cache.put(id, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Oublie le snapshot en cache (le fichier est conservé).
+     */
+    void evict(@NotNull String mineId) {
+        cache.remove(mineId.toLowerCase());
+    }
+
+    /**
+     * Fichier du snapshot, nommé comme le fichier JSON de la mine (voir MineManager.fileName).
+     */
+    private Path file(String id) {
+        return directory.resolve(MineManager.fileName(id) + EXTENSION);
+    }
+
+    /**
+     * Renomme un snapshot écrit sous l'id brut (avant l'encodage des noms), s'il reste dans le dossier.
+     *
+     * @return true si le fichier existe désormais sous son nom encodé
+     */
+    private boolean migrateLegacyFile(String id, Path file) throws IOException {
+        Path legacy;
+        try {
+            legacy = directory.resolve(id + EXTENSION).normalize();
+        } catch (InvalidPathException e) {
+            return false;
+        }
+        if (!directory.normalize().equals(legacy.getParent()) || !Files.exists(legacy)) return false;
+
+        Files.move(legacy, file);
+        plugin.log(Level.INFO, "[snapshot] Renamed " + legacy.getFileName() + " to " + file.getFileName());
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Index spatial des mines, par monde.
+ * Grille de hachage sur des colonnes de 16x16 blocs (clé = cellX, cellZ) : chaque cellule
+ * référence les mines dont la boîte englobante chevauche la colonne.
+ *
+ * Immutable après construction : MineManager reconstruit un nouvel index à chaque
+ * changement de géométrie et le publie via une référence volatile.
+ */
+final class MineSpatialIndex {
+
+    static final MineSpatialIndex EMPTY = new MineSpatialIndex(Map.of());
+
+    private static final int CELL_SHIFT = 4; // 16 blocs par cellule
+    private static final Mine[] NO_MINES = new Mine[0];
+
+    // World -> table des cellules
+    private final Map<String, CellTable> worlds;
+
+    private MineSpatialIndex(@NotNull Map<String, CellTable> worlds) {
+        this.worlds = worlds;
+    }
+
+    /**
+     * Construit l'index à partir des mines configurées.
+     */
+    @NotNull
+    static MineSpatialIndex build(@NotNull Collection<Mine> mines) {
+        Map<String, Map<Long, List<Mine>>> temp = new HashMap<>();
+
+        for (Mine mine : mines) {
+            MineGeometry geo = mine.getGeometry();
+            if (geo == null) continue;
+
+            Map<Long, List<Mine>> cells = temp.computeIfAbsent(geo.world, k -> new HashMap<>());
+            int minCellX = geo.minX >> CELL_SHIFT;
+            int maxCellX = geo.maxX >> CELL_SHIFT;
+            int minCellZ = geo.minZ >> CELL_SHIFT;
+            int maxCellZ = geo.maxZ >> CELL_SHIFT;
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    cells.computeIfAbsent(cellKey(cellX, cellZ), k -> new ArrayList<>(1)).add(mine);
+                }
+            }
+        }
+
+        Map<String, CellTable> worlds = new HashMap<>();
+        for (Map.Entry<String, Map<Long, List<Mine>>> worldEntry : temp.entrySet()) {
+            worlds.put(worldEntry.getKey(), new CellTable(worldEntry.getValue()));
+        }
+        return new MineSpatialIndex(worlds);
+    }
+
+    /**
+     * Retourne les mines candidates pour une colonne de blocs (à vérifier ensuite avec contains).
+     */
+    @NotNull
+    Mine[] candidates(@Nullable String world, int x, int z) {
+        if (world == null) return NO_MINES;
+        CellTable cells = worlds.get(world);
+        if (cells == null) return NO_MINES;
+        return cells.get(cellKey(x >> CELL_SHIFT, z >> CELL_SHIFT));
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Table de hachage à adressage ouvert (clé long primitive) pour éviter le boxing sur le hot path.
+     */
+    private static final class CellTable {
+        private final long[] keys;
+        private final Mine[][] values;
+        private final int mask;
+
+        CellTable(@NotNull Map<Long, List<Mine>> cells) {
+            int capacity = Integer.highestOneBit(Math.max(2, cells.size() * 2) - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new Mine[capacity][];
+            this.mask = capacity - 1;
+            for (Map.Entry<Long, List<Mine>> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int slot = hash(key) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = entry.getValue().toArray(NO_MINES);
+            }
+        }
+
+        @NotNull
+        Mine[] get(long key) {
+            int slot = hash(key) & mask;
+            Mine[] found;
+            while ((found = values[slot]) != null) {
+                if (keys[slot] == key) return found;
+                slot = (slot + 1) & mask;
+            }
+            return NO_MINES;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Source de blocs primitive pour la régénération : positions en clés ChunkOrder (déjà triées),
+ * types en indices de palette du plan.
+ */
+final class PackedPositionStream implements BlockStream {
+
+    private final long[] keys;
+    private final short[] types;
+    private final int count;
+    private final FillPlan plan;
+
+    private int index = -1;
+    private long current;
+
+    PackedPositionStream(@NotNull long[] keys, @NotNull short[] types, int count, @NotNull FillPlan plan) {
+        this.keys = keys;
+        this.types = types;
+        this.count = count;
+        this.plan = plan;
+    }
+
+    @Override
+    public boolean next() {
+        if (index + 1 >= count) return false;
+        current = keys[++index];
+        return true;
+    }
+
+    @Override
+    public int x() {
+        return ChunkOrder.keyX(current);
+    }
+
+    @Override
+    public int y() {
+        return ChunkOrder.keyY(current);
+    }
+
+    @Override
+    public int z() {
+        return ChunkOrder.keyZ(current);
+    }
+
+    @NotNull
+    @Override
+    public String blockType() {
+        return plan.blockType(types[index]);
+    }
+
+    @Override
+    public boolean isAir() {
+        return plan.isAir(types[index]);
+    }
+
+    @Override
+    public int total() {
+        return count;
+    }
+}
@@ -0,0 +1,64 @@
+package com.islandium.prison.mine;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Source de blocs à partir d'une liste de positions {x, y, z} déjà calculée
+ * (clear, reset différentiel), avec un type par position ou un type unique.
+ */
+final class PositionListStream implements BlockStream {
+
+    private final List<int[]> positions;
+    private final List<String> blockTypes;
+    private final String defaultType;
+
+    private int index = -1;
+    private int[] current;
+
+    PositionListStream(@NotNull List<int[]> positions, @Nullable List<String> blockTypes, @NotNull String defaultType) {
+        this.positions = positions;
+        this.blockTypes = blockTypes;
+        this.defaultType = defaultType;
+    }
+
+    @Override
+    public boolean next() {
+        if (index + 1 >= positions.size()) return false;
+        current = positions.get(++index);
+        return true;
+    }
+
+    @Override
+    public int x() {
+        return current[0];
+    }
+
+    @Override
+    public int y() {
+        return current[1];
+    }
+
+    @Override
+    public int z() {
+        return current[2];
+    }
+
+    @NotNull
+    @Override
+    public String blockType() {
+        return blockTypes != null ? blockTypes.get(index) : defaultType;
+    }
+
+    @Override
+    public boolean isAir() {
+        return "air".equalsIgnoreCase(blockType());
+    }
+
+    @Override
+    public int total() {
+        return positions.size();
+    }
+}
@@ -158,6 +158,7 @@ public class PrisonRankManager {
 
     public void setPlayerRank(@NotNull UUID uuid, @NotNull String rankId) {
         playerRanks.put(uuid, rankId.toUpperCase());
+        plugin.getMiningContextManager().invalidate(uuid);
         persistAsync(uuid);
     }
 
@@ -272,6 +273,7 @@ public class PrisonRankManager {
 
     public void setPlayerPrestige(@NotNull UUID uuid, int prestige) {
         playerPrestiges.put(uuid, prestige);
+        plugin.getMiningContextManager().invalidate(uuid);
         persistAsync(uuid);
     }
 
@@ -320,7 +322,7 @@ public class PrisonRankManager {
     public int getRankIndex(@NotNull String rankId) {
         if (rankId.equalsIgnoreCase("FREE")) return 26;
         if (rankId.length() == 1) {
-            char c = rankId.toUpperCase().charAt(0);
+            char c = Character.toUpperCase(rankId.charAt(0));
             if (c >= 'A' && c <= 'Z') {
                 return c - 'A';
             }
@@ -3,8 +3,9 @@ package com.islandium.prison.service;
 import com.islandium.prison.PrisonPlugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -14,15 +15,11 @@ import java.util.logging.Level;
 public class PrisonServiceManager {
 
     private final PrisonPlugin plugin;
-    private final ScheduledExecutorService scheduler;
+    // Tâches périodiques enregistrées auprès du timer du plugin
+    private final List<ScheduledFuture<?>> tasks = new CopyOnWriteArrayList<>();
 
     public PrisonServiceManager(@NotNull PrisonPlugin plugin) {
         this.plugin = plugin;
-        this.scheduler = Executors.newScheduledThreadPool(2, r -> {
-            Thread t = new Thread(r, "Prison-Service");
-            t.setDaemon(true);
-            return t;
-        });
     }
 
     /**
@@ -30,7 +27,20 @@ public class PrisonServiceManager {
      */
     public void initialize() {
         // Schedule auto-save every 5 minutes
-        scheduler.scheduleAtFixedRate(this::autoSave, 5, 5, TimeUnit.MINUTES);
+        PrisonTimerService timer = plugin.getTimerService();
+        tasks.add(timer.scheduleAtFixedRate(this::autoSave, 5, 5, TimeUnit.MINUTES));
+
+        // Crédit groupé des gains d'auto-sell
+        long flushMillis = plugin.getConfig().getAutoSellFlushMillis();
+        tasks.add(timer.scheduleAtFixedRate(this::flushAutoSell, flushMillis, flushMillis, TimeUnit.MILLISECONDS));
+
+        // Notifications d'auto-sell résumées par fenêtre
+        long notifyMillis = plugin.getConfig().getAutoSellNotifyWindowMillis();
+        tasks.add(timer.scheduleAtFixedRate(this::flushAutoSellNotifications, notifyMillis, notifyMillis, TimeUnit.MILLISECONDS));
+
+        // Écriture groupée de la progression des challenges
+        long challengeMillis = plugin.getConfig().getChallengeProgressFlushMillis();
+        tasks.add(timer.scheduleAtFixedRate(this::flushChallengeProgress, challengeMillis, challengeMillis, TimeUnit.MILLISECONDS));
 
         plugin.log(Level.INFO, "Prison services initialized");
     }
@@ -39,14 +49,11 @@ public class PrisonServiceManager {
      * Arrête tous les services.
      */
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
+        // Le timer lui-même est arrêté par PrisonPlugin.teardown
+        for (ScheduledFuture<?> task : tasks) {
+            task.cancel(false);
         }
+        tasks.clear();
 
         // Shutdown mine manager (cancels reset tasks)
         plugin.getMineManager().shutdown();
@@ -67,5 +74,44 @@ public class PrisonServiceManager {
         }
     }
 
+    /**
+     * Crédite les gains d'auto-sell accumulés.
+     */
+    private void flushAutoSell() {
+        try {
+            if (plugin.getSellService() != null) {
+                plugin.getSellService().getAutoSellAccumulator().flushAll();
+            }
+        } catch (Exception e) {
+            plugin.log(Level.WARNING, "Auto-sell flush failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Envoie les notifications d'auto-sell regroupées.
+     */
+    private void flushAutoSellNotifications() {
+        try {
+            if (plugin.getSellService() != null) {
+                plugin.getSellService().getAutoSellNotifier().flushAll();
+            }
+        } catch (Exception e) {
+            plugin.log(Level.WARNING, "Auto-sell notification flush failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écrit la progression des challenges marquée depuis le dernier flush.
+     */
+    private void flushChallengeProgress() {
+        try {
+            if (plugin.getChallengeManager() != null) {
+                plugin.getChallengeManager().getProgressStore().flushAll();
+            }
+        } catch (Exception e) {
+            plugin.log(Level.WARNING, "Challenge progress flush failed: " + e.getMessage());
+        }
+    }
+
     // Cell expiration check migre vers islandium-cells
 }
@@ -0,0 +1,464 @@
+package com.islandium.prison.service;
+
+import com.islandium.prison.PrisonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Timer unique du plugin : toutes les tâches différées et périodiques de Prison passent par ici.
+ *
+ * Roue temporelle hiérarchique (LEVELS niveaux de SLOTS cases, tick de TICK_MILLIS) tenue par un seul
+ * thread "Prison-Timer" ; les tâches échues sont exécutées par un petit pool "Prison-Worker-N".
+ * Les tâches programmées depuis n'importe quel thread passent par une file et sont rangées dans
+ * la roue au tick suivant : la roue elle-même n'est jamais partagée.
+ *
+ * Les composants qui supposaient un thread unique utilisent un couloir (lane) : exécution en série
+ * sur le pool, exposée comme un ScheduledExecutorService.
+ *
+ * Chaque tâche renvoie un ScheduledFuture (annulation). Le retard à l'exécution (échéance -> début
+ * sur un worker) est mesuré pour getAverageLatenessMicros / getMaxLatenessMicros.
+ */
+public class PrisonTimerService {
+
+    private static final long TICK_MILLIS = 10;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    // 64^4 ticks de 10 ms = ~46 h ; au-delà, la tâche reste au dernier niveau jusqu'à la bonne cascade
+    private static final int LEVELS = 4;
+
+    private final PrisonPlugin plugin;
+    private final ThreadPoolExecutor workers;
+    private final Thread tickThread;
+    private final long startNanos = System.nanoTime();
+
+    // Tâches à ranger dans la roue (tous threads -> thread timer)
+    private final Queue<TimerTask<?>> incoming = new ConcurrentLinkedQueue<>();
+    // [niveau][case], uniquement touché par le thread timer
+    private final ArrayDeque<TimerTask<?>>[][] wheel;
+    private long currentTick;
+    private volatile boolean running = true;
+
+    // Métriques
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder latenessNanos = new LongAdder();
+    private final AtomicLong maxLatenessNanos = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public PrisonTimerService(@NotNull PrisonPlugin plugin) {
+        this.plugin = plugin;
+
+        this.wheel = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new ArrayDeque<>();
+            }
+        }
+
+        int size = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "Prison-Worker-" + workerIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.tickThread = new Thread(this::runTicks, "Prison-Timer");
+        tickThread.setDaemon(true);
+        tickThread.start();
+    }
+
+    // === Programmation ===
+
+    /**
+     * Exécute une tâche une fois après un délai, sur le pool.
+     */
+    @NotNull
+    public ScheduledFuture<?> schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        return enqueue(new TimerTask<>(Executors.callable(task), deadline(delay, unit), 0, workers));
+    }
+
+    /**
+     * Exécute une tâche à intervalle fixe, sur le pool (une exécution ne chevauche jamais la précédente).
+     */
+    @NotNull
+    public ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable task, long initialDelay, long period,
+                                                  @NotNull TimeUnit unit) {
+        if (period <= 0) throw new IllegalArgumentException("period <= 0");
+        return enqueue(new TimerTask<>(Executors.callable(task), deadline(initialDelay, unit), unit.toNanos(period), workers));
+    }
+
+    /**
+     * Couloir d'exécution en série (les tâches d'un couloir ne s'exécutent jamais en parallèle),
+     * pour les composants écrits pour un scheduler mono-thread.
+     */
+    @NotNull
+    public ScheduledExecutorService lane(@NotNull String name) {
+        return new Lane(name);
+    }
+
+    private long deadline(long delay, TimeUnit unit) {
+        return System.nanoTime() + Math.max(0, unit.toNanos(delay));
+    }
+
+    private <V> TimerTask<V> enqueue(TimerTask<V> task) {
+        if (!running) throw new RejectedExecutionException("Prison timer is shut down");
+        if (task.deadlineNanos - System.nanoTime() <= 0) {
+            dispatch(task);
+        } else {
+            pending.incrementAndGet();
+            incoming.add(task);
+        }
+        return task;
+    }
+
+    private void dispatch(TimerTask<?> task) {
+        if (task.isCancelled()) return;
+        try {
+            task.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Couloir ou pool arrêté : la tâche ne s'exécutera plus
+            task.cancel(false);
+        }
+    }
+
+    // === Roue ===
+
+    private void runTicks() {
+        while (running) {
+            try {
+                long target = (System.nanoTime() - startNanos) / TICK_NANOS;
+                drainIncoming();
+                while (currentTick < target) {
+                    currentTick++;
+                    cascade();
+                    expire(wheel[0][(int) (currentTick & MASK)]);
+                }
+                long next = startNanos + (currentTick + 1) * TICK_NANOS;
+                LockSupport.parkNanos(next - System.nanoTime());
+            } catch (Throwable e) {
+                plugin.log(Level.SEVERE, "[timer] Tick failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void drainIncoming() {
+        TimerTask<?> task;
+        while ((task = incoming.poll()) != null) {
+            place(task);
+        }
+    }
+
+    /**
+     * Range une tâche au niveau correspondant à son éloignement (thread timer uniquement).
+     */
+    private void place(TimerTask<?> task) {
+        if (task.isCancelled()) {
+            pending.decrementAndGet();
+            return;
+        }
+        long deadlineTick = Math.floorDiv(task.deadlineNanos - startNanos + TICK_NANOS - 1, TICK_NANOS);
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            pending.decrementAndGet();
+            dispatch(task);
+            return;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Au-delà du dernier niveau : rangée au plus loin, replacée à chaque cascade
+        long slotTick = Math.min(deadlineTick, currentTick + (1L << (SLOT_BITS * LEVELS)) - 1);
+        wheel[level][(int) ((slotTick >> (SLOT_BITS * level)) & MASK)].add(task);
+    }
+
+    /**
+     * Redescend les tâches des niveaux supérieurs quand le niveau inférieur a fait un tour.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) return;
+            ArrayDeque<TimerTask<?>> slot = wheel[level][(int) ((currentTick >> (SLOT_BITS * level)) & MASK)];
+            if (slot.isEmpty()) continue;
+            List<TimerTask<?>> tasks = new ArrayList<>(slot);
+            slot.clear();
+            for (TimerTask<?> task : tasks) {
+                place(task);
+            }
+        }
+    }
+
+    private void expire(ArrayDeque<TimerTask<?>> slot) {
+        int n = slot.size();
+        for (int i = 0; i < n; i++) {
+            TimerTask<?> task = slot.poll();
+            // place() décrémente pending et exécute si l'échéance est atteinte
+            place(task);
+        }
+    }
+
+    // === Tâches ===
+
+    /**
+     * Tâche programmée : FutureTask rejouée tant qu'elle est périodique et non annulée.
+     */
+    private final class TimerTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        final Executor executor;
+        // > 0 : intervalle fixe, < 0 : délai fixe, 0 : une seule fois
+        final long periodNanos;
+        volatile long deadlineNanos;
+
+        TimerTask(Callable<V> callable, long deadlineNanos, long periodNanos, Executor executor) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            long lateness = System.nanoTime() - deadlineNanos;
+            fired.increment();
+            latenessNanos.add(Math.max(0, lateness));
+            maxLatenessNanos.accumulateAndGet(lateness, Math::max);
+
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset() && running) {
+                deadlineNanos = periodNanos > 0 ? deadlineNanos + periodNanos : System.nanoTime() - periodNanos;
+                try {
+                    enqueue(this);
+                } catch (RejectedExecutionException e) {
+                    cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+
+        @Override
+        public long getDelay(@NotNull TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(@NotNull Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            super.setException(t);
+            plugin.log(Level.WARNING, "[timer] Task failed: " + t);
+        }
+    }
+
+    // === Couloirs ===
+
+    /**
+     * Exécution en série sur le pool, dans l'ordre de soumission.
+     */
+    private final class Lane extends AbstractExecutorService implements ScheduledExecutorService {
+        private final String name;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean shutdown;
+
+        Lane(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void execute(@NotNull Runnable command) {
+            if (shutdown) throw new RejectedExecutionException("Lane " + name + " is shut down");
+            queue.add(command);
+            trySchedule();
+        }
+
+        private void trySchedule() {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable command;
+                while ((command = queue.poll()) != null) {
+                    try {
+                        command.run();
+                    } catch (Throwable e) {
+                        plugin.log(Level.WARNING, "[timer] " + name + ": task failed: " + e);
+                    }
+                }
+            } finally {
+                draining.set(false);
+                trySchedule();
+            }
+        }
+
+        @NotNull
+        @Override
+        public ScheduledFuture<?> schedule(@NotNull Runnable command, long delay, @NotNull TimeUnit unit) {
+            return schedule(Executors.callable(command), delay, unit);
+        }
+
+        @NotNull
+        @Override
+        public <V> ScheduledFuture<V> schedule(@NotNull Callable<V> callable, long delay, @NotNull TimeUnit unit) {
+            if (shutdown) throw new RejectedExecutionException("Lane " + name + " is shut down");
+            return enqueue(new TimerTask<>(callable, deadline(delay, unit), 0, this));
+        }
+
+        @NotNull
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable command, long initialDelay, long period,
+                                                      @NotNull TimeUnit unit) {
+            if (period <= 0) throw new IllegalArgumentException("period <= 0");
+            if (shutdown) throw new RejectedExecutionException("Lane " + name + " is shut down");
+            return enqueue(new TimerTask<>(Executors.callable(command), deadline(initialDelay, unit), unit.toNanos(period), this));
+        }
+
+        @NotNull
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Runnable command, long initialDelay, long delay,
+                                                         @NotNull TimeUnit unit) {
+            if (delay <= 0) throw new IllegalArgumentException("delay <= 0");
+            if (shutdown) throw new RejectedExecutionException("Lane " + name + " is shut down");
+            return enqueue(new TimerTask<>(Executors.callable(command), deadline(initialDelay, unit), -unit.toNanos(delay), this));
+        }
+
+        /**
+         * Refuse les nouvelles tâches ; les tâches programmées du couloir sont annulées à leur échéance.
+         */
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @NotNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> dropped = new ArrayList<>();
+            Runnable command;
+            while ((command = queue.poll()) != null) {
+                dropped.add(command);
+            }
+            return dropped;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && queue.isEmpty() && !draining.get();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (System.nanoTime() - deadline >= 0) return false;
+                LockSupport.parkNanos(TICK_NANOS);
+            }
+            return true;
+        }
+    }
+
+    // === Métriques ===
+
+    /**
+     * Tâches en attente dans la roue (les annulées y restent jusqu'à leur échéance).
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public long getFiredCount() {
+        return fired.sum();
+    }
+
+    /**
+     * Retard moyen entre l'échéance d'une tâche et son exécution par un worker.
+     */
+    public double getAverageLatenessMicros() {
+        long count = fired.sum();
+        return count == 0 ? 0 : latenessNanos.sum() / 1000.0 / count;
+    }
+
+    public long getMaxLatenessMicros() {
+        return maxLatenessNanos.get() / 1000;
+    }
+
+    public int getWorkerCount() {
+        return workers.getPoolSize();
+    }
+
+    public int getActiveWorkerCount() {
+        return workers.getActiveCount();
+    }
+
+    public int getWorkerQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    // === Arrêt ===
+
+    /**
+     * Arrête le timer et le pool (appelé en dernier par PrisonPlugin.teardown).
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(tickThread);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        plugin.log(Level.INFO, "[timer] Stopped: " + fired.sum() + " tasks run, avg lateness "
+                + String.format("%.0f", getAverageLatenessMicros()) + " us, max " + getMaxLatenessMicros() + " us");
+    }
+}
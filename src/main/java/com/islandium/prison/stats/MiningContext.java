@@ -0,0 +1,22 @@
+package com.islandium.prison.stats;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Snapshot immutable de l'état d'un joueur utile au minage.
+ * Lu une seule fois par bloc cassé au lieu d'interroger rangs, stats et config séparément.
+ *
+ * @param rankId         ID du rang (A-Z, FREE)
+ * @param rankIndex      Index du rang (voir PrisonRankManager.getRankIndex)
+ * @param prestige       Niveau de prestige
+ * @param sellMultiplier Multiplicateur de vente effectif (rang + prestige, x config)
+ * @param fortuneLevel   Niveau de l'upgrade fortune
+ * @param autoSell       Auto-sell débloqué et activé
+ */
+public record MiningContext(@NotNull String rankId,
+                            int rankIndex,
+                            int prestige,
+                            double sellMultiplier,
+                            int fortuneLevel,
+                            boolean autoSell) {
+}
@@ -0,0 +1,69 @@
+package com.islandium.prison.stats;
+
+import com.islandium.prison.PrisonPlugin;
+import com.islandium.prison.rank.PrisonRankManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache des MiningContext par joueur.
+ * Construit à la demande, invalidé par les changements de rang, prestige, upgrades
+ * et au rechargement de la config. Retiré à la déconnexion.
+ */
+public class MiningContextManager {
+
+    private final PrisonPlugin plugin;
+    private final Map<UUID, MiningContext> contexts = new ConcurrentHashMap<>();
+
+    public MiningContextManager(@NotNull PrisonPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Retourne le contexte de minage du joueur (construit si absent).
+     */
+    @NotNull
+    public MiningContext get(@NotNull UUID uuid) {
+        MiningContext context = contexts.get(uuid);
+        if (context != null) {
+            return context;
+        }
+        // computeIfAbsent : une invalidation concurrente attend la fin du calcul puis le retire
+        return contexts.computeIfAbsent(uuid, this::build);
+    }
+
+    /**
+     * Invalide le contexte d'un joueur (rankup, prestige, upgrade...).
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        contexts.remove(uuid);
+    }
+
+    /**
+     * Invalide tous les contextes (rechargement de la config, multiplicateur de vente modifié).
+     */
+    public void invalidateAll() {
+        contexts.clear();
+    }
+
+    @NotNull
+    private MiningContext build(@NotNull UUID uuid) {
+        PrisonRankManager rankManager = plugin.getRankManager();
+        PlayerStatsManager statsManager = plugin.getStatsManager();
+
+        String rankId = rankManager.getPlayerRank(uuid);
+        double multiplier = rankManager.getPlayerMultiplier(uuid) * plugin.getConfig().getBlockSellMultiplier();
+
+        return new MiningContext(
+                rankId,
+                rankManager.getRankIndex(rankId),
+                rankManager.getPlayerPrestige(uuid),
+                multiplier,
+                statsManager.getFortuneLevel(uuid),
+                statsManager.isAutoSellEnabled(uuid)
+        );
+    }
+}
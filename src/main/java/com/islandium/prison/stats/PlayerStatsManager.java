@@ -255,6 +255,7 @@ public class PlayerStatsManager {
 
     public void setFortuneLevel(@NotNull UUID uuid, int level) {
         getStats(uuid).fortuneLevel = Math.max(0, Math.min(5, level));
+        plugin.getMiningContextManager().invalidate(uuid);
         persistAsync(uuid);
     }
 
@@ -273,6 +274,7 @@ public class PlayerStatsManager {
 
     public void setAutoSellLevel(@NotNull UUID uuid, int level) {
         getStats(uuid).autoSellLevel = Math.max(0, Math.min(1, level));
+        plugin.getMiningContextManager().invalidate(uuid);
         persistAsync(uuid);
     }
 
@@ -287,6 +289,7 @@ public class PlayerStatsManager {
             return false;
         }
         stats.autoSellEnabled = !stats.autoSellEnabled;
+        plugin.getMiningContextManager().invalidate(uuid);
         persistAsync(uuid);
         return stats.autoSellEnabled;
     }
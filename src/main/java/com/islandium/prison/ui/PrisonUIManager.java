@@ -16,8 +16,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -37,7 +36,7 @@ public class PrisonUIManager {
     private final Map<UUID, ChallengeHud> activeChallengeHuds = new ConcurrentHashMap<>();
     /** Joueurs connectes dont le HUD est masque (pas dans le monde prison). */
     private final Map<UUID, PlayerHudInfo> trackedPlayers = new ConcurrentHashMap<>();
-    private ScheduledExecutorService refreshScheduler;
+    private ScheduledFuture<?> refreshTask;
 
     private record PlayerHudInfo(PlayerRef playerRef, Player player) {}
 
@@ -47,12 +46,7 @@ public class PrisonUIManager {
     }
 
     private void startRefreshTimer() {
-        refreshScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "Prison-HUD-Refresh");
-            t.setDaemon(true);
-            return t;
-        });
-        refreshScheduler.scheduleAtFixedRate(() -> {
+        refreshTask = plugin.getTimerService().scheduleAtFixedRate(() -> {
             try {
                 String requiredWorld = plugin.getConfig().getWorldName();
 
@@ -114,8 +108,8 @@ public class PrisonUIManager {
     }
 
     public void shutdown() {
-        if (refreshScheduler != null) {
-            refreshScheduler.shutdown();
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
         }
     }
 
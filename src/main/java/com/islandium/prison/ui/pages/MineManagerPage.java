@@ -5,6 +5,7 @@ import com.islandium.core.api.player.IslandiumPlayer;
 import com.islandium.core.api.util.NotificationType;
 import com.islandium.core.api.util.NotificationUtil;
 import com.islandium.prison.PrisonPlugin;
+import com.islandium.prison.mine.CylinderFootprint;
 import com.islandium.prison.mine.Mine;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
@@ -37,6 +38,7 @@ import java.util.List;
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Page de gestion des mines Prison.
@@ -288,8 +290,12 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
                     layerInfo = " [" + minStr + "-" + maxStr + "]";
                 }
 
-                // Texte du bloc
+                // Texte du bloc (+ restants depuis le dernier fill, sans scan)
                 String displayText = blockType + " " + String.format("%.1f%%", percentage) + layerInfo;
+                int live = mine.getLiveRemaining(blockType);
+                if (live >= 0) {
+                    displayText += " (" + live + ")";
+                }
 
                 // Couleurs selon état
                 String rowBg = isEditing ? "#2a3a4a" : (isDisabled ? "#1a1a1a" : "#151d28");
@@ -787,7 +793,10 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
                     plugin.log(java.util.logging.Level.INFO, "[MineManagerPage] >>> RESET mine object=" + (mine != null ? mine.getId() : "NULL"));
                     if (mine != null) {
                         plugin.log(java.util.logging.Level.INFO, "[MineManagerPage] >>> RESET calling resetMine()...");
-                        plugin.getMineManager().resetMine(mine);
+                        if (!plugin.getMineManager().resetMine(mine)) {
+                            NotificationUtil.send(player, NotificationType.ERROR, "Mine '" + mine.getDisplayName() + "' deja en cours de reset!");
+                            return;
+                        }
                         NotificationUtil.send(player, NotificationType.SUCCESS, "Mine '" + mine.getDisplayName() + "' reset!");
                         // rebuild() car appendInline ne fonctionne pas dans sendUpdate
                         rebuild();
@@ -823,22 +832,29 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
                 if (selectedMineId != null) {
                     Mine mine = plugin.getMineManager().getMine(selectedMineId);
                     if (mine != null && mine.isConfigured()) {
-                        Map<String, Integer> blocks = plugin.getMineManager().scanMineBlocks(mine);
-                        if (!blocks.isEmpty()) {
-                            // Convertir en pourcentages
-                            int total = blocks.values().stream().mapToInt(Integer::intValue).sum();
-                            mine.getComposition().clear();
-                            for (Map.Entry<String, Integer> entry : blocks.entrySet()) {
-                                double percent = (entry.getValue() * 100.0) / total;
-                                mine.addBlock(entry.getKey(), Math.round(percent * 10.0) / 10.0);
+                        // Scan par tranches : la page reste utilisable, progression par notifications
+                        NotificationUtil.send(player, NotificationType.INFO, "Scan de la mine en cours...");
+                        plugin.getMineManager().scanMineBlocks(mine,
+                                percent -> runOnWorldThread(player, () -> NotificationUtil.send(player, NotificationType.INFO, "Scan: " + percent + "%"))
+                        ).whenComplete((blocks, error) -> runOnWorldThread(player, () -> {
+                            if (error != null) {
+                                NotificationUtil.send(player, NotificationType.ERROR, "Echec du scan: " + error.getMessage());
+                            } else if (!blocks.isEmpty()) {
+                                // Convertir en pourcentages
+                                int total = blocks.values().stream().mapToInt(Integer::intValue).sum();
+                                mine.getComposition().clear();
+                                for (Map.Entry<String, Integer> entry : blocks.entrySet()) {
+                                    double percent = (entry.getValue() * 100.0) / total;
+                                    mine.addBlock(entry.getKey(), Math.round(percent * 10.0) / 10.0);
+                                }
+                                plugin.getMineManager().saveMine(mine);
+                                NotificationUtil.send(player, NotificationType.INFO, "Mine scannee! " + blocks.size() + " types de blocs trouves.");
+                                // rebuild() car la réponse arrive hors de l'événement de la page
+                                rebuild();
+                            } else {
+                                NotificationUtil.send(player, NotificationType.WARNING, "Aucun bloc trouve dans la mine.");
                             }
-                            plugin.getMineManager().saveMine(mine);
-                            NotificationUtil.send(player, NotificationType.INFO, "Mine scannee! " + blocks.size() + " types de blocs trouves.");
-                            refreshPage(cmd, event);
-                            sendUpdate(cmd, event, false);
-                        } else {
-                            NotificationUtil.send(player, NotificationType.WARNING, "Aucun bloc trouve dans la mine.");
-                        }
+                        }));
                     } else {
                         NotificationUtil.send(player, NotificationType.ERROR, "La mine n'est pas configuree (coins manquants).");
                     }
@@ -1030,6 +1046,21 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
         editingBlockType = null;
     }
 
+    /**
+     * Exécute une action sur le thread monde du joueur (réponses asynchrones, ex. scan).
+     */
+    private void runOnWorldThread(Player player, Runnable action) {
+        try {
+            var ref = player.getReference();
+            if (ref == null || !ref.isValid()) return;
+            var world = ref.getStore().getExternalData().getWorld();
+            if (world == null) return;
+            CompletableFuture.runAsync(action, world);
+        } catch (Exception e) {
+            plugin.log(java.util.logging.Level.WARNING, "[MineManagerPage] Failed to run on world thread: " + e.getMessage());
+        }
+    }
+
     // ==================== Visualisation de la mine ====================
 
     // Couleur de la zone (orange)
@@ -1115,12 +1146,7 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
 
     /**
      * Visualise une mine cylindrique avec un point sur chaque bloc du contour.
-     * Utilise une grille (2*radius+1) x (2*radius+1) avec formule d'ellipse ajustée.
-     *
-     * Pour un rayon R, la grille va de -R à +R (soit 2R+1 positions).
-     * halfW = halfH = R
-     * radiusAdjust = 0.40 (pour avoir 13 blocs au bord quand R=50)
-     * Condition d'inclusion: (x²/(halfW+adj)²) + (z²/(halfH+adj)²) < 1
+     * Le contour vient de l'empreinte partagée de la mine (voir CylinderFootprint).
      */
     @SuppressWarnings("deprecation")
     private void sendCylinderVisualization(Player player, Mine mine) {
@@ -1128,7 +1154,8 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
         if (connection == null) return;
 
         ServerLocation center = mine.getCenter();
-        int radius = mine.getRadius();
+        CylinderFootprint footprint = mine.getFootprint();
+        if (center == null || footprint == null) return;
         int height = mine.getHeight();
 
         // Centre en coordonnées de bloc
@@ -1136,50 +1163,25 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
         int cy = (int) Math.floor(center.y());
         int cz = (int) Math.floor(center.z());
 
-        // Grille (2*radius+1) x (2*radius+1), de -radius à +radius
-        int halfW = radius;
-        int halfH = radius;
-        double rX = halfW + mine.getRadiusAdjust();
-        double rZ = halfH + mine.getRadiusAdjust();
-        double rXSq = rX * rX;
-        double rZSq = rZ * rZ;
-
         List<DisplayDebug> packets = new ArrayList<>();
 
-        // Parcourir la grille de -radius à +radius
-        for (int dz = -halfH; dz <= halfH; dz++) {
-            for (int dx = -halfW; dx <= halfW; dx++) {
-                // Formule de l'ellipse: (x²/rX²) + (z²/rZ²) < 1
-                double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                if (distSq >= 1.0) continue; // Hors du cercle
-
-                // Vérifier si c'est un bloc de contour (au moins un voisin hors du cercle)
-                boolean isEdge = false;
-                for (int[] offset : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}) {
-                    int nx = dx + offset[0];
-                    int nz = dz + offset[1];
-                    double nDistSq = (nx * nx) / rXSq + (nz * nz) / rZSq;
-                    if (nDistSq >= 1.0) {
-                        isEdge = true;
-                        break;
-                    }
-                }
+        // Parcourir les blocs de contour
+        for (int i = 0; i < footprint.getEdgeCount(); i++) {
+            int dx = footprint.getEdgeDx(i);
+            int dz = footprint.getEdgeDz(i);
 
-                if (isEdge) {
-                    // Position du bloc dans le monde (centre du bloc)
-                    double bx = cx + dx + 0.5;
-                    double bz = cz + dz + 0.5;
+            // Position du bloc dans le monde (centre du bloc)
+            double bx = cx + dx + 0.5;
+            double bz = cz + dz + 0.5;
 
-                    // Point en bas
-                    packets.add(createSmallCube(bx, cy + 0.1, bz));
-                    // Point en haut
-                    packets.add(createSmallCube(bx, cy + height - 0.1, bz));
+            // Point en bas
+            packets.add(createSmallCube(bx, cy + 0.1, bz));
+            // Point en haut
+            packets.add(createSmallCube(bx, cy + height - 0.1, bz));
 
-                    // Ligne verticale (tous les 4 blocs)
-                    if ((dx + dz) % 4 == 0) {
-                        packets.add(createEdge(bx, cy + height / 2.0, bz, LINE_THICKNESS, height, LINE_THICKNESS));
-                    }
-                }
+            // Ligne verticale (tous les 4 blocs)
+            if ((dx + dz) % 4 == 0) {
+                packets.add(createEdge(bx, cy + height / 2.0, bz, LINE_THICKNESS, height, LINE_THICKNESS));
             }
         }
 
@@ -1386,46 +1388,25 @@ public class MineManagerPage extends InteractiveCustomUIPage<MineManagerPage.Pag
         ServerLocation center = mine.getCenter();
         if (center == null) return packets;
 
+        // Empreinte élargie : celle de la mine si la marge correspond, sinon calculée à la volée
+        CylinderFootprint footprint = mine.getVillageFootprint();
+        if (footprint == null || footprint.getRadius() != mine.getRadius() + margin) {
+            footprint = CylinderFootprint.of(mine.getRadius() + margin, mine.getRadiusAdjust());
+        }
+
         int cx = (int) Math.floor(center.x());
         int cz = (int) Math.floor(center.z());
 
-        int expandedRadius = mine.getRadius() + margin;
-        int halfW = expandedRadius;
-        int halfH = expandedRadius;
-        double rX = halfW + mine.getRadiusAdjust();
-        double rZ = halfH + mine.getRadiusAdjust();
-        double rXSq = rX * rX;
-        double rZSq = rZ * rZ;
-
         double wallMinY = 0;
         double wallMaxY = 256;
         double wallHeight = wallMaxY - wallMinY;
         double wallCenterY = wallMinY + wallHeight / 2.0;
 
-        for (int dz = -halfH; dz <= halfH; dz++) {
-            for (int dx = -halfW; dx <= halfW; dx++) {
-                double distSq = (dx * dx) / rXSq + (dz * dz) / rZSq;
-                if (distSq >= 1.0) continue;
-
-                // Vérifier si c'est un bloc de contour
-                boolean isEdge = false;
-                for (int[] offset : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}) {
-                    int nx = dx + offset[0];
-                    int nz = dz + offset[1];
-                    double nDistSq = (nx * nx) / rXSq + (nz * nz) / rZSq;
-                    if (nDistSq >= 1.0) {
-                        isEdge = true;
-                        break;
-                    }
-                }
-
-                if (isEdge) {
-                    double bx = cx + dx + 0.5;
-                    double bz = cz + dz + 0.5;
-                    // Pilier vertical de Y=0 à Y=256 (1 bloc de large)
-                    packets.add(createVillageEdge(bx, wallCenterY, bz, 0.3, wallHeight, 0.3));
-                }
-            }
+        for (int i = 0; i < footprint.getEdgeCount(); i++) {
+            double bx = cx + footprint.getEdgeDx(i) + 0.5;
+            double bz = cz + footprint.getEdgeDz(i) + 0.5;
+            // Pilier vertical de Y=0 à Y=256 (1 bloc de large)
+            packets.add(createVillageEdge(bx, wallCenterY, bz, 0.3, wallHeight, 0.3));
         }
 
         return packets;
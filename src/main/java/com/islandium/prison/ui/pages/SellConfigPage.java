@@ -158,6 +158,8 @@ public class SellConfigPage extends InteractiveCustomUIPage<SellConfigPage.PageD
                             return;
                         }
                         plugin.getConfig().setBlockSellMultiplier(mult);
+                        // Mining contexts cache the global multiplier
+                        plugin.getMiningContextManager().invalidateAll();
                         saveConfig(player);
                         cmd.set("#MultiplierInfo.Text", "Sauvegarde! x" + String.format("%.2f", mult));
                         sendUpdate(cmd, event, false);
@@ -235,16 +235,20 @@ public class PrisonHud extends CustomUIHud {
             ServerLocation loc = islandiumPlayer.getLocation();
             if (loc == null) return null;
 
-            // D'abord vérifier si dans une mine
-            for (Mine mine : plugin.getMineManager().getAllMines()) {
-                if (mine.contains(loc)) {
-                    return mine;
-                }
+            String world = loc.world();
+            int x = (int) Math.floor(loc.x());
+            int y = (int) Math.floor(loc.y());
+            int z = (int) Math.floor(loc.z());
+
+            // D'abord vérifier si dans une mine (index spatial)
+            Mine inMine = plugin.getMineManager().findMineAt(world, x, y, z);
+            if (inMine != null) {
+                return inMine;
             }
 
             // Sinon vérifier si dans une zone village
             for (Mine mine : plugin.getMineManager().getAllMines()) {
-                if (mine.containsVillage(loc)) {
+                if (mine.containsVillage(world, x, y, z)) {
                     return mine;
                 }
             }
@@ -266,16 +270,20 @@ public class PrisonHud extends CustomUIHud {
             ServerLocation loc = islandiumPlayer.getLocation();
             if (loc == null) return "---";
 
-            // D'abord vérifier si dans une mine
-            for (Mine mine : plugin.getMineManager().getAllMines()) {
-                if (mine.contains(loc)) {
-                    return mine.getDisplayName();
-                }
+            String world = loc.world();
+            int x = (int) Math.floor(loc.x());
+            int y = (int) Math.floor(loc.y());
+            int z = (int) Math.floor(loc.z());
+
+            // D'abord vérifier si dans une mine (index spatial)
+            Mine inMine = plugin.getMineManager().findMineAt(world, x, y, z);
+            if (inMine != null) {
+                return inMine.getDisplayName();
             }
 
             // Sinon vérifier si dans une zone village
             for (Mine mine : plugin.getMineManager().getAllMines()) {
-                if (mine.containsVillage(loc)) {
+                if (mine.containsVillage(world, x, y, z)) {
                     return "Village " + mine.getDisplayName();
                 }
             }